@@ -0,0 +1,176 @@
+package BubbleBobble;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * ActiveRenderer draws the game itself instead of asking Swing to repaint. It
+ * is a Canvas with a BufferStrategy: a render thread draws each frame into the
+ * back buffer and shows it, once per refresh of the screen. Frames arrive at a
+ * steady rate and are not coalesced or delayed by the Swing paint queue.
+ *
+ * The render thread runs while the canvas is on screen. The level is drawn by
+ * LevelComponent.paintFrame(), the same code the Swing path uses, and the
+ * simulation keeps running on the GameLoop thread.
+ *
+ * Rendering mode is picked with -Dbubblebobble.render=active|swing (default
+ * active) and the number of buffers with -Dbubblebobble.buffers=2|3 (default 2,
+ * one frame less latency than triple buffering).
+ *
+ */
+@SuppressWarnings("serial")
+public class ActiveRenderer extends Canvas implements Runnable {
+	public static final boolean REQUESTED = !"swing".equalsIgnoreCase(System.getProperty("bubblebobble.render", "active"));
+	private static final int BUFFERS = Integer.getInteger("bubblebobble.buffers", 2);
+	private static final int DEFAULT_REFRESH_RATE = 60;
+
+	private final LevelComponent component;
+	private Thread thread;
+	private volatile boolean running = false;
+	private volatile long frames = 0;
+
+	/**
+	 *
+	 * Creates a canvas that renders the given component's level.
+	 *
+	 * @param component
+	 */
+	public ActiveRenderer(LevelComponent component) {
+		this.component = component;
+		this.setIgnoreRepaint(true); // all drawing happens on the render thread
+		this.setFocusable(false); // key events keep going to the frame
+		this.setBackground(Color.BLACK);
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		this.createBufferStrategy(BUFFERS);
+		this.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		this.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 *
+	 * Starts the render thread if it is not already running.
+	 *
+	 */
+	public synchronized void start() {
+		if (this.running) {
+			return;
+		}
+		this.running = true;
+		this.thread = new Thread(this, "BubbleBobble-Render");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 *
+	 * Stops the render thread and waits for the frame being drawn.
+	 *
+	 */
+	public synchronized void stop() {
+		this.running = false;
+		if (this.thread != null) {
+			LockSupport.unpark(this.thread);
+			if (this.thread != Thread.currentThread()) {
+				try {
+					this.thread.join(1000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			this.thread = null;
+		}
+	}
+
+	/**
+	 * @return the number of frames shown so far
+	 */
+	public long getFrames() {
+		return this.frames;
+	}
+
+	/**
+	 *
+	 * Returns the time between two refreshes of the screen the canvas is on.
+	 *
+	 * @return the frame period in nanoseconds
+	 */
+	private long framePeriodNanos() {
+		GraphicsConfiguration gc = this.getGraphicsConfiguration();
+		int rate = DEFAULT_REFRESH_RATE;
+		if (gc != null) {
+			DisplayMode mode = gc.getDevice().getDisplayMode();
+			if (mode != null && mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+				rate = mode.getRefreshRate();
+			}
+		}
+		return 1_000_000_000L / rate;
+	}
+
+	@Override
+	public void run() {
+		BufferStrategy strategy = this.getBufferStrategy();
+		long period = this.framePeriodNanos();
+		long next = System.nanoTime();
+
+		while (this.running) {
+			this.render(strategy);
+			this.frames++;
+
+			next += period;
+			long now = System.nanoTime();
+			if (now - next > period) {
+				// missed a whole refresh: start counting again from now instead of
+				// drawing several frames back to back to catch up
+				next = now;
+			}
+			long wait = next - now;
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Draws one frame into the back buffer and shows it, drawing again if the
+	 * buffer contents were lost on the way.
+	 *
+	 * @param strategy
+	 */
+	private void render(BufferStrategy strategy) {
+		do {
+			do {
+				Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+				try {
+					// the canvas can be larger than the level, clear what the level does not cover
+					g.setColor(this.getBackground());
+					g.fillRect(0, 0, this.getWidth(), this.getHeight());
+					this.component.paintFrame(g);
+				} catch (RuntimeException e) {
+					// a bad frame must not end the render thread
+					e.printStackTrace();
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+			Toolkit.getDefaultToolkit().sync(); // push the frame out now, not when the pipeline fills up
+		} while (strategy.contentsLost());
+	}
+}
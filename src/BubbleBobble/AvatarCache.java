@@ -0,0 +1,88 @@
+package BubbleBobble;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ *
+ * AvatarCache reads player avatars from the avatars directory and keeps them
+ * scaled down to thumbnail size, so each avatar file is read and scaled once.
+ * The least recently used thumbnails are dropped when the cache is full.
+ *
+ */
+public class AvatarCache {
+	private static final String AVATAR_DIRECTORY = "avatars";
+
+	private final int size;
+	private final Map<String, BufferedImage> thumbnails;
+
+	/**
+	 *
+	 * Creates a cache of square thumbnails.
+	 *
+	 * @param size width and height of a thumbnail
+	 * @param capacity how many thumbnails to keep
+	 */
+	public AvatarCache(int size, int capacity) {
+		this.size = size;
+		this.thumbnails = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 *
+	 * Returns the thumbnail of avatars/<name>.png. A missing or unreadable file
+	 * is remembered as well, so it is not tried again on every call.
+	 *
+	 * @param name
+	 * @return the thumbnail, or null if there is no avatar
+	 */
+	public synchronized BufferedImage get(String name) {
+		if (this.thumbnails.containsKey(name)) {
+			return this.thumbnails.get(name);
+		}
+		BufferedImage thumbnail = null;
+		try {
+			BufferedImage avatar = ImageIO.read(new File(AVATAR_DIRECTORY, name + ".png"));
+			if (avatar != null) {
+				thumbnail = scale(avatar);
+			}
+		} catch (IOException e) {
+			// no avatar for this player
+		}
+		this.thumbnails.put(name, thumbnail);
+		return thumbnail;
+	}
+
+	/**
+	 *
+	 * Forgets the thumbnail of a player, e.g. after a new avatar was uploaded.
+	 *
+	 * @param name
+	 */
+	public synchronized void invalidate(String name) {
+		this.thumbnails.remove(name);
+	}
+
+	private BufferedImage scale(BufferedImage avatar) {
+		// smooth scaling once, so drawing the thumbnail later is a plain copy
+		Image scaled = avatar.getScaledInstance(this.size, this.size, Image.SCALE_SMOOTH);
+		BufferedImage thumbnail = new BufferedImage(this.size, this.size, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = thumbnail.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.drawImage(scaled, 0, 0, null);
+		g.dispose();
+		return thumbnail;
+	}
+}
@@ -0,0 +1,165 @@
+package BubbleBobble;
+
+import BubbleBobble.model.RenderSnapshot;
+import BubbleBobble.model.TileMap;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.VolatileImage;
+
+/**
+ *
+ * BackgroundLayer holds everything of a level that never moves: the black
+ * background, the menu screen image and the platforms. It is drawn once into an
+ * accelerated VolatileImage and each frame only copies that image, so the
+ * platforms cost one draw call per frame instead of one per platform.
+ *
+ * The layer is drawn from the platform entries of a RenderSnapshot. It is
+ * redrawn when the level changes, when its platforms change (the level compiles
+ * a new TileMap whenever a platform goes away) and whenever the graphics system
+ * throws away the contents of the VolatileImage.
+ *
+ * The layer is kept at the viewport's scale, with the platforms copied from
+ * the scaled sprites, and redrawn at a new size when the scale changes.
+ *
+ * In a level bigger than the playfield the layer covers the part of the level
+ * under the camera plus MARGIN on every side and is copied shifted by where the
+ * camera is, so it is only redrawn when the camera gets near its edge or the
+ * level's chunks bring in or take away platforms.
+ *
+ */
+public class BackgroundLayer {
+	public static final int MARGIN = 5 * 35; // level pixels drawn beyond the playfield when scrolling
+
+	private final int width;
+	private final int height;
+	private VolatileImage image;
+
+	// what the current image shows
+	private int levelNum = -1;
+	private TileMap tileMap;
+	private Image screen;
+	private int platformCount = -1;
+	private int platformVersion = -1;
+	private double scale = 1;
+	private int margin = 0;
+	private int originX = 0; // level coordinates of the image's top left corner
+	private int originY = 0;
+
+	/**
+	 *
+	 * Creates an empty layer of the given size, at scale 1.
+	 *
+	 * @param width
+	 * @param height
+	 */
+	public BackgroundLayer(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 *
+	 * Draws the background of the snapshot's level where the viewport puts the
+	 * playfield, redrawing the layer first if it is out of date or its contents
+	 * were lost.
+	 *
+	 * @param g
+	 * @param frame
+	 * @param view
+	 */
+	public void paint(Graphics2D g, RenderSnapshot frame, Viewport view) {
+		GraphicsConfiguration gc = g.getDeviceConfiguration();
+		boolean stale = this.levelNum != frame.levelNum || this.tileMap != frame.geometry || this.screen != frame.screen
+				|| this.platformCount != frame.platformCount || this.platformVersion != frame.platformVersion
+				|| !this.covers(view);
+		int margin = frame.scrolling ? MARGIN : 0;
+		boolean resized = this.scale != view.scale || this.margin != margin;
+		do {
+			int status = (this.image == null || resized) ? VolatileImage.IMAGE_INCOMPATIBLE : this.image.validate(gc);
+			if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				// first use, new scale, or moved to a different screen
+				if (this.image != null) {
+					this.image.flush();
+				}
+				this.image = gc.createCompatibleVolatileImage(view.scale(this.width + 2 * margin),
+						view.scale(this.height + 2 * margin));
+				this.scale = view.scale;
+				this.margin = margin;
+				resized = false;
+				stale = true;
+			}
+			if (stale || status == VolatileImage.IMAGE_RESTORED) {
+				this.render(frame, view);
+				stale = false;
+			}
+			g.drawImage(this.image, view.worldX(this.originX), view.worldY(this.originY), null);
+		} while (this.image.contentsLost());
+	}
+
+	/**
+	 * @param view
+	 * @return true if the image still covers the playfield where the camera is
+	 */
+	private boolean covers(Viewport view) {
+		return view.cameraX >= this.originX && view.cameraY >= this.originY
+				&& view.cameraX + this.width <= this.originX + this.width + 2 * this.margin
+				&& view.cameraY + this.height <= this.originY + this.height + 2 * this.margin;
+	}
+
+	/**
+	 *
+	 * Draws the static parts of the level into the VolatileImage.
+	 *
+	 * @param frame
+	 * @param view
+	 */
+	private void render(RenderSnapshot frame, Viewport view) {
+		// centred on the camera, the camera can move MARGIN any way before a redraw
+		this.originX = (int) Math.floor(view.cameraX) - this.margin;
+		this.originY = (int) Math.floor(view.cameraY) - this.margin;
+		Graphics2D g = this.image.createGraphics();
+		try {
+			g.setColor(Color.BLACK);
+			g.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+			// only for 'main menu', 'game over', and 'game won' screens
+			if (frame.screen != null) {
+				g.drawImage(view.sprites.get(frame.screen), view.scale(35), view.scale(35), null);
+			}
+			for (int i = 0; i < frame.count; i++) {
+				if ((frame.flags[i] & RenderSnapshot.PLATFORM) != 0) {
+					// a merged platform repeats its sprite across its width
+					Image sprite = view.sprites.get(frame.sprites[i]);
+					int step = Math.max(1, (frame.sprites[i] == null) ? frame.extra[i] : frame.sprites[i].getWidth(null));
+					int x = frame.x[i];
+					do {
+						g.drawImage(sprite, view.scale(x - this.originX), view.scale(frame.y[i] - this.originY), null);
+						x += step;
+					} while (x < frame.x[i] + frame.extra[i]);
+				}
+			}
+		} finally {
+			g.dispose();
+		}
+		this.levelNum = frame.levelNum;
+		this.tileMap = frame.geometry;
+		this.screen = frame.screen;
+		this.platformCount = frame.platformCount;
+		this.platformVersion = frame.platformVersion;
+	}
+
+	/**
+	 *
+	 * Releases the video memory of the layer.
+	 *
+	 */
+	public void flush() {
+		if (this.image != null) {
+			this.image.flush();
+			this.image = null;
+		}
+		this.levelNum = -1;
+	}
+}
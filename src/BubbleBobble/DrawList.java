@@ -0,0 +1,222 @@
+package BubbleBobble;
+
+import BubbleBobble.model.RenderSnapshot;
+import BubbleBobble.model.ScaledSprites;
+import BubbleBobble.model.SpriteRegistry;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * DrawList turns the moving entries of a RenderSnapshot into the order they
+ * are drawn in. Entries entirely outside the playfield (a bubble that has
+ * floated off the top, a monster carried up in a bubble, anything away from
+ * the camera in a level bigger than the playfield) are culled. The rest are
+ * sorted by layer and, within a layer, by texture: the atlas page a sprite is
+ * on, or the sprite's own image if it is not in the atlas (animation frames).
+ * A sprite on a page is drawn from the page with its region as the source
+ * rectangle, so all the sprites of one page in a layer are one run of
+ * drawImage() calls on the same source image, and the graphics pipeline
+ * switches source images once per run instead of on almost every sprite.
+ * Within a run the entries keep the level's order.
+ *
+ * Sorting is a counting sort over preallocated arrays, so building the list
+ * allocates nothing once the arrays have grown to the level's size and every
+ * sprite has been seen once.
+ *
+ */
+public class DrawList {
+	// per drawn entry, in snapshot order
+	private Image[] textures = new Image[0];
+	private int[] xs = new int[0];
+	private int[] ys = new int[0];
+	private int[] sourceXs = new int[0];
+	private int[] sourceYs = new int[0];
+	private int[] widths = new int[0];
+	private int[] heights = new int[0];
+	private int[] groups = new int[0];
+	// entry indexes in drawing order
+	private int[] order = new int[0];
+	private int[] counts = new int[0];
+	private int count = 0;
+
+	// where each sprite is drawn from, for the set of sprites it belongs to
+	private final Map<Image, Source> sources = new HashMap<>();
+	private final Map<Image, Integer> textureIds = new HashMap<>();
+	private ScaledSprites sourceSet;
+
+	// what the last build did, e.g. for the profiler
+	public int culled = 0;
+	public int batches = 0;
+
+	/**
+	 *
+	 * The texture a scaled sprite is drawn from and its rectangle there.
+	 *
+	 */
+	private static final class Source {
+		final Image texture;
+		final int textureId;
+		final int x;
+		final int y;
+		final int width;
+		final int height;
+
+		Source(Image texture, int textureId, int x, int y, int width, int height) {
+			this.texture = texture;
+			this.textureId = textureId;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	/**
+	 *
+	 * Builds the list from the moving entries of a snapshot. Platforms are
+	 * left out; they are part of the background.
+	 *
+	 * @param frame
+	 * @param view
+	 * @param alpha the interpolation factor in [0, 1]
+	 */
+	public void build(RenderSnapshot frame, Viewport view, double alpha) {
+		if (this.textures.length < frame.count) {
+			this.grow(frame.count);
+		}
+		if (this.sourceSet != view.sprites) {
+			// sources belong to one set of sprites, start over for a new scale
+			this.sources.clear();
+			this.textureIds.clear();
+			this.sourceSet = view.sprites;
+		}
+
+		int n = 0;
+		int culledCount = 0;
+		double left = view.cameraX;
+		double top = view.cameraY;
+		for (int i = 0; i < frame.count; i++) {
+			if ((frame.flags[i] & RenderSnapshot.PLATFORM) != 0 || frame.sprites[i] == null) {
+				continue;
+			}
+			Image sprite = frame.sprites[i];
+			double x = frame.interpolatedX(i, alpha);
+			double y = frame.interpolatedY(i, alpha);
+			if (x >= left + view.size || y >= top + view.size || x + sprite.getWidth(null) <= left
+					|| y + sprite.getHeight(null) <= top) {
+				culledCount++;
+				continue;
+			}
+			Source source = this.sourceOf(view.sprites.get(sprite));
+			this.textures[n] = source.texture;
+			this.xs[n] = view.worldX(x);
+			this.ys[n] = view.worldY(y);
+			this.sourceXs[n] = source.x;
+			this.sourceYs[n] = source.y;
+			this.widths[n] = source.width;
+			this.heights[n] = source.height;
+			this.groups[n] = frame.layer[i];
+			this.order[n] = source.textureId;
+			n++;
+		}
+		// let go of images from a bigger earlier frame
+		for (int i = n; i < this.count; i++) {
+			this.textures[i] = null;
+		}
+		this.count = n;
+		this.culled = culledCount;
+
+		// group = layer, then texture; counting sort keeps the level's order in a group
+		int textureCount = Math.max(1, this.textureIds.size());
+		int groupCount = RenderSnapshot.LAYERS * textureCount;
+		if (this.counts.length < groupCount + 1) {
+			this.counts = new int[Math.max(groupCount + 1, this.counts.length * 2)];
+		}
+		Arrays.fill(this.counts, 0, groupCount + 1, 0);
+		for (int i = 0; i < n; i++) {
+			this.groups[i] = this.groups[i] * textureCount + this.order[i];
+			this.counts[this.groups[i] + 1]++;
+		}
+		int used = 0;
+		for (int g = 0; g < groupCount; g++) {
+			if (this.counts[g + 1] > 0) {
+				used++;
+			}
+			this.counts[g + 1] += this.counts[g];
+		}
+		for (int i = 0; i < n; i++) {
+			this.order[this.counts[this.groups[i]]++] = i;
+		}
+		this.batches = used;
+	}
+
+	/**
+	 *
+	 * Draws the list built last, one run of sprites per layer and texture.
+	 *
+	 * @param g2
+	 */
+	public void draw(Graphics2D g2) {
+		for (int k = 0; k < this.count; k++) {
+			int i = this.order[k];
+			int x = this.xs[i];
+			int y = this.ys[i];
+			int sourceX = this.sourceXs[i];
+			int sourceY = this.sourceYs[i];
+			g2.drawImage(this.textures[i], x, y, x + this.widths[i], y + this.heights[i], sourceX, sourceY,
+					sourceX + this.widths[i], sourceY + this.heights[i], null);
+		}
+	}
+
+	/**
+	 * @return the number of entries drawn by draw()
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	/**
+	 *
+	 * Returns where a scaled sprite is drawn from: its region of its atlas
+	 * page, or the whole of its own image. Textures are numbered in the order
+	 * they are first seen.
+	 *
+	 * @param sprite a scaled sprite
+	 * @return its source
+	 */
+	private Source sourceOf(Image sprite) {
+		Source source = this.sources.get(sprite);
+		if (source == null) {
+			SpriteRegistry.Region region = this.sourceSet.regionOf(sprite);
+			Image texture = (region != null) ? this.sourceSet.page(region.page) : sprite;
+			Integer id = this.textureIds.get(texture);
+			if (id == null) {
+				id = this.textureIds.size();
+				this.textureIds.put(texture, id);
+			}
+			source = (region != null)
+					? new Source(texture, id, region.x, region.y, region.width, region.height)
+					: new Source(texture, id, 0, 0, sprite.getWidth(null), sprite.getHeight(null));
+			this.sources.put(sprite, source);
+		}
+		return source;
+	}
+
+	private void grow(int minimum) {
+		int capacity = Math.max(minimum, Math.max(16, this.textures.length * 2));
+		this.textures = Arrays.copyOf(this.textures, capacity);
+		this.xs = Arrays.copyOf(this.xs, capacity);
+		this.ys = Arrays.copyOf(this.ys, capacity);
+		this.sourceXs = Arrays.copyOf(this.sourceXs, capacity);
+		this.sourceYs = Arrays.copyOf(this.sourceYs, capacity);
+		this.widths = Arrays.copyOf(this.widths, capacity);
+		this.heights = Arrays.copyOf(this.heights, capacity);
+		this.groups = Arrays.copyOf(this.groups, capacity);
+		this.order = Arrays.copyOf(this.order, capacity);
+	}
+}
@@ -0,0 +1,110 @@
+package BubbleBobble;
+
+import BubbleBobble.model.Level;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * GameLoop drives the simulation on its own thread with a fixed time step.
+ * Elapsed real time is collected in an accumulator and consumed in whole
+ * steps of Level.TICK_MILLIS, so every call to the step advances the game by
+ * exactly the same amount no matter how busy the machine is. If the loop falls
+ * behind it runs at most MAX_CATCH_UP_STEPS steps in a row and drops the rest
+ * of the backlog instead of spiralling. After each batch of steps the presenter
+ * is asked to show a frame.
+ *
+ */
+public class GameLoop implements Runnable {
+	public static final long STEP_NANOS = Level.TICK_MILLIS * 1_000_000L;
+	public static final int MAX_CATCH_UP_STEPS = 5;
+
+	private final Runnable step;
+	private final Runnable presenter;
+	private Thread thread;
+	private volatile boolean running = false;
+
+	/**
+	 *
+	 * Creates a loop that calls step once per simulation tick and presenter
+	 * once per batch of ticks.
+	 *
+	 * @param step
+	 * @param presenter
+	 */
+	public GameLoop(Runnable step, Runnable presenter) {
+		this.step = step;
+		this.presenter = presenter;
+	}
+
+	/**
+	 *
+	 * Starts the simulation thread if it is not already running.
+	 *
+	 */
+	public synchronized void start() {
+		if (this.running) {
+			return;
+		}
+		this.running = true;
+		this.thread = new Thread(this, "BubbleBobble-GameLoop");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 *
+	 * Stops the simulation thread after the current step has finished.
+	 *
+	 */
+	public synchronized void stop() {
+		this.running = false;
+		if (this.thread != null) {
+			LockSupport.unpark(this.thread);
+			this.thread = null;
+		}
+	}
+
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public void run() {
+		long previous = System.nanoTime();
+		long accumulator = 0;
+
+		while (this.running) {
+			long now = System.nanoTime();
+			accumulator += now - previous;
+			previous = now;
+
+			int steps = 0;
+			while (accumulator >= STEP_NANOS && steps < MAX_CATCH_UP_STEPS) {
+				try {
+					this.step.run();
+				} catch (RuntimeException e) {
+					// keep ticking like the Swing timer did when a listener threw,
+					// reporting it where the thread reports what it does not catch
+					Thread current = Thread.currentThread();
+					current.getUncaughtExceptionHandler().uncaughtException(current, e);
+				}
+				accumulator -= STEP_NANOS;
+				steps++;
+			}
+			// too far behind: drop the backlog rather than fast-forwarding the game
+			if (accumulator >= STEP_NANOS) {
+				accumulator %= STEP_NANOS;
+			}
+
+			if (steps > 0) {
+				this.presenter.run();
+			}
+
+			long wait = STEP_NANOS - accumulator - (System.nanoTime() - now);
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package BubbleBobble;
+
+import BubbleBobble.model.Hero;
+import BubbleBobble.model.Level;
+import BubbleBobble.model.LevelData;
+import BubbleBobble.model.LevelGenerator;
+import BubbleBobble.model.LevelLoader;
+import BubbleBobble.model.Monster;
+
+import java.util.Random;
+
+/**
+ *
+ * HeadlessRunner plays whole games without a window, images or sound, as fast as
+ * the simulation can step. A simple bot controls the hero: it walks towards the
+ * nearest monster, jumps now and then and keeps shooting bubbles. Each game runs
+ * through levels 1-9 like the real game (score and lives carry over) and ends when
+ * the hero runs out of lives, every level is cleared, or a level takes longer than
+ * the tick budget.
+ *
+ * Given a scale, the games are played on levels made by LevelGenerator with that
+ * many times the entities of the level files instead, the same ones in every game
+ * and every run, so the cost of bigger levels can be measured.
+ *
+ * Usage: java BubbleBobble.HeadlessRunner [games] [maxTicksPerLevel] [seed] [scale]
+ *
+ */
+public class HeadlessRunner {
+	private static final int FIRST_LEVEL = 1;
+	private static final int LAST_LEVEL = 9;
+	private static final int SHOOT_EVERY_TICKS = 60;
+	private static final int JUMP_CHANCE = 200; // one in JUMP_CHANCE ticks
+
+	private final int maxTicksPerLevel;
+	private final Random random;
+	private final int scale; // 0 for the level files
+	private final LevelData[] generated = new LevelData[LAST_LEVEL + 1];
+
+	/**
+	 *
+	 * Creates a runner that plays the level files.
+	 *
+	 * @param maxTicksPerLevel
+	 * @param seed seed for the bot's decisions
+	 */
+	public HeadlessRunner(int maxTicksPerLevel, long seed) {
+		this(maxTicksPerLevel, seed, 0);
+	}
+
+	/**
+	 *
+	 * Creates a runner.
+	 *
+	 * @param maxTicksPerLevel
+	 * @param seed seed for the bot's decisions
+	 * @param scale size of generated levels in level files, 0 to play the level files
+	 */
+	public HeadlessRunner(int maxTicksPerLevel, long seed, int scale) {
+		this.maxTicksPerLevel = maxTicksPerLevel;
+		this.random = new Random(seed);
+		this.scale = scale;
+	}
+
+	/**
+	 *
+	 * Builds the level to play as the given level number.
+	 *
+	 * @param levelNum
+	 * @return the level, or null if its file cannot be read
+	 */
+	private Level loadLevel(int levelNum) {
+		if (this.scale <= 0) {
+			return LevelLoader.load(levelNum);
+		}
+		if (this.generated[levelNum] == null) {
+			// seeded by the level number, so every game gets the same levels
+			this.generated[levelNum] = LevelGenerator.scaled(levelNum, this.scale).generateData();
+		}
+		return LevelLoader.build(this.generated[levelNum]);
+	}
+
+	/**
+	 *
+	 * Plays one game.
+	 *
+	 * @return the result of the game
+	 */
+	public GameResult playGame() {
+		GameResult result = new GameResult();
+		int score = 0;
+		int lives = -1;
+		for (int levelNum = FIRST_LEVEL; levelNum <= LAST_LEVEL; levelNum++) {
+			Level level = this.loadLevel(levelNum);
+			if (level == null) {
+				break;
+			}
+			level.timePassed(); // adds the objects of the level file
+			level.score += score;
+			if (lives >= 0) {
+				level.hero1.lives = lives;
+			}
+			level.startMonsterCheckTimer(levelNum);
+
+			int ticks = 0;
+			while (ticks < this.maxTicksPerLevel && level.remainingMonsters() > 0 && level.hero1.lives > 0) {
+				this.steerHero(level, ticks);
+				level.timePassed();
+				ticks++;
+			}
+			level.timers.cancelAll();
+			result.ticks += ticks;
+			score = level.score;
+			lives = level.hero1.lives;
+			if (level.remainingMonsters() > 0) {
+				break; // out of lives or out of time
+			}
+			result.levelsCleared++;
+		}
+		result.score = score;
+		result.lives = Math.max(lives, 0);
+		return result;
+	}
+
+	/**
+	 *
+	 * One tick of input from the bot.
+	 *
+	 * @param level
+	 * @param tick
+	 */
+	private void steerHero(Level level, int tick) {
+		Hero hero = level.hero1;
+		Monster target = null;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < level.monsters.size(); i++) {
+			Monster m = level.monsters.get(i);
+			int distance = Math.abs(m.getX() - hero.getX()) + Math.abs(m.getY() - hero.getY());
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				target = m;
+			}
+		}
+		if (target != null) {
+			hero.move(target.getX() < hero.getX() ? "Left" : "Right");
+		}
+		if (this.random.nextInt(JUMP_CHANCE) == 0) {
+			hero.move("Up");
+		}
+		if (tick % SHOOT_EVERY_TICKS == 0) {
+			hero.shootBubble();
+		}
+	}
+
+	/**
+	 *
+	 * Outcome of one simulated game.
+	 *
+	 */
+	public static class GameResult {
+		public int levelsCleared;
+		public int score;
+		public int lives;
+		public long ticks;
+	}
+
+	public static void main(String[] args) {
+		// Must be set before any AWT class looks at it
+		System.setProperty("java.awt.headless", "true");
+
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int maxTicksPerLevel = args.length > 1 ? Integer.parseInt(args[1]) : 30000;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		int scale = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+		HeadlessRunner runner = new HeadlessRunner(maxTicksPerLevel, seed, scale);
+		long start = System.nanoTime();
+		long totalTicks = 0;
+		long totalScore = 0;
+		int totalLevels = 0;
+		for (int i = 0; i < games; i++) {
+			GameResult r = runner.playGame();
+			totalTicks += r.ticks;
+			totalScore += r.score;
+			totalLevels += r.levelsCleared;
+			System.out.println("game " + (i + 1) + ": levels=" + r.levelsCleared + " score=" + r.score
+					+ " lives=" + r.lives + " ticks=" + r.ticks);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d games in %.2f s (%.0f games/min, %.0f ticks/s), avg score %.1f, avg levels %.2f, seed %d%s%n",
+				games, seconds, games / seconds * 60, totalTicks / seconds, (double) totalScore / games,
+				(double) totalLevels / games, seed, (scale > 0) ? ", levels " + scale + "x" : "");
+	}
+}
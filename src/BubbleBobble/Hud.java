@@ -0,0 +1,168 @@
+package BubbleBobble;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ *
+ * Hud draws the player name, lives, score and level number at the top of the
+ * screen. Every field is kept as a small image of its text and the image is
+ * only redrawn when the value shown changes, so a frame where nothing changed
+ * copies four images and creates no strings, fonts or glyphs.
+ *
+ * The text is laid out at the viewport's scale, so it stays sharp in a big
+ * window; a field is only rendered again for a new scale when the scale
+ * changes.
+ *
+ */
+public class Hud {
+	public static final Font FONT = new Font("Garamond", Font.PLAIN, 17);
+	public static final Color COLOR = new Color(237, 167, 4); // tangerine
+
+	private final Field name = new Field("Bub: ", 40, 20);
+	private final Field lives = new Field("Lives: ", 40, 40);
+	private final Field score = new Field("Score: ", 40, 60);
+	private final Field level = new Field("Level: ", 280, 30);
+
+	/**
+	 *
+	 * Draws the HUD.
+	 *
+	 * @param g2
+	 * @param view
+	 * @param playerName
+	 * @param livesValue
+	 * @param scoreValue
+	 * @param levelIndex
+	 */
+	public void paint(Graphics2D g2, Viewport view, String playerName, int livesValue, int scoreValue, int levelIndex) {
+		this.name.paint(g2, view, playerName);
+		this.lives.paint(g2, view, livesValue);
+		this.score.paint(g2, view, scoreValue);
+		this.level.paint(g2, view, levelIndex);
+	}
+
+	/**
+	 *
+	 * One line of HUD text, a fixed label followed by a value, drawn with its
+	 * baseline at (x, y) like Graphics.drawString() would.
+	 *
+	 */
+	public static class Field {
+		private final String label;
+		private final int x;
+		private final int y;
+		private final Font font;
+		private final Color color;
+
+		private boolean rendered = false;
+		private double scale = 1;
+		private Font scaledFont;
+		private int intValue;
+		private String textValue;
+		private GlyphVector glyphs;
+		private BufferedImage image;
+		private int imageX;
+		private int imageY;
+
+		public Field(String label, int x, int y) {
+			this(label, x, y, FONT, COLOR);
+		}
+
+		public Field(String label, int x, int y, Font font, Color color) {
+			this.label = label;
+			this.x = x;
+			this.y = y;
+			this.font = font;
+			this.color = color;
+		}
+
+		/**
+		 *
+		 * Draws the field showing a number.
+		 *
+		 * @param g2
+		 * @param view
+		 * @param value
+		 */
+		public void paint(Graphics2D g2, Viewport view, int value) {
+			if (!this.rendered || this.textValue != null || this.intValue != value || this.scale != view.scale) {
+				this.intValue = value;
+				this.textValue = null;
+				this.render(this.label + value, view.scale);
+			}
+			g2.drawImage(this.image, view.x(this.x) + this.imageX, view.y(this.y) + this.imageY, null);
+		}
+
+		/**
+		 *
+		 * Draws the field showing a text.
+		 *
+		 * @param g2
+		 * @param view
+		 * @param value
+		 */
+		public void paint(Graphics2D g2, Viewport view, String value) {
+			if (!this.rendered || this.textValue == null || !Objects.equals(this.textValue, value)
+					|| this.scale != view.scale) {
+				this.textValue = String.valueOf(value);
+				this.render(this.label + this.textValue, view.scale);
+			}
+			g2.drawImage(this.image, view.x(this.x) + this.imageX, view.y(this.y) + this.imageY, null);
+		}
+
+		/**
+		 *
+		 * Lays out the text once as a GlyphVector at the given scale and draws it
+		 * into the image.
+		 *
+		 * @param text
+		 * @param scale
+		 */
+		private void render(String text, double scale) {
+			if (this.scaledFont == null || this.scale != scale) {
+				this.scale = scale;
+				this.scaledFont = (scale == 1) ? this.font : this.font.deriveFont((float) (this.font.getSize2D() * scale));
+			}
+			if (this.image == null) {
+				// a 1x1 image is enough to get a font render context
+				this.image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+			}
+			Graphics2D measure = this.image.createGraphics();
+			this.glyphs = this.scaledFont.createGlyphVector(measure.getFontRenderContext(), text);
+			measure.dispose();
+
+			Rectangle2D bounds = this.glyphs.getLogicalBounds().getBounds2D()
+					.createUnion(this.glyphs.getVisualBounds());
+			int left = (int) Math.floor(bounds.getX()) - 1;
+			int top = (int) Math.floor(bounds.getY()) - 1;
+			int width = (int) Math.ceil(bounds.getMaxX()) + 1 - left;
+			int height = (int) Math.ceil(bounds.getMaxY()) + 1 - top;
+			if (this.image.getWidth() < width || this.image.getHeight() < height) {
+				this.image = new BufferedImage(Math.max(width, this.image.getWidth()),
+						Math.max(height, this.image.getHeight()), BufferedImage.TYPE_INT_ARGB);
+			}
+
+			Graphics2D g = this.image.createGraphics();
+			try {
+				g.setComposite(AlphaComposite.Clear);
+				g.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+				g.setComposite(AlphaComposite.SrcOver);
+				g.setColor(this.color);
+				g.drawGlyphVector(this.glyphs, -left, -top);
+			} finally {
+				g.dispose();
+			}
+			// relative to the baseline origin, which the viewport places
+			this.imageX = left;
+			this.imageY = top;
+			this.rendered = true;
+		}
+	}
+}
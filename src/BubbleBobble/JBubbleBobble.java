@@ -1,6 +1,7 @@
 package BubbleBobble;
 
 import BubbleBobble.controller.GameController;
+import BubbleBobble.model.SpriteRegistry;
 import BubbleBobble.view.GameView;
 
 import javax.imageio.ImageIO;
@@ -15,6 +16,7 @@ public class JBubbleBobble {
 
 	public static void main(String[] args) {
 
+		SpriteRegistry.preload();  // Decode every sprite once, before the first level is built
 		LevelComponent component = new LevelComponent();
 		GameView view = new GameView(component);
 		GameController controller = new GameController(view, component);
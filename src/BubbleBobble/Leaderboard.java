@@ -0,0 +1,179 @@
+package BubbleBobble;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ *
+ * Leaderboard keeps the best scores in order as they are added, instead of
+ * sorting every entry on each frame. Its table (header, ranks, avatars, names
+ * and scores) is drawn once into an image and only redrawn when the entries
+ * change, so showing the leaderboard is a single image copy. The image is
+ * drawn at the viewport's scale and redrawn when the scale changes.
+ *
+ */
+public class Leaderboard {
+	public static final int MAX_ENTRIES = 5;
+
+	// table layout, as on the game over and game won screens
+	private static final int START_X = 220;
+	private static final int START_Y = 220;
+	private static final int ROW_HEIGHT = 65;
+	private static final int TABLE_X = START_X - 40;
+	private static final int TABLE_Y = START_Y - 25;
+	private static final int TABLE_WIDTH = 340;
+	private static final int AVATAR_SIZE = 40;
+	private static final Font FONT = new Font("Garamond", Font.PLAIN, 25);
+	private static final Color HEADER_COLOR = new Color(108, 168, 229);
+	private static final Color ROW_COLOR = new Color(240, 240, 240);
+	private static final Color TEXT_COLOR = new Color(132, 110, 212);
+	private static final Color BORDER_COLOR = Color.BLACK;
+
+	/**
+	 *
+	 * One row of the leaderboard.
+	 *
+	 */
+	public static class Entry {
+		public final String playerName;
+		public final int score;
+		public final String status;
+		public final boolean isPlayer; // the player of this game, shown with the hero1 avatar
+
+		public Entry(String playerName, int score, String status, boolean isPlayer) {
+			this.playerName = playerName;
+			this.score = score;
+			this.status = status;
+			this.isPlayer = isPlayer;
+		}
+
+		private boolean sameAs(Entry other) {
+			return this.score == other.score && Objects.equals(this.playerName, other.playerName)
+					&& Objects.equals(this.status, other.status);
+		}
+	}
+
+	private final List<Entry> entries = new ArrayList<>(MAX_ENTRIES + 1);
+	private final AvatarCache avatars = new AvatarCache(AVATAR_SIZE, 32);
+	private int version = 0;
+	private BufferedImage image;
+	private int imageVersion = -1;
+	private double imageScale = 1;
+
+	/**
+	 *
+	 * Adds a score. It is kept only if it makes the top MAX_ENTRIES; an entry
+	 * equal to one already on the board is ignored. Equal scores keep the order
+	 * they were added in.
+	 *
+	 * @param entry
+	 * @return true if the board changed
+	 */
+	public synchronized boolean add(Entry entry) {
+		for (Entry e : this.entries) {
+			if (e.sameAs(entry)) {
+				return false;
+			}
+		}
+		int index = this.entries.size();
+		while (index > 0 && this.entries.get(index - 1).score < entry.score) {
+			index--;
+		}
+		if (index >= MAX_ENTRIES) {
+			return false;
+		}
+		this.entries.add(index, entry);
+		if (this.entries.size() > MAX_ENTRIES) {
+			this.entries.remove(MAX_ENTRIES);
+		}
+		this.version++;
+		return true;
+	}
+
+	/**
+	 * @return the entries, best first
+	 */
+	public synchronized List<Entry> getEntries() {
+		return new ArrayList<>(this.entries);
+	}
+
+	/**
+	 *
+	 * Draws the leaderboard, redrawing the cached table first if an entry has
+	 * changed (or the scale has) since it was last drawn.
+	 *
+	 * @param g2
+	 * @param view
+	 */
+	public synchronized void paint(Graphics2D g2, Viewport view) {
+		if (this.image == null || this.imageVersion != this.version || this.imageScale != view.scale) {
+			this.render(view.scale);
+		}
+		g2.drawImage(this.image, view.x(TABLE_X), view.y(TABLE_Y), null);
+	}
+
+	/**
+	 *
+	 * Draws the table into the cached image at the given scale.
+	 *
+	 * @param scale
+	 */
+	private void render(double scale) {
+		int width = (int) Math.ceil((TABLE_WIDTH + 1) * scale);
+		int height = (int) Math.ceil(((this.entries.size() + 1) * ROW_HEIGHT + 1) * scale);
+		if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height) {
+			this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = this.image.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+			g.setComposite(AlphaComposite.SrcOver);
+			// everything below is in playfield coordinates, as the table is drawn
+			// at scale 1; scaling here happens once per redraw, not per frame
+			g.scale(scale, scale);
+			g.translate(-TABLE_X, -TABLE_Y);
+			g.setFont(FONT);
+
+			g.setColor(HEADER_COLOR);
+			g.fillRect(TABLE_X, TABLE_Y, TABLE_WIDTH, ROW_HEIGHT);
+			g.setColor(Color.WHITE);
+			g.drawString("r", START_X - 30, START_Y);
+			g.drawString("avatar", START_X, START_Y);
+			g.drawString("name", START_X + 100, START_Y);
+			g.drawString("score", START_X + 200, START_Y);
+
+			for (int i = 0; i < this.entries.size(); i++) {
+				Entry entry = this.entries.get(i);
+				int currentY = START_Y + (i + 1) * ROW_HEIGHT;
+				// Draw the row background
+				g.setColor(ROW_COLOR);
+				g.fillRect(TABLE_X, currentY - 25, TABLE_WIDTH, ROW_HEIGHT);
+				// Draw the ranking, player avatar, name, and score
+				g.setColor(TEXT_COLOR);
+				g.drawString(String.valueOf(i + 1), START_X - 30, currentY);
+				BufferedImage avatar = this.avatars.get(entry.isPlayer ? "hero1" : entry.playerName);
+				if (avatar != null) {
+					g.drawImage(avatar, START_X, currentY - 15, null);
+				}
+				g.drawString(String.valueOf(entry.playerName), START_X + 100, currentY);
+				g.drawString(String.valueOf(entry.score), START_X + 200, currentY);
+				// Draw the row border
+				g.setColor(BORDER_COLOR);
+				g.drawRect(TABLE_X, currentY - 25, TABLE_WIDTH, ROW_HEIGHT);
+			}
+			g.setColor(BORDER_COLOR);
+			g.drawRect(TABLE_X, TABLE_Y, TABLE_WIDTH, ROW_HEIGHT);
+		} finally {
+			g.dispose();
+		}
+		this.imageVersion = this.version;
+		this.imageScale = scale;
+	}
+}
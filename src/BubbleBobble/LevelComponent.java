@@ -1,18 +1,18 @@
 package BubbleBobble;
 import BubbleBobble.model.*;
+import BubbleBobble.controller.GameController;
 import BubbleBobble.designPattern.GameObserver;
+import BubbleBobble.designPattern.LevelListener;
+import BubbleBobble.view.GameView;
 
 import java.awt.*;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.swing.*;
-import javax.swing.Timer;
 
 /**
  *
@@ -21,22 +21,39 @@ import javax.swing.Timer;
  *
  */
 @SuppressWarnings("all")
-public class LevelComponent extends JComponent {
-	protected static final int NUM_TILES = 20;
-	protected static final int TILE_SIZE = 35;
+public class LevelComponent extends JComponent implements LevelListener {
+	protected static final int NUM_TILES = LevelLoader.NUM_TILES;
+	protected static final int TILE_SIZE = LevelLoader.TILE_SIZE;
 	private static final int NUM_LEVELS = 10; // including game over menu
 	private static final int WIN_CONDITION = 10000;
 
 	// Level control stuff
-	public Level currentLevel;
-	private Timer timer;
+	public volatile Level currentLevel; // read by the render thread
+	private GameLoop loop;
+	// draws the frames itself when active rendering is on, null for Swing painting
+	private final ActiveRenderer renderer;
+	// black background, menu screen and platforms, drawn once per level
+	private final BackgroundLayer background = new BackgroundLayer(NUM_TILES * TILE_SIZE, NUM_TILES * TILE_SIZE);
+	// scale and position of the playfield in the window, and the sprites at that scale
+	private final Viewport viewport = new Viewport(NUM_TILES * TILE_SIZE);
+	private final AffineTransform deviceTransform = new AffineTransform();
+	// moving sprites, culled and drawn in runs by layer and atlas page
+	private final DrawList drawList = new DrawList();
 	private int levelIndex = 0;
 	private boolean ranOnce = false;
-	private Timer timer2 = null; // start as null
+	// next levels, built while the current one is played
+	private final LevelPrefetcher prefetcher = new LevelPrefetcher();
+	// level changes asked for by the keyboard, applied at the start of a tick
+	private final Queue<Integer> levelCommands = new ConcurrentLinkedQueue<>();
+	// hero moves, shots and pausing asked for by the keyboard, applied the same way
+	private final Queue<Runnable> inputCommands = new ConcurrentLinkedQueue<>();
+	// edited level files, read by the watcher and applied at the start of a tick
+	private final Queue<LevelReload> levelReloads = new ConcurrentLinkedQueue<>();
+	private final LevelWatcher levelWatcher;
 	// Keyboard input stuff
-	private boolean leftKeyState = false;
-	private boolean rightKeyState = false;
-	private boolean upKeyState = false;
+	private volatile boolean leftKeyState = false;
+	private volatile boolean rightKeyState = false;
+	private volatile boolean upKeyState = false;
 
 	public String name;
 
@@ -44,10 +61,15 @@ public class LevelComponent extends JComponent {
 	// GUI stuff
 	private Font font = new Font("Garamond", Font.BOLD, 20);
 	private Color lightRed = new Color(233, 55, 72);
-	private Color tangerine = new Color(237, 167, 4);
+	private final Hud hud = new Hud();
+	// finished ticks handed from the simulation to the renderer
+	private final RenderBuffers renderBuffers = new RenderBuffers();
 
 	// ranking
-	private List<Map<String, Object>> scoreboard = new ArrayList<>();
+	private final Leaderboard leaderboard = new Leaderboard();
+
+	// tick and paint times, off until toggled
+	private final ProfilerOverlay profiler = new ProfilerOverlay();
 
 
 	// GameObserver
@@ -68,115 +90,153 @@ public class LevelComponent extends JComponent {
 		}
 	}
 
+	/**
+	 *
+	 * A level file that was edited while the game runs.
+	 *
+	 */
+	private static class LevelReload {
+		final int levelNum;
+		final LevelData data;
+
+		LevelReload(int levelNum, LevelData data) {
+			this.levelNum = levelNum;
+			this.data = data;
+		}
+	}
+
 	public LevelComponent() {
-		// 4 ms
-		this.timer = new Timer(4, e ->{
+		this.renderer = ActiveRenderer.REQUESTED ? new ActiveRenderer(this) : null;
+		this.levelWatcher = LevelWatcher.start(new File("levels"),
+				(levelNum, data) -> this.levelReloads.add(new LevelReload(levelNum, data)));
+		// fixed 4 ms simulation step on its own thread; Swing only presents, or
+		// the render thread presents on its own schedule with active rendering
+		this.loop = new GameLoop(() -> {
 			timePassed();
+		}, () -> {
+			if (this.renderer == null) {
+				repaint();
+			}
 		});
 	}
 
+	/**
+	 *
+	 * Returns the component to put in the window: the active rendering canvas,
+	 * or this component when Swing paints the game.
+	 *
+	 * @return the game view component
+	 */
+	public Component getView() {
+		return (this.renderer != null) ? this.renderer : this;
+	}
+
 	/**
 	 * Paints the current level and all of its collidable objects.
 	 */
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
+		// the component can be larger than the playfield
+		g.setColor(Color.BLACK);
+		g.fillRect(0, 0, getWidth(), getHeight());
+		paintFrame((Graphics2D) g);
+	}
 
-		if (this.currentLevel == null) {
+	/**
+	 *
+	 * Draws one frame of the current level. Called by Swing through
+	 * paintComponent() or by the render thread of the ActiveRenderer.
+	 *
+	 * The frame is drawn in device pixels: on a HiDPI screen the scale Java2D
+	 * would apply is taken off the graphics and put into the viewport, which
+	 * draws with sprites resampled once for that scale instead.
+	 *
+	 * @param g2
+	 */
+	public void paintFrame(Graphics2D g2) {
+		// the last tick the simulation published; no lock, the simulation never
+		// writes into a snapshot that is being read
+		RenderSnapshot frame = this.renderBuffers.acquire();
+		if (frame == null) {
 			return;
 		}
+		AffineTransform transform = g2.getTransform();
+		double deviceScale = transform.getScaleX();
+		Component view = getView();
+		this.viewport.update((int) Math.round(view.getWidth() * deviceScale),
+				(int) Math.round(view.getHeight() * deviceScale), deviceScale);
+		if (deviceScale != 1) {
+			this.deviceTransform.setToTranslation(transform.getTranslateX(), transform.getTranslateY());
+			g2.setTransform(this.deviceTransform);
+		}
+		try {
+			boolean profiling = this.profiler.isEnabled();
+			long start = System.nanoTime();
+			double alpha = (double) (start - frame.capturedNanos) / GameLoop.STEP_NANOS;
+			paintLevel(g2, frame, Math.max(0, Math.min(1, alpha)));
+			if (profiling) {
+				this.profiler.recordPaint(System.nanoTime() - start);
+				this.profiler.paint(g2, frame, this.viewport.x(NUM_TILES * TILE_SIZE - TILE_SIZE) - 4,
+						this.viewport.y(TILE_SIZE) + 4);
+			}
+		} finally {
+			if (deviceScale != 1) {
+				g2.setTransform(transform);
+			}
+			this.renderBuffers.release();
+		}
+	}
 
-		Graphics2D g2 = (Graphics2D) g;
+	/**
+	 *
+	 * Paints a snapshot of the level, drawing moving objects between their
+	 * previous and current positions by the interpolation factor alpha.
+	 *
+	 * @param g2
+	 * @param frame
+	 * @param alpha
+	 */
+	private void paintLevel(Graphics2D g2, RenderSnapshot frame, double alpha) {
 		g2.setFont(this.font);
 
-		// paint black background
-		g2.setColor(Color.BLACK);
-		g2.fillRect(0, 0, 700, 700);
+		// the part of the level under the camera, scrolled between ticks like
+		// the sprites move; kept inside the playfield when the level is bigger
+		Viewport view = this.viewport;
+		view.cameraX = frame.interpolatedCameraX(alpha);
+		view.cameraY = frame.interpolatedCameraY(alpha);
+		Shape clip = g2.getClip();
+		if (frame.scrolling) {
+			g2.clipRect(view.offsetX, view.offsetY, view.scale(view.size), view.scale(view.size));
+		}
 
-		// paint image for screen (only for 'main menu', 'game over', and 'game
-		// won' screens)
-		if (this.currentLevel.screen != null) {
-			g2.drawImage(this.currentLevel.screen, 35, 35, null);
+		// paint black background, screen image (only for 'main menu', 'game
+		// over', and 'game won' screens) and platforms in one copy
+		this.background.paint(g2, frame, view);
+		if (frame.screen != null) {
 			g2.setColor(this.lightRed);
 		}
 
-		// paint all level objects
-		for (Collidable c : this.currentLevel.collidables) {
-			c.draw(g2); // Draw all collidable objects
-
-			// Check if c is an instance of MyMonster
-			if (c instanceof Giant) {
-				Giant monster = (Giant) c; // Type cast
-				monster.drawAttackCount(g2); // Draw the attack count
+		// paint all moving level objects, platforms are in the background
+		this.drawList.build(frame, view, alpha);
+		this.drawList.draw(g2);
+		for (int i = 0; i < frame.count; i++) {
+			if ((frame.flags[i] & RenderSnapshot.GIANT) != 0) {
+				// Draw the attack count
+				Giant.drawAttackCount(g2, frame.extra[i], view.worldX(frame.x[i]), view.worldY(frame.y[i]), view.scale);
 			}
 		}
+		g2.setClip(clip);
 
-		Font chineseFont = new Font("Garamond", Font.PLAIN, 17);
-		g2.setFont(chineseFont);
-		// paint current lives and score
-		g2.setColor(this.tangerine);
-		if (this.levelIndex <10) {
-			g2.drawString("Bub: "+name,40,20);
-			g2.drawString("Lives: " + this.currentLevel.hero1.lives, 40, 40);
-			g2.drawString("Score: " + this.currentLevel.score, 40, 60);
-			g2.drawString("Level: " + this.levelIndex, 280, 30);
+		// paint current lives and score, redrawn only when they change
+		if (frame.levelNum < 10) {
+			this.hud.paint(g2, view, name, frame.lives, frame.score, frame.levelNum);
 		}
 
 		// scores rank
-		if (this.levelIndex == 10 || this.levelIndex == 11) {
-			// Set the font and color
-			g2.setFont(new Font("Garamond", Font.PLAIN, 25));
-			g2.setColor(Color.WHITE);
-			int startX = 220;
-			int startY = 220;
-			int rowHeight = 65;
-			Color headerBgColor = new Color(108, 168, 229);
-			Color rowBgColor = new Color(240, 240, 240);
-			Color borderColor = Color.BLACK;
-
-			g2.setColor(headerBgColor);
-			g2.fillRect(startX - 40, startY - 25, 340, rowHeight);
-			g2.setColor(Color.WHITE);
-
-			g2.drawString("r", startX - 30, startY);
-			g2.drawString("avatar", startX, startY);
-			g2.drawString("name", startX + 100, startY);
-			g2.drawString("score", startX + 200, startY);
-			//Sort scoreboards in descending order of scores
-			scoreboard = scoreboard.stream()
-					.distinct()
-					.sorted((o1, o2) -> {
-						return Integer.compare((Integer) o2.get("score"),
-								(Integer) o1.get("score"));
-					})
-					.limit(5)
-					.collect(Collectors.toList());
-			for (int i = 0; i < scoreboard.size(); i++) {
-				int currentY = startY + (i + 1) * rowHeight;
-				// Draw the row background
-				g2.setColor(rowBgColor);
-				g2.fillRect(startX - 40, currentY - 25, 340, rowHeight);
-				// Set the text color
-				g2.setColor(new Color(132, 110, 212));
-				Map<String, Object> scoreData = scoreboard.get(i);
-
-				// Draw the ranking, player avatar, name, and score
-				g2.drawString(String.valueOf(i + 1), startX - 30, currentY); // Rank
-				String playerName = (String) scoreData.get("playerName");
-				try {
-					BufferedImage avatar = ImageIO.read(new File("avatars/"+(this.name==playerName? "hero1" : playerName)+".png"));  
-					Image scaledAvatar = avatar.getScaledInstance(40, 40, Image.SCALE_SMOOTH);  
-					g2.drawImage(scaledAvatar, startX, currentY - 15, null);  
-				} catch (IOException e) {}
-				g2.drawString(playerName, startX + 100, currentY);
-				g2.drawString(scoreData.get("score").toString(), startX + 200, currentY);
-
-				// Draw the row border
-				g2.setColor(borderColor);
-				g2.drawRect(startX - 40, currentY - 25, 340, rowHeight);
-			}
-			g2.setColor(borderColor);
-			g2.drawRect(startX - 40, startY - 25, 340, rowHeight);
+		if (frame.levelNum == 10 || frame.levelNum == 11) {
+			// top scores, drawn from a cached image
+			this.leaderboard.paint(g2, view);
 		}
 
 	}
@@ -203,56 +263,124 @@ public class LevelComponent extends JComponent {
 
 	/**
 	 *
-	 * Loads the appropriate level.
+	 * Loads the appropriate level. The new level is made ready, score and
+	 * lives carried over, before it replaces the current one, so the renderer
+	 * never sees it half set up. Then the levels that may follow it are
+	 * prefetched.
 	 *
 	 */
 	public void loadLevel() {
+		Level oldLevel = this.currentLevel;
+		// Pending events of the old level must not fire into the new one
+		if (oldLevel != null) {
+			oldLevel.timers.cancelAll();
+		}
+		Level next = constructLevel(this.levelIndex);
 		// main menu
 		if (this.levelIndex == 0) {
-			this.currentLevel = constructLevel(this.levelIndex);
-			if (!this.timer.isRunning()) {
-				this.timer.start();
+			this.currentLevel = next;
+			if (!this.loop.isRunning()) {
+				this.loop.start();
 				AudioManager.getInstance().play("audio/bubbleBobble.mid");
 			}
 		}
 		// game won level
 		else if (this.levelIndex == NUM_LEVELS + 1) {
-			int oldScore = this.currentLevel.score;
-			int oldLives = this.currentLevel.hero1.lives;
-			this.currentLevel = constructLevel(this.levelIndex);
-			this.currentLevel.gameOver = true;
+			next.gameOver = true;
 			this.ranOnce = true;
-			this.currentLevel.score += oldScore;
-			this.currentLevel.hero1.lives = oldLives;
-			this.currentLevel.monsters.stream().forEach(Monster::die);
+			next.score += oldLevel.score;
+			next.hero1.lives = oldLevel.hero1.lives;
+			next.monsters.stream().forEach(Monster::die);
+			this.currentLevel = next;
 		}
 
 		// game over menu
 		else if (this.levelIndex == NUM_LEVELS) {
-			int oldScore = this.currentLevel.score;
-			int oldLives = this.currentLevel.hero1.lives;
-			int oldScore2 = this.currentLevel.score2;
-
-			this.currentLevel = constructLevel(this.levelIndex);
-			this.currentLevel.gameOver = true;
-			this.currentLevel.score += oldScore;
-			this.currentLevel.hero1.lives = oldLives;
-
-			this.currentLevel.monsters.forEach(Monster::die);
+			next.gameOver = true;
+			next.score += oldLevel.score;
+			next.hero1.lives = oldLevel.hero1.lives;
+			next.monsters.forEach(Monster::die);
+			this.currentLevel = next;
 		}
 
 		// Levels 1-9
 		else {
-			int oldScore = this.currentLevel.score;
-			int oldLives = this.currentLevel.hero1.lives;
-			int oldScore2 = this.currentLevel.score2;
-			this.currentLevel = constructLevel(this.levelIndex);
-			this.currentLevel.score += oldScore;
-			this.currentLevel.hero1.lives = oldLives;
-			this.currentLevel.score2 += oldScore2;
+			next.score += oldLevel.score;
+			next.hero1.lives = oldLevel.hero1.lives;
+			next.score2 += oldLevel.score2;
+			// Periodically add monsters however the level was reached; the check
+			// runs on the level's timer wheel and stops with it
+			next.startMonsterCheckTimer(this.levelIndex);
+			this.currentLevel = next;
+		}
+		this.prefetchNext();
+	}
+
+	/**
+	 *
+	 * Starts building the levels that can follow the current one: the next
+	 * level (or the game won screen after the last one) and the game over
+	 * screen.
+	 *
+	 */
+	private void prefetchNext() {
+		if (this.levelIndex == 0) {
+			this.prefetcher.prefetch(1);
+		} else if (this.levelIndex < NUM_LEVELS - 1) {
+			this.prefetcher.prefetch(this.levelIndex + 1, NUM_LEVELS);
+		} else if (this.levelIndex == NUM_LEVELS - 1) {
+			this.prefetcher.prefetch(NUM_LEVELS + 1, 1, NUM_LEVELS);
+		} else {
+			// game over and game won screens go back to the main menu
+			this.prefetcher.prefetch(0);
+		}
+	}
 
+	/**
+	 *
+	 * Applies an edited level file: prefetched levels are built again from
+	 * the new files, and if it is the file of the level being played, the
+	 * level's platforms are patched to match it and the player is told how
+	 * many changed. Monsters, items, score and lives stay as they are.
+	 *
+	 * @param reload
+	 */
+	private void applyReload(LevelReload reload) {
+		this.prefetcher.clear();
+		this.prefetchNext();
+		if (reload.levelNum == this.levelIndex && this.currentLevel != null) {
+			int changes = LevelLoader.patchGeometry(this.currentLevel, reload.data);
+			this.currentLevel.showMessage("Level " + reload.levelNum + " reloaded: " + changes + " platforms changed");
 		}
 	}
+
+	/**
+	 *
+	 * Asks for a level change (see changeLevel()) from outside the game loop,
+	 * e.g. from a key press. The change is made at the start of the next tick,
+	 * on the game loop thread, so a level is never replaced in the middle of
+	 * one.
+	 *
+	 * @param command
+	 */
+	public void requestLevelChange(int command) {
+		this.levelCommands.add(command);
+	}
+
+	/**
+	 *
+	 * Asks for something to be done to the current level from outside the
+	 * game loop, e.g. moving the hero on a key press. Like a level change it
+	 * runs at the start of the next tick, on the game loop thread, so the
+	 * keyboard never changes the hero or the level's lists while a tick is
+	 * running. The command should look up the level when it runs, the level
+	 * may have changed by then.
+	 *
+	 * @param command
+	 */
+	public void requestInput(Runnable command) {
+		this.inputCommands.add(command);
+	}
 	String[] names = {"Alex", "Chris", "Jordan", "Taylor", "Morgan", "Sam", "Jamie", "Riley", "Casey", "Peyton"};
 	/**
 	 *
@@ -267,7 +395,7 @@ public class LevelComponent extends JComponent {
 	 *
 	 * @param command
 	 */
-	public void changeLevel(int command) {
+	public synchronized void changeLevel(int command) {
 		// change to game over menu
 		if ((command >= 10) && (command <= 11)) {
 			this.levelIndex = command;
@@ -275,20 +403,12 @@ public class LevelComponent extends JComponent {
 			isCheck = false;
 			// Record the score when the game ends
 			Random random = new Random();
-			Map<String, Object> player1 = new HashMap<>();
-			player1.put("playerName", name);
-			player1.put("score", this.currentLevel.score);
-			player1.put("status", (command == 11) ? "Win" : "Lose");
-			scoreboard.add(player1);
+			leaderboard.add(new Leaderboard.Entry(name, this.currentLevel.score, (command == 11) ? "Win" : "Lose", true));
 			for (int i = 0; i < 5; i++) {
-				Map<String, Object> randomPlayer = new HashMap<>();
 				String randomName = names[random.nextInt(names.length)];
-				randomPlayer.put("playerName", randomName);
 				int randomScore = random.nextInt(901) * 100+1000;
-				randomPlayer.put("score", randomScore);
 				String randomStatus = random.nextBoolean() ? "Win" : "Lose";
-				randomPlayer.put("status", randomStatus);
-				scoreboard.add(randomPlayer);
+				leaderboard.add(new Leaderboard.Entry(randomName, randomScore, randomStatus, false));
 			}
 		}
 		// change to main menu
@@ -302,14 +422,6 @@ public class LevelComponent extends JComponent {
 
 		// increment level
 		else if (command == 1) {
-			// Stop the previous timer
-			if (timer2 != null && timer2.isRunning()) {
-				timer2.stop();
-			}
-			timer2 = new Timer(1000, e -> {
-				this.currentLevel.startMonsterCheckTimer(timer2,levelIndex); 
-			});
-			timer2.start();
 			isCheck = true;
 			this.levelIndex++;
 			// change to game won level if score is bigger than 10000
@@ -326,15 +438,7 @@ public class LevelComponent extends JComponent {
 
 		// decrement level
 		else if (command == -1) {
-			// Stop the previous timer
-			if (timer2 != null && timer2.isRunning()) {
-				timer2.stop();
-			}
-			timer2 = new Timer(1000, e -> {
-				this.currentLevel.startMonsterCheckTimer(timer2,levelIndex); 
-			});
 			isCheck = true;
-			timer2.start();
 			this.levelIndex--;
 			if (this.levelIndex < 1) {
 				this.levelIndex = NUM_LEVELS - 1;
@@ -348,21 +452,33 @@ public class LevelComponent extends JComponent {
 
 	/**
 	 *
-	 * Tells the current level to update. Repaints the component. TimePassed
-	 * will be called every tick of the timer.
+	 * Tells the current level to update. TimePassed is called once per fixed
+	 * step of the game loop; the loop asks Swing to repaint afterwards.
 	 *
 	 */
-	public void timePassed() {
+	public synchronized void timePassed() {
+		LevelReload reload;
+		while ((reload = this.levelReloads.poll()) != null) {
+			this.applyReload(reload);
+		}
+		Integer command;
+		while ((command = this.levelCommands.poll()) != null) {
+			this.changeLevel(command);
+		}
+		Runnable input;
+		while ((input = this.inputCommands.poll()) != null) {
+			input.run();
+		}
 		this.handleMoveHero();
 		this.currentLevel.timePassed();
 
 		// Decide whether to notify observers
-		if (this.currentLevel.isReadyToChange && !this.checkGameOver() && this.currentLevel.screen == null) {
+		if (this.currentLevel.isReadyToChange && !this.checkGameOver() && this.currentLevel.isPlayable()) {
 			this.changeLevel(1);
 			notifyObservers();  // Notify observers
 		}
 		if (isCheck){  //Initially false
-			if (this.currentLevel.monsters.size()==0){
+			if (this.currentLevel.remainingMonsters()==0){
 				if (this.levelIndex==9) this.changeLevel(11);
 				else this.changeLevel(this.levelIndex+1);
 			}
@@ -376,7 +492,6 @@ public class LevelComponent extends JComponent {
 			this.changeLevel(NUM_LEVELS);
 			this.ranOnce = true;
 		}
-		repaint(100);
 	}
 
 	/**
@@ -445,107 +560,61 @@ public class LevelComponent extends JComponent {
 
 	/**
 	 *
-	 * Takes in a level number and constructs the corresponding level using a
-	 * file scanner.
+	 * Shows or hides the profiler overlay. While it is hidden the levels do
+	 * not time their phases. Like input it takes effect at the start of the
+	 * next tick, on the game loop thread, so the level's phase times are never
+	 * swapped or reset while a tick is writing them.
+	 *
+	 */
+	public void toggleProfiler() {
+		requestInput(() -> {
+			boolean enabled = this.profiler.toggle();
+			Level level = this.currentLevel;
+			if (level != null) {
+				level.phaseTimes = enabled ? this.profiler.times : null;
+			}
+		});
+	}
+
+	/**
+	 *
+	 * Constructs the level with the given number (see LevelLoader), or takes it
+	 * from the prefetcher, and connects it to this component, which shows its
+	 * messages and handles its power-ups.
 	 *
 	 * @param levelNum
 	 * @return a newly constructed Level
 	 */
 	public Level constructLevel(int levelNum) {
-		try {
-			Level level = new Level();
-			File level1 = new File("levels/level" + levelNum + ".txt");
-			Scanner r1 = new Scanner(level1);
-			int currentRow = 0;
-			while (r1.hasNextLine()) {
-				String currentLine = r1.nextLine();
-				for (int i = 0; i < NUM_TILES; i++) {
-					// tiny platform (1 space)
-					if (currentLine.charAt(i) == '7') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE,
-								TILE_SIZE, (new ImageIcon("sprites/tinyPlatform2.png")).getImage()));
-					}
-					// small platform (2 spaces)
-					if (currentLine.charAt(i) == 'S') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow, 2 * TILE_SIZE,
-								TILE_SIZE, (new ImageIcon("sprites/smallPlatform2.png")).getImage()));
-					}
-					// medium platform (3 spaces)
-					if (currentLine.charAt(i) == 'M') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow, 3 * TILE_SIZE,
-								TILE_SIZE, (new ImageIcon("sprites/mediumPlatform2.png")).getImage()));
-					}
-					// large platform (5 spaces)
-					if (currentLine.charAt(i) == 'L') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow, 5 * TILE_SIZE,
-								TILE_SIZE, (new ImageIcon("sprites/bigPlatform2.png")).getImage()));
-					}
-					// floor platform
-					if (currentLine.charAt(i) == 'F') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow,
-								NUM_TILES * TILE_SIZE, TILE_SIZE, (new ImageIcon("sprites/floor2.png")).getImage()));
-					}
-					// wall platform
-					if (currentLine.charAt(i) == 'W') {
-						level.addCollidable(new Platform(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE,
-								NUM_TILES * TILE_SIZE, (new ImageIcon("sprites/wall2.png")).getImage()));
-					}
-					// hero
-					if (currentLine.charAt(i) == 'H') {
-						level.addCollidable(new Hero(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					// BubbleBuster
-					if (currentLine.charAt(i) == 'B') {
-						level.addCollidable(
-								new BubbleBuster(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					// Incendo
-					if (currentLine.charAt(i) == 'I') {
-						level.addCollidable(
-								new Incendo(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					if (currentLine.charAt(i) == '+') {
-						level.addCollidable(
-								new Giant(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					// Fireicon -A
-					if (currentLine.charAt(i) == 'A') {
-						level.addCollidable(
-								new FireIcon(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					if (currentLine.charAt(i) == '9') { //Banana
-						level.addCollidable(new Banana(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					if (currentLine.charAt(i) == 'C') { //Apple
-						level.addCollidable(new Apple(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE));
-					}
-					// Game Over level
-					if (currentLine.charAt(i) == 'T') {
-						level.setLevelScreen((new ImageIcon("images/game_over.png")).getImage(), true);
-					}
-					// Main Menu level
-					if (currentLine.charAt(i) == 't') {
-						level.setLevelScreen((new ImageIcon("images/main_menu.png")).getImage(), false);
-					}
-					// Game Won level
-					if (currentLine.charAt(i) == 'Z') {
-						level.setLevelScreen((new ImageIcon("images/game_won.png")).getImage(), false);
-					}
-					// Spawn my boi Rascal
-					if (currentLine.charAt(i) == 'R') {
-						level.addCollidable(
-								new Fruit(level, TILE_SIZE * i, TILE_SIZE * currentRow, TILE_SIZE, TILE_SIZE, 69));
-					}
-				}
-				currentRow++;
-			}
-			r1.close();
-			return level;
+		Level level = this.prefetcher.take(levelNum);
+		if (level != null) {
+			level.levelNum = levelNum;
+			level.listener = this;
+			level.renderBuffers = this.renderBuffers;
+			level.phaseTimes = this.profiler.isEnabled() ? this.profiler.times : null;
+		}
+		return level;
+	}
 
-		} catch (IOException e) {
-			System.err.println("File not found");
+	/**
+	 *
+	 * Shows a message from the level. Levels run on the game loop thread, so the
+	 * message window is created on the Swing thread.
+	 *
+	 * @param message
+	 */
+	@Override
+	public void showMessage(String message) {
+		SwingUtilities.invokeLater(() -> GameView.showMessage(message));
+	}
 
-		}
-		return null;
+	/**
+	 *
+	 * Lets the player shoot fire bubbles for a while.
+	 *
+	 */
+	@Override
+	public void fireballModeActivated() {
+		SwingUtilities.invokeLater(() -> GameController.BubbleKeyListener.activateFireballMode());
 	}
 }
\ No newline at end of file
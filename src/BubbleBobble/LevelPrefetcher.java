@@ -0,0 +1,116 @@
+package BubbleBobble;
+
+import BubbleBobble.model.Level;
+import BubbleBobble.model.LevelLoader;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * LevelPrefetcher builds the levels that are likely to come next on a worker
+ * thread while the current level is being played, so a level change only has
+ * to pick up a finished Level instead of reading and building one in the
+ * middle of a tick. Every prefetched level is handed out once; asking for a
+ * level that was not prefetched builds it on the spot.
+ *
+ * A level is only a collection of objects until its first tick, so building
+ * it on another thread is safe: nothing else can see it before take()
+ * returns it.
+ *
+ */
+public class LevelPrefetcher {
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "BubbleBobble-LevelPrefetch");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.NORM_PRIORITY - 1); // never compete with the game loop
+		return thread;
+	});
+	// level number -> level being built or built
+	private final Map<Integer, Future<Level>> pending = new HashMap<>();
+
+	// how often take() found its level ready, e.g. for the profiler
+	public volatile int hits = 0;
+	public volatile int misses = 0;
+
+	/**
+	 *
+	 * Starts building the given levels, keeping those already built and
+	 * dropping prefetched levels that are no longer among them.
+	 *
+	 * @param levelNums
+	 */
+	public synchronized void prefetch(int... levelNums) {
+		Iterator<Map.Entry<Integer, Future<Level>>> it = this.pending.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, Future<Level>> entry = it.next();
+			if (!contains(levelNums, entry.getKey())) {
+				entry.getValue().cancel(false);
+				it.remove();
+			}
+		}
+		for (int levelNum : levelNums) {
+			if (!this.pending.containsKey(levelNum)) {
+				this.pending.put(levelNum, this.worker.submit(() -> LevelLoader.load(levelNum)));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Hands out the given level: the prefetched one if there is one (waiting
+	 * for it if it is still being built, which is never slower than building
+	 * it here), a newly built one otherwise.
+	 *
+	 * @param levelNum
+	 * @return the level, or null if its file cannot be read
+	 */
+	public Level take(int levelNum) {
+		Future<Level> future;
+		synchronized (this) {
+			future = this.pending.remove(levelNum);
+		}
+		if (future != null) {
+			try {
+				Level level = future.get();
+				if (level != null) {
+					this.hits++;
+					return level;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | CancellationException e) {
+				// build it here instead
+			}
+		}
+		this.misses++;
+		return LevelLoader.load(levelNum);
+	}
+
+	/**
+	 *
+	 * Drops every prefetched level, e.g. after the level files changed.
+	 *
+	 */
+	public synchronized void clear() {
+		for (Future<Level> future : this.pending.values()) {
+			future.cancel(false);
+		}
+		this.pending.clear();
+	}
+
+	private static boolean contains(int[] values, int value) {
+		for (int v : values) {
+			if (v == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
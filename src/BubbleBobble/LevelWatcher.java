@@ -0,0 +1,183 @@
+package BubbleBobble;
+
+import BubbleBobble.model.LevelCompiler;
+import BubbleBobble.model.LevelData;
+import BubbleBobble.model.LevelLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * LevelWatcher watches the levels directory so edited level files show up in
+ * the running game without a restart. Editors usually save a file in several
+ * steps (truncate, write, rename), so a file is only read once no event has
+ * come for it for DEBOUNCE_MILLIS. It is then parsed and recompiled on the
+ * watcher's own thread and handed to the listener, which decides when to apply
+ * it; the game applies it between two ticks (see LevelComponent).
+ *
+ * On by default; -Dbubblebobble.hotreload=false turns it off.
+ *
+ */
+public class LevelWatcher implements Runnable {
+	public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("bubblebobble.hotreload", "true"));
+	public static final long DEBOUNCE_MILLIS = 250;
+	private static final Pattern LEVEL_FILE = Pattern.compile("level(\\d+)\\.txt");
+
+	/**
+	 *
+	 * Told about level files that changed, on the watcher's thread.
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * @param levelNum the number of the level file
+		 * @param data what the file describes now
+		 */
+		void levelFileChanged(int levelNum, LevelData data);
+	}
+
+	private final File dir;
+	private final WatchService service;
+	private final Listener listener;
+	// file name -> time it may be read, pushed back by every new event
+	private final Map<String, Long> due = new HashMap<>();
+
+	private LevelWatcher(File dir, WatchService service, Listener listener) {
+		this.dir = dir;
+		this.service = service;
+		this.listener = listener;
+	}
+
+	/**
+	 *
+	 * Starts watching a directory on a daemon thread.
+	 *
+	 * @param dir
+	 * @param listener
+	 * @return the watcher, or null if it is turned off or the directory cannot
+	 *         be watched
+	 */
+	public static LevelWatcher start(File dir, Listener listener) {
+		if (!ENABLED || !dir.isDirectory()) {
+			return null;
+		}
+		try {
+			WatchService service = FileSystems.getDefault().newWatchService();
+			dir.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			LevelWatcher watcher = new LevelWatcher(dir, service, listener);
+			Thread thread = new Thread(watcher, "BubbleBobble-LevelWatcher");
+			thread.setDaemon(true);
+			thread.start();
+			return watcher;
+		} catch (IOException | UnsupportedOperationException e) {
+			System.err.println("Not watching " + dir + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * Stops watching.
+	 *
+	 */
+	public void close() {
+		try {
+			this.service.close();
+		} catch (IOException e) {
+			// stopping anyway
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				WatchKey key;
+				if (this.due.isEmpty()) {
+					key = this.service.take();
+				} else {
+					long wait = this.nextDue() - System.currentTimeMillis();
+					key = (wait > 0) ? this.service.poll(wait, TimeUnit.MILLISECONDS) : this.service.poll();
+				}
+				if (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.context() instanceof Path) {
+							String name = ((Path) event.context()).getFileName().toString();
+							if (LEVEL_FILE.matcher(name).matches()) {
+								this.due.put(name, System.currentTimeMillis() + DEBOUNCE_MILLIS);
+							}
+						}
+					}
+					if (!key.reset()) {
+						return; // the directory is gone
+					}
+				}
+				this.reloadDue();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	private long nextDue() {
+		long next = Long.MAX_VALUE;
+		for (long time : this.due.values()) {
+			next = Math.min(next, time);
+		}
+		return next;
+	}
+
+	/**
+	 *
+	 * Reads the files that have been quiet long enough.
+	 *
+	 */
+	private void reloadDue() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<String, Long>> it = this.due.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Long> entry = it.next();
+			if (entry.getValue() > now) {
+				continue;
+			}
+			it.remove();
+			this.reload(entry.getKey());
+		}
+	}
+
+	private void reload(String name) {
+		Matcher m = LEVEL_FILE.matcher(name);
+		if (!m.matches()) {
+			return;
+		}
+		File file = new File(this.dir, name);
+		LevelData data;
+		try {
+			data = LevelLoader.parse(file);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Cannot reload " + file + ": " + e.getMessage());
+			return;
+		}
+		try {
+			// keep the compiled file in step, later loads of the level read it
+			LevelCompiler.write(data, LevelCompiler.compiledFile(file));
+		} catch (IOException e) {
+			// the loader falls back to the newer text file
+		}
+		this.listener.levelFileChanged(Integer.parseInt(m.group(1)), data);
+	}
+}
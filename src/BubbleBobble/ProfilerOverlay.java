@@ -0,0 +1,305 @@
+package BubbleBobble;
+
+import BubbleBobble.model.Level;
+import BubbleBobble.model.PhaseTimes;
+import BubbleBobble.model.RenderSnapshot;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ *
+ * ProfilerOverlay shows where the time of a frame goes: rolling graphs of the
+ * last ticks (the whole tick, the update, removal and collision phases of
+ * Level.timePassed()) and of the last paints, the size of each of the level's
+ * lists, the allocation rate and the garbage collections. F3 turns it on and
+ * off.
+ *
+ * The tick phases are measured by the level into the ring buffer of a
+ * PhaseTimes and the paint times into a ring buffer here, both preallocated.
+ * While the overlay is off the level has no PhaseTimes and the paint is not
+ * timed, so nothing is measured at all. The overlay itself is drawn into an
+ * image a few times a second and copied on the other frames.
+ *
+ */
+public class ProfilerOverlay {
+	public static final int HISTORY = 256; // ticks and paints remembered
+	private static final int WIDTH = 270;
+	private static final int GRAPH_WIDTH = 200; // one column per sample
+	private static final int GRAPH_HEIGHT = 24;
+	private static final int LINE = 13;
+	private static final int HEIGHT = 5 * (GRAPH_HEIGHT + LINE + 4) + 5 * LINE + 10;
+	private static final long REDRAW_NANOS = 100_000_000L; // 10 times a second
+	private static final long RATE_NANOS = 1_000_000_000L; // allocation rate measured over a second
+	private static final long TICK_BUDGET = Level.TICK_MILLIS * 1_000_000L;
+	private static final long PAINT_BUDGET = 1_000_000_000L / 60;
+	private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+	private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+	private static final Color TEXT = new Color(220, 220, 220);
+	private static final Color LOW = new Color(80, 200, 80);
+	private static final Color HIGH = new Color(230, 200, 40);
+	private static final Color OVER = new Color(230, 60, 50);
+	private static final PhaseTimes.Phase[] PHASES = PhaseTimes.phases();
+
+	// filled by the level while the overlay is on; toggled on the game loop
+	// thread, the same thread that fills times
+	public final PhaseTimes times = new PhaseTimes(HISTORY);
+	private volatile boolean enabled = false;
+	private volatile int toggles = 0;
+
+	// paint times, written and read by the thread that renders
+	private final long[] paintNanos = new long[HISTORY];
+	private long paints = 0;
+	private int paintedToggles = 0; // toggles when the render state was last reset
+
+	// what the graphs show, reused for every redraw
+	private final long[] samples = new long[GRAPH_WIDTH];
+	private BufferedImage image;
+	private long lastRedraw;
+
+	// allocation and GC, sampled once per RATE_NANOS
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+	private long lastRateSample;
+	private long lastAllocated = -1;
+	private double allocationRate = -1; // bytes per second, -1 if not known
+	private long gcCount;
+	private long gcMillis;
+
+	/**
+	 * @return true if the overlay is shown
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 *
+	 * Turns the overlay on or off. Must be called on the game loop thread,
+	 * which is the one that fills times; what the render thread keeps is reset
+	 * by that thread on its next paint.
+	 *
+	 * @return true if it is now on
+	 */
+	public boolean toggle() {
+		if (!this.enabled) {
+			this.times.reset();
+		}
+		this.toggles++;
+		this.enabled = !this.enabled;
+		return this.enabled;
+	}
+
+	/**
+	 *
+	 * Records how long painting a frame took.
+	 *
+	 * @param nanos
+	 */
+	public void recordPaint(long nanos) {
+		int toggled = this.toggles;
+		if (toggled != this.paintedToggles) {
+			// turned on again since the last paint, start over
+			this.paintedToggles = toggled;
+			this.paints = 0;
+			this.lastRedraw = 0;
+			this.lastAllocated = -1;
+			this.allocationRate = -1;
+		}
+		this.paintNanos[(int) (this.paints % HISTORY)] = nanos;
+		this.paints++;
+	}
+
+	/**
+	 *
+	 * Draws the overlay with its top-right corner at (right, top), redrawing
+	 * its image first if it is due.
+	 *
+	 * @param g2
+	 * @param frame the snapshot whose list sizes are shown
+	 * @param right
+	 * @param top
+	 */
+	public void paint(Graphics2D g2, RenderSnapshot frame, int right, int top) {
+		long now = System.nanoTime();
+		if (this.image == null || now - this.lastRedraw >= REDRAW_NANOS) {
+			this.sampleMemory(now);
+			this.render(frame);
+			this.lastRedraw = now;
+		}
+		g2.drawImage(this.image, right - WIDTH, top, null);
+	}
+
+	/**
+	 *
+	 * Updates the allocation rate and GC counts once per RATE_NANOS.
+	 *
+	 * @param now
+	 */
+	private void sampleMemory(long now) {
+		if (this.lastAllocated >= 0 && now - this.lastRateSample < RATE_NANOS) {
+			return;
+		}
+		long allocated = -1;
+		if (this.threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) this.threads;
+			if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+				// a second's worth of allocation by all live threads
+				allocated = 0;
+				for (long bytes : t.getThreadAllocatedBytes(t.getAllThreadIds())) {
+					allocated += Math.max(bytes, 0);
+				}
+			}
+		}
+		// a thread that ended since the last sample takes its bytes out of the
+		// sum, which can make the difference negative; such a second keeps the
+		// last rate and only moves the baseline
+		if (allocated >= this.lastAllocated && this.lastAllocated >= 0) {
+			this.allocationRate = (allocated - this.lastAllocated) * 1e9 / (now - this.lastRateSample);
+		}
+		this.lastAllocated = allocated;
+		this.lastRateSample = now;
+
+		long count = 0;
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : this.collectors) {
+			count += Math.max(gc.getCollectionCount(), 0);
+			millis += Math.max(gc.getCollectionTime(), 0);
+		}
+		this.gcCount = count;
+		this.gcMillis = millis;
+	}
+
+	/**
+	 *
+	 * Draws the graphs and numbers into the image.
+	 *
+	 * @param frame
+	 */
+	private void render(RenderSnapshot frame) {
+		if (this.image == null) {
+			this.image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = this.image.createGraphics();
+		try {
+			g.setComposite(AlphaComposite.Src);
+			g.setColor(BACKGROUND);
+			g.fillRect(0, 0, WIDTH, HEIGHT);
+			g.setComposite(AlphaComposite.SrcOver);
+			g.setFont(FONT);
+
+			int y = 4;
+			// the newest tick may still be being measured
+			long lastTick = this.times.ticks - 1;
+			y = this.graph(g, y, "tick", this.tickSamples(lastTick, null), TICK_BUDGET);
+			y = this.graph(g, y, "update", this.tickSamples(lastTick, PhaseTimes.Phase.MOVE), TICK_BUDGET);
+			y = this.graph(g, y, "remove", this.tickSamples(lastTick, PhaseTimes.Phase.ADD_REMOVE), TICK_BUDGET);
+			y = this.graph(g, y, "collision", this.tickSamples(lastTick, PhaseTimes.Phase.COLLISION), TICK_BUDGET);
+			y = this.graph(g, y, "paint", this.paintSamples(), PAINT_BUDGET);
+
+			g.setColor(TEXT);
+			y += LINE;
+			g.drawString("all " + frame.count + "  monsters " + frame.monsterCount + "  bubbles " + frame.bubbleCount,
+					4, y);
+			y += LINE;
+			g.drawString("fireBubbles " + frame.fireBubbleCount + "  fireballs " + frame.fireballCount + "  icons "
+					+ frame.fireIconCount, 4, y);
+			y += LINE;
+			g.drawString("fruits " + frame.fruitCount + "/" + frame.bananaCount + "/" + frame.appleCount
+					+ "  platforms " + frame.platformCount, 4, y);
+			y += LINE;
+			g.drawString((this.allocationRate < 0) ? "alloc n/a"
+					: String.format("alloc %.1f MB/s", this.allocationRate / (1024 * 1024)), 4, y);
+			y += LINE;
+			g.drawString("gc " + this.gcCount + " (" + this.gcMillis + " ms)", 4, y);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 *
+	 * Copies the last GRAPH_WIDTH ticks of a phase, or of whole ticks, into
+	 * samples.
+	 *
+	 * @param lastTick
+	 * @param phase the phase, or null for the sum of all phases
+	 * @return the number of samples copied
+	 */
+	private int tickSamples(long lastTick, PhaseTimes.Phase phase) {
+		int n = (int) Math.max(0, Math.min(GRAPH_WIDTH, lastTick + 1));
+		for (int i = 0; i < n; i++) {
+			long tick = lastTick - (n - 1 - i);
+			if (phase != null) {
+				this.samples[i] = this.times.sample(phase, tick);
+			} else {
+				long total = 0;
+				for (PhaseTimes.Phase p : PHASES) {
+					total += this.times.sample(p, tick);
+				}
+				this.samples[i] = total;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 *
+	 * Copies the last GRAPH_WIDTH paint times into samples.
+	 *
+	 * @return the number of samples copied
+	 */
+	private int paintSamples() {
+		int n = (int) Math.min(GRAPH_WIDTH, this.paints);
+		for (int i = 0; i < n; i++) {
+			this.samples[i] = this.paintNanos[(int) ((this.paints - n + i) % HISTORY)];
+		}
+		return n;
+	}
+
+	/**
+	 *
+	 * Draws a label with the average and worst time and a graph of the
+	 * samples, one column each. The graph is scaled to the worst sample (but
+	 * never to less than a hundredth of the budget) and coloured by how much of
+	 * the budget a sample used.
+	 *
+	 * @param g
+	 * @param y top of the label
+	 * @param label
+	 * @param n number of samples
+	 * @param budget time that fills the graph, in nanoseconds
+	 * @return the y below the graph
+	 */
+	private int graph(Graphics2D g, int y, String label, int n, long budget) {
+		long sum = 0;
+		long max = 0;
+		for (int i = 0; i < n; i++) {
+			sum += this.samples[i];
+			max = Math.max(max, this.samples[i]);
+		}
+		g.setColor(TEXT);
+		g.drawString(String.format("%-9s %7.1f avg %7.1f max us", label, (n == 0) ? 0.0 : sum / 1000.0 / n,
+				max / 1000.0), 4, y + LINE - 3);
+		long fullScale = Math.max(max, budget / 100);
+		int bottom = y + LINE + GRAPH_HEIGHT;
+		g.setColor(Color.DARK_GRAY);
+		g.drawLine(4, bottom, 4 + GRAPH_WIDTH, bottom);
+		for (int i = 0; i < n; i++) {
+			long value = this.samples[i];
+			int height = (int) (value * GRAPH_HEIGHT / fullScale);
+			if (height > 0) {
+				g.setColor((value > budget) ? OVER : (value * 2 > budget) ? HIGH : LOW);
+				g.drawLine(4 + i, bottom - height, 4 + i, bottom - 1);
+			}
+		}
+		return bottom + 4;
+	}
+}
@@ -0,0 +1,182 @@
+package BubbleBobble;
+
+import BubbleBobble.model.ScaledSprites;
+import BubbleBobble.model.SpriteRegistry;
+
+/**
+ *
+ * Viewport places the playfield in the window. The game is laid out for a
+ * 700x700 field; the viewport picks how many device pixels one of those
+ * pixels becomes (the scale) and where the field sits so it is centred, and
+ * keeps the sprites resampled to that scale. Renderers draw at device
+ * coordinates with x() and y() and copy sprites from sprites 1:1, so a big
+ * window costs no more per frame than a small one.
+ *
+ * The scale follows the window and the screen's own HiDPI scale. It is
+ * picked with -Dbubblebobble.scale:
+ *
+ * auto (default) the largest whole scale that fits, unless a fractional scale
+ * would fill the window noticeably better;
+ * integer the largest whole scale that fits (fractional if even 1 does not);
+ * fit the largest fractional scale that fits;
+ * a number that scale, e.g. 1.5, on top of the screen's HiDPI scale.
+ *
+ * In a level bigger than the playfield the playfield shows the part of the
+ * level under the camera: level objects are drawn with worldX() and worldY(),
+ * which subtract the camera position, while x() and y() stay fixed to the
+ * playfield for the HUD.
+ *
+ */
+public class Viewport {
+	public static final String MODE = System.getProperty("bubblebobble.scale", "auto");
+	// a whole scale is preferred while it fills at least this much of what a
+	// fractional one would
+	private static final double INTEGER_FILL = 0.9;
+
+	public final int size; // playfield size at scale 1
+	public double scale = 1; // device pixels per playfield pixel
+	public int offsetX = 0; // device pixels left of the playfield
+	public int offsetY = 0; // device pixels above the playfield
+	public ScaledSprites sprites = SpriteRegistry.scaled(1);
+	public double cameraX = 0; // level coordinates of the playfield's top left corner
+	public double cameraY = 0;
+
+	// what the current scale was picked for
+	private int width = -1;
+	private int height = -1;
+	private double deviceScale = -1;
+
+	/**
+	 *
+	 * Creates a viewport for a square playfield of the given size.
+	 *
+	 * @param size
+	 */
+	public Viewport(int size) {
+		this.size = size;
+	}
+
+	/**
+	 *
+	 * Fits the playfield into an area of the window. Nothing is recomputed
+	 * unless the area or the screen scale changed; the sprites are only
+	 * resampled when the scale changes.
+	 *
+	 * @param width of the area in device pixels
+	 * @param height of the area in device pixels
+	 * @param deviceScale device pixels per window unit (2 on a typical HiDPI screen)
+	 * @return true if the scale changed
+	 */
+	public boolean update(int width, int height, double deviceScale) {
+		if (width == this.width && height == this.height && deviceScale == this.deviceScale) {
+			return false;
+		}
+		this.width = width;
+		this.height = height;
+		this.deviceScale = deviceScale;
+
+		double newScale = pickScale(Math.min(width, height) / (double) this.size, deviceScale);
+		this.offsetX = Math.max(0, (width - scale(this.size, newScale)) / 2);
+		this.offsetY = Math.max(0, (height - scale(this.size, newScale)) / 2);
+		if (newScale == this.scale && this.sprites.scale == newScale) {
+			return false;
+		}
+		this.scale = newScale;
+		this.sprites = SpriteRegistry.scaled(newScale);
+		return true;
+	}
+
+	/**
+	 *
+	 * Picks the scale for a window that could fit the playfield at the given
+	 * fractional scale.
+	 *
+	 * @param fit
+	 * @param deviceScale
+	 * @return the scale
+	 */
+	private static double pickScale(double fit, double deviceScale) {
+		if (fit <= 0) {
+			return deviceScale; // not laid out yet
+		}
+		double whole = Math.floor(fit);
+		switch (MODE.toLowerCase()) {
+		case "fit":
+			return fit;
+		case "integer":
+			return (whole >= 1) ? whole : fit;
+		case "auto":
+			return (whole >= 1 && whole >= fit * INTEGER_FILL) ? whole : fit;
+		default:
+			try {
+				return Double.parseDouble(MODE) * deviceScale;
+			} catch (NumberFormatException e) {
+				return fit;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Returns how big to make the window's playfield area at first: the fixed
+	 * scale if one was asked for, otherwise the largest whole multiple of the
+	 * playfield that fits on a screen of the given height with room to spare.
+	 *
+	 * @param size the playfield size
+	 * @param screenHeight in window units
+	 * @param reserved height the rest of the window needs
+	 * @return the size of the playfield area in window units
+	 */
+	public static int initialSize(int size, int screenHeight, int reserved) {
+		try {
+			return (int) Math.round(size * Double.parseDouble(MODE));
+		} catch (NumberFormatException e) {
+			int multiple = Math.max(1, (int) ((screenHeight * INTEGER_FILL - reserved) / size));
+			return size * multiple;
+		}
+	}
+
+	/**
+	 * @param length at scale 1
+	 * @return the length in device pixels
+	 */
+	public int scale(int length) {
+		return scale(length, this.scale);
+	}
+
+	private static int scale(int length, double scale) {
+		return (int) Math.round(length * scale);
+	}
+
+	/**
+	 * @param x a playfield X-coordinate, possibly between two pixels
+	 * @return the device X-coordinate to draw it at
+	 */
+	public int x(double x) {
+		return this.offsetX + (int) Math.round(x * this.scale);
+	}
+
+	/**
+	 * @param y a playfield Y-coordinate, possibly between two pixels
+	 * @return the device Y-coordinate to draw it at
+	 */
+	public int y(double y) {
+		return this.offsetY + (int) Math.round(y * this.scale);
+	}
+
+	/**
+	 * @param x a level X-coordinate, possibly between two pixels
+	 * @return the device X-coordinate to draw it at with the camera where it is
+	 */
+	public int worldX(double x) {
+		return this.offsetX + (int) Math.round((x - this.cameraX) * this.scale);
+	}
+
+	/**
+	 * @param y a level Y-coordinate, possibly between two pixels
+	 * @return the device Y-coordinate to draw it at with the camera where it is
+	 */
+	public int worldY(double y) {
+		return this.offsetY + (int) Math.round((y - this.cameraY) * this.scale);
+	}
+}
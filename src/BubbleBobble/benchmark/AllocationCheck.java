@@ -0,0 +1,184 @@
+package BubbleBobble.benchmark;
+
+import BubbleBobble.model.Level;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AllocationCheck verifies that the simulation hot path allocates nothing once a level
+ * has warmed up. For every scenario it builds the level, runs the tick and the collision
+ * benchmarks for a number of warmup operations (arrays and pools grow to the level's size
+ * there), then counts the bytes the thread allocates over the next operations with
+ * com.sun.management.ThreadMXBean.getThreadAllocatedBytes(). The exit status is 1 if any
+ * of them allocated, 2 if the JVM cannot count allocations, 0 otherwise.
+ *
+ * After the warmup it measures -r windows of operations one after the other and fails
+ * if any of them allocated a single byte; the bytes of every window are printed. Code
+ * that runs for the first time can allocate once even when it allocates nothing
+ * afterwards: the JVM creates a string literal the first time it is used, and a list
+ * grows when it first holds more than ever before (e.g. the most removals in one tick).
+ * Rare game events can happen for the first time late, which is what the long default
+ * warmup is for. A check that fails on such an event needs a longer warmup, not a pass.
+ *
+ * The claim covers the steady state of the scenarios: entities moving, colliding, being
+ * bubbled and popped, and pooled projectiles and fruit coming and going. Events that
+ * create new objects (a level adding monsters, a power-up appearing) allocate them by
+ * design, and a level that gains entities may grow its arrays once. So do streamed
+ * levels whenever a chunk wakes (its entities are created) or goes to sleep (they are
+ * recorded), which is why the generated scenarios are not checked unless asked for.
+ *
+ * Run it with -Xint. The interpreter allocates every object the code asks for, with no
+ * escape analysis to hide any, and it does not charge the thread for the JIT's own one-off
+ * allocations (a method being deoptimized puts its scalar-replaced objects on the heap).
+ * With the JIT on, a check can fail on such a one-off.
+ *
+ * Usage: java -Xint BubbleBobble.benchmark.AllocationCheck [options]
+ *   -b tick,collision               benchmarks to check (default: both)
+ *   -s level1,synthetic-1000,...    scenarios to check (default: the level files and
+ *                                   synthetic-10 to synthetic-1000)
+ *   -m broadphase,brute_force       collision modes (default: broadphase)
+ *   -w N                            warmup operations (default: 3000)
+ *   -n N                            measured operations per window (default: 1000)
+ *   -r N                            windows to measure (default: 3)
+ */
+public class AllocationCheck {
+
+    public static void main(String[] args) {
+        // Must be set before any AWT class looks at it
+        System.setProperty("java.awt.headless", "true");
+
+        List<String> benchmarkNames = null;
+        List<String> scenarioNames = null;
+        List<Level.CollisionMode> modes = new ArrayList<>();
+        int warmupOps = 3000;
+        int ops = 1000;
+        int windows = 3;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-b":
+                    benchmarkNames = split(value);
+                    break;
+                case "-s":
+                    scenarioNames = split(value);
+                    break;
+                case "-m":
+                    for (String mode : split(value)) {
+                        modes.add(Level.CollisionMode.valueOf(mode.toUpperCase()));
+                    }
+                    break;
+                case "-w":
+                    warmupOps = Integer.parseInt(value);
+                    break;
+                case "-n":
+                    ops = Integer.parseInt(value);
+                    break;
+                case "-r":
+                    windows = Integer.parseInt(value);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+        if (modes.isEmpty()) {
+            modes.add(Level.CollisionMode.BROADPHASE);
+        }
+
+        com.sun.management.ThreadMXBean threads = threadBean();
+        if (threads == null) {
+            System.err.println("This JVM cannot count allocated bytes per thread");
+            System.exit(2);
+        }
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for (Benchmark b : new Benchmark[] {new Benchmark.Tick(), new Benchmark.Collision()}) {
+            if (benchmarkNames == null || benchmarkNames.contains(b.name)) {
+                benchmarks.add(b);
+            }
+        }
+
+        if (!System.getProperty("java.vm.info", "").contains("interpreted mode")) {
+            System.out.println("Not running with -Xint; the JIT may add one-off allocations");
+        }
+
+        long thread = Thread.currentThread().getId();
+        int failures = 0;
+        System.out.printf("%-10s %-16s %-12s %s%n", "Benchmark", "Scenario", "Mode", "bytes per window");
+        for (Benchmark benchmark : benchmarks) {
+            for (Scenario scenario : Scenario.all()) {
+                if ((scenarioNames == null) ? !checkedByDefault(scenario) : !scenarioNames.contains(scenario.name)) {
+                    continue;
+                }
+                for (Level.CollisionMode mode : modes) {
+                    Level.CollisionMode previousMode = Level.collisionMode;
+                    Level.collisionMode = mode;
+                    try {
+                        benchmark.setUp(scenario);
+                        for (int i = 0; i < warmupOps; i++) {
+                            benchmark.op();
+                        }
+                        StringBuilder measured = new StringBuilder();
+                        long allocated = 0;
+                        for (int w = 0; w < windows; w++) {
+                            long before = threads.getThreadAllocatedBytes(thread);
+                            for (int i = 0; i < ops; i++) {
+                                benchmark.op();
+                            }
+                            long window = threads.getThreadAllocatedBytes(thread) - before;
+                            allocated += window;
+                            measured.append((w == 0) ? "" : ", ").append(window);
+                        }
+                        System.out.printf("%-10s %-16s %-12s %s%s%n", benchmark.name, scenario.name,
+                                mode.name().toLowerCase(), measured, (allocated > 0) ? "  ALLOCATES" : "");
+                        if (allocated > 0) {
+                            failures++;
+                        }
+                    } finally {
+                        Level.collisionMode = previousMode;
+                    }
+                }
+            }
+        }
+
+        if (failures > 0) {
+            System.out.println(failures + " check(s) allocated after " + warmupOps + " warmup operations");
+            System.exit(1);
+        }
+        System.out.println("No check allocated in " + windows + " windows of " + ops + " operations after "
+                + warmupOps + " warmup operations");
+    }
+
+    /**
+     * @param scenario A scenario.
+     * @return true if the scenario is checked when no scenarios are given: not streamed,
+     *         and small enough to run without the JIT.
+     */
+    private static boolean checkedByDefault(Scenario scenario) {
+        return scenario.name.startsWith("level")
+                || (scenario.name.startsWith("synthetic") && !scenario.name.equals("synthetic-10000"));
+    }
+
+    /**
+     * @return The thread bean if it can count allocated bytes, with counting switched on;
+     *         null otherwise.
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static List<String> split(String list) {
+        return Arrays.asList(list.toLowerCase().split(","));
+    }
+}
@@ -0,0 +1,184 @@
+package BubbleBobble.benchmark;
+
+import BubbleBobble.DrawList;
+import BubbleBobble.Viewport;
+import BubbleBobble.model.Level;
+import BubbleBobble.model.PhaseTimes;
+import BubbleBobble.model.RenderBuffers;
+import BubbleBobble.model.RenderSnapshot;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A Benchmark is one operation on the simulation that BenchmarkRunner times over and
+ * over. Before every measurement iteration setUp() builds fresh state from the scenario
+ * (not measured); op() is the measured operation.
+ */
+public abstract class Benchmark {
+
+    public final String name;
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Prepares the state for one iteration. Not measured.
+     *
+     * @param scenario The scenario to run on.
+     */
+    public abstract void setUp(Scenario scenario);
+
+    /**
+     * Runs the measured operation once.
+     */
+    public abstract void op();
+
+    /**
+     * @param scenario A scenario.
+     * @return true if this benchmark can run on the scenario.
+     */
+    public boolean supports(Scenario scenario) {
+        return true;
+    }
+
+    /**
+     * @return Per-phase tick timings of the current iteration, or null if this benchmark
+     *         does not run whole ticks.
+     */
+    public PhaseTimes phaseTimes() {
+        return null;
+    }
+
+    /**
+     * Level.timePassed(): one whole simulation tick.
+     */
+    public static class Tick extends Benchmark {
+        private Level level;
+
+        public Tick() {
+            super("tick");
+        }
+
+        @Override
+        public void setUp(Scenario scenario) {
+            this.level = scenario.build();
+            this.level.phaseTimes = new PhaseTimes();
+            this.level.renderBuffers = new RenderBuffers();  // Publish snapshots like the game does
+        }
+
+        @Override
+        public void op() {
+            this.level.timePassed();
+        }
+
+        @Override
+        public PhaseTimes phaseTimes() {
+            return this.level.phaseTimes;
+        }
+    }
+
+    /**
+     * Level.handleCheckCollision() alone, on positions that do not change between calls.
+     * Nothing is removed between calls either, so the same contacts are handled again
+     * every call (e.g. a bubble keeps re-bubbling the monster it overlaps).
+     */
+    public static class Collision extends Benchmark {
+        private Level level;
+
+        public Collision() {
+            super("collision");
+        }
+
+        @Override
+        public void setUp(Scenario scenario) {
+            this.level = scenario.build();
+        }
+
+        @Override
+        public void op() {
+            this.level.handleCheckCollision();
+        }
+    }
+
+    /**
+     * Drawing the moving sprites of one snapshot of the scenario into an offscreen 700x700
+     * image, either straight in the level's order like the game used to ("render-direct")
+     * or through a DrawList, culled and drawn in runs by layer and atlas page ("render-batched").
+     * Needs sprites, so BenchmarkRunner loads them when a render benchmark runs.
+     */
+    public static class Render extends Benchmark {
+        private static final int SIZE = 700;
+        private final boolean batched;
+        private final Viewport view = new Viewport(SIZE);
+        private final DrawList drawList = new DrawList();
+        private final RenderSnapshot frame = new RenderSnapshot();
+        private BufferedImage image;
+        private Graphics2D g;
+
+        public Render(boolean batched) {
+            super(batched ? "render-batched" : "render-direct");
+            this.batched = batched;
+        }
+
+        @Override
+        public void setUp(Scenario scenario) {
+            this.frame.capture(scenario.build());
+            this.view.update(SIZE, SIZE, 1);
+            this.view.cameraX = this.frame.cameraX;  // Where the game would be looking
+            this.view.cameraY = this.frame.cameraY;
+            if (this.g != null) {
+                this.g.dispose();
+            }
+            this.image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+            this.g = this.image.createGraphics();
+        }
+
+        @Override
+        public void op() {
+            if (this.batched) {
+                this.drawList.build(this.frame, this.view, 1);
+                this.drawList.draw(this.g);
+                return;
+            }
+            for (int i = 0; i < this.frame.count; i++) {
+                if ((this.frame.flags[i] & RenderSnapshot.PLATFORM) == 0) {
+                    this.g.drawImage(this.frame.sprites[i], this.frame.x[i], this.frame.y[i], null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Building a level from its file (the work LevelComponent.constructLevel() does),
+     * either the way the game does it, from the compiled file, or by parsing the text
+     * file every time. When running headless no sprites are decoded, so this is the
+     * reading and object construction only.
+     */
+    public static class Load extends Benchmark {
+        private final boolean text;
+        private Scenario scenario;
+        public Level last;  // Kept so the JIT cannot drop the load
+
+        public Load(boolean text) {
+            super(text ? "load-text" : "load");
+            this.text = text;
+        }
+
+        @Override
+        public boolean supports(Scenario scenario) {
+            return scenario.isLevelFile();
+        }
+
+        @Override
+        public void setUp(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        @Override
+        public void op() {
+            this.last = this.text ? this.scenario.loadText() : this.scenario.load();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package BubbleBobble.benchmark;
+
+import BubbleBobble.model.Level;
+import BubbleBobble.model.PhaseTimes;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BenchmarkRunner measures the simulation hot path: whole ticks, collision checks and
+ * level loading, on every Scenario and collision mode. Every combination gets a number
+ * of warmup iterations followed by measured iterations of a fixed length. For each it
+ * reports
+ *   - throughput in operations per second (mean and standard deviation over iterations),
+ *   - bytes allocated per operation by the benchmark thread,
+ *   - garbage collections and their total time during the measured iterations,
+ *   - for the tick benchmark, the average time of each phase of Level.timePassed().
+ *
+ * Runs headless, so no window is opened. Sprites are only decoded when a render benchmark
+ * (frame drawing into an offscreen image, direct or through a DrawList) is run; the
+ * sprites-5000 scenario is the one they are meant for.
+ *
+ * Usage: java BubbleBobble.benchmark.BenchmarkRunner [options]
+ *   -b tick,collision,load,load-text,render-direct,render-batched
+ *                                   benchmarks to run (default: all)
+ *   -s level1,generated-10x,...     scenarios to run on (default: all)
+ *   -m broadphase,brute_force       collision modes (default: broadphase)
+ *   -wi N                           warmup iterations (default: 3)
+ *   -i N                            measured iterations (default: 5)
+ *   -t MILLIS                       length of one iteration (default: 1000)
+ */
+public class BenchmarkRunner {
+
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationNanos = 1_000_000_000L;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * The measurements of one benchmark on one scenario.
+     */
+    public static class Result {
+        public String benchmark;
+        public String scenario;
+        public Level.CollisionMode mode;
+        public double[] opsPerSecond;
+        public long ops;
+        public long allocatedBytes = -1;  // -1 when the JVM cannot count allocations
+        public long gcCount;
+        public long gcMillis;
+        public PhaseTimes phases;  // Summed over the measured iterations, null if not a tick benchmark
+
+        public double mean() {
+            return Arrays.stream(this.opsPerSecond).average().orElse(0);
+        }
+
+        public double stdDev() {
+            double mean = this.mean();
+            double sum = 0;
+            for (double v : this.opsPerSecond) {
+                sum += (v - mean) * (v - mean);
+            }
+            return (this.opsPerSecond.length < 2) ? 0 : Math.sqrt(sum / (this.opsPerSecond.length - 1));
+        }
+
+        public double bytesPerOp() {
+            return (this.allocatedBytes < 0 || this.ops == 0) ? -1 : (double) this.allocatedBytes / this.ops;
+        }
+    }
+
+    /**
+     * Runs one benchmark on one scenario.
+     *
+     * @param benchmark The benchmark.
+     * @param scenario The scenario.
+     * @param mode The collision mode to use.
+     * @return The measurements.
+     */
+    public Result run(Benchmark benchmark, Scenario scenario, Level.CollisionMode mode) {
+        Level.CollisionMode previousMode = Level.collisionMode;
+        Level.collisionMode = mode;
+        try {
+            for (int i = 0; i < this.warmupIterations; i++) {
+                benchmark.setUp(scenario);
+                this.iterate(benchmark);
+            }
+
+            Result result = new Result();
+            result.benchmark = benchmark.name;
+            result.scenario = scenario.name;
+            result.mode = mode;
+            result.opsPerSecond = new double[this.iterations];
+            for (int i = 0; i < this.iterations; i++) {
+                benchmark.setUp(scenario);
+                long gcCountBefore = this.gcCount();
+                long gcMillisBefore = this.gcMillis();
+                long allocatedBefore = this.allocatedBytes();
+                long start = System.nanoTime();
+                long ops = this.iterate(benchmark);
+                long elapsed = System.nanoTime() - start;
+                long allocatedAfter = this.allocatedBytes();
+
+                result.opsPerSecond[i] = ops * 1e9 / elapsed;
+                result.ops += ops;
+                if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+                    result.allocatedBytes = Math.max(result.allocatedBytes, 0) + allocatedAfter - allocatedBefore;
+                }
+                result.gcCount += this.gcCount() - gcCountBefore;
+                result.gcMillis += this.gcMillis() - gcMillisBefore;
+                PhaseTimes phases = benchmark.phaseTimes();
+                if (phases != null) {
+                    if (result.phases == null) {
+                        result.phases = new PhaseTimes();
+                    }
+                    for (int p = 0; p < phases.nanos.length; p++) {
+                        result.phases.nanos[p] += phases.nanos[p];
+                    }
+                    result.phases.ticks += phases.ticks;
+                }
+            }
+            return result;
+        } finally {
+            Level.collisionMode = previousMode;
+        }
+    }
+
+    /**
+     * Runs the operation for one iteration. Operations are run in batches so that
+     * reading the clock does not weigh on very short operations; the batch grows until
+     * it takes about a millisecond.
+     *
+     * @return The number of operations run.
+     */
+    private long iterate(Benchmark benchmark) {
+        long start = System.nanoTime();
+        long end = start + this.iterationNanos;
+        long ops = 0;
+        int batch = 1;
+        long now = start;
+        while (now < end) {
+            long batchStart = now;
+            for (int i = 0; i < batch; i++) {
+                benchmark.op();
+            }
+            ops += batch;
+            now = System.nanoTime();
+            if (now - batchStart < 1_000_000L && batch < (1 << 20)) {
+                batch *= 2;
+            }
+        }
+        return ops;
+    }
+
+    private long allocatedBytes() {
+        if (this.threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) this.threads;
+            if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+                return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : this.collectors) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : this.collectors) {
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    /**
+     * Prints the results as a table, followed by the phase breakdown of the tick
+     * benchmarks.
+     *
+     * @param results The results to print.
+     */
+    public static void print(List<Result> results) {
+        System.out.printf("%n%-10s %-16s %-12s %14s %12s %12s %6s %8s%n",
+                "Benchmark", "Scenario", "Mode", "ops/s", "+- sd", "B/op", "GCs", "GC ms");
+        for (Result r : results) {
+            double bytes = r.bytesPerOp();
+            System.out.printf("%-10s %-16s %-12s %14.1f %12.1f %12s %6d %8d%n",
+                    r.benchmark, r.scenario, r.mode.name().toLowerCase(), r.mean(), r.stdDev(),
+                    (bytes < 0) ? "n/a" : String.format("%.1f", bytes), r.gcCount, r.gcMillis);
+        }
+
+        boolean header = false;
+        for (Result r : results) {
+            if (r.phases == null) {
+                continue;
+            }
+            if (!header) {
+                System.out.printf("%nAverage time per tick phase (us)%n%-16s %-12s", "Scenario", "Mode");
+                for (PhaseTimes.Phase phase : PhaseTimes.phases()) {
+                    System.out.printf(" %11s", phase.name().toLowerCase());
+                }
+                System.out.println();
+                header = true;
+            }
+            System.out.printf("%-16s %-12s", r.scenario, r.mode.name().toLowerCase());
+            for (PhaseTimes.Phase phase : PhaseTimes.phases()) {
+                System.out.printf(" %11.2f", r.phases.averageNanos(phase) / 1000);
+            }
+            System.out.println();
+        }
+    }
+
+    private static List<String> split(String list) {
+        return Arrays.asList(list.toLowerCase().split(","));
+    }
+
+    public static void main(String[] args) {
+        // Must be set before any AWT class looks at it
+        System.setProperty("java.awt.headless", "true");
+
+        BenchmarkRunner runner = new BenchmarkRunner();
+        List<String> benchmarkNames = null;
+        List<String> scenarioNames = null;
+        List<Level.CollisionMode> modes = new ArrayList<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-b":
+                    benchmarkNames = split(value);
+                    break;
+                case "-s":
+                    scenarioNames = split(value);
+                    break;
+                case "-m":
+                    for (String mode : split(value)) {
+                        modes.add(Level.CollisionMode.valueOf(mode.toUpperCase()));
+                    }
+                    break;
+                case "-wi":
+                    runner.warmupIterations = Integer.parseInt(value);
+                    break;
+                case "-i":
+                    runner.iterations = Integer.parseInt(value);
+                    break;
+                case "-t":
+                    runner.iterationNanos = Long.parseLong(value) * 1_000_000L;
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        if (modes.isEmpty()) {
+            modes.add(Level.CollisionMode.BROADPHASE);
+        }
+
+        // Drawing needs sprites; must be decided before the first level is built
+        if (benchmarkNames == null || benchmarkNames.stream().anyMatch(name -> name.startsWith("render"))) {
+            System.setProperty("bubblebobble.sprites", "true");
+        }
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        for (Benchmark b : new Benchmark[] {new Benchmark.Tick(), new Benchmark.Collision(), new Benchmark.Load(false),
+                new Benchmark.Load(true), new Benchmark.Render(false), new Benchmark.Render(true)}) {
+            if (benchmarkNames == null || benchmarkNames.contains(b.name)) {
+                benchmarks.add(b);
+            }
+        }
+        List<Scenario> scenarios = new ArrayList<>();
+        for (Scenario s : Scenario.all()) {
+            if (scenarioNames == null || scenarioNames.contains(s.name)) {
+                scenarios.add(s);
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Benchmark benchmark : benchmarks) {
+            for (Scenario scenario : scenarios) {
+                if (!benchmark.supports(scenario)) {
+                    continue;
+                }
+                for (Level.CollisionMode mode : modes) {
+                    System.out.println("# " + benchmark.name + " " + scenario.name + " " + mode.name().toLowerCase());
+                    results.add(runner.run(benchmark, scenario, mode));
+                }
+            }
+        }
+        print(results);
+    }
+}
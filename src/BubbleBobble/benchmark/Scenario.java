@@ -0,0 +1,206 @@
+package BubbleBobble.benchmark;
+
+import BubbleBobble.model.BubbleBuster;
+import BubbleBobble.model.Hero;
+import BubbleBobble.model.Level;
+import BubbleBobble.model.LevelCompiler;
+import BubbleBobble.model.LevelGenerator;
+import BubbleBobble.model.LevelLoader;
+import BubbleBobble.model.Platform;
+import BubbleBobble.model.SpriteRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Scenario is a level for the benchmarks to run on. It is either one of the level files
+ * under levels/, a level file made by LevelGenerator with a multiple of the entities of the
+ * hand-made ones, or a synthetic level: the usual walls and floor, a few platforms, the hero
+ * and a given number of bubbles, monsters and fruits scattered over the level.
+ *
+ * Every call to build() returns a fresh level in the same starting state, so each
+ * measurement iteration starts from the same place.
+ */
+public class Scenario {
+
+    // Entity counts of the synthetic scenarios (each of bubbles, monsters and fruits)
+    public static final int[] SYNTHETIC_SIZES = {10, 100, 1000, 10000};
+    // Moving sprites of the scenario the render benchmarks are meant for
+    public static final int ON_SCREEN_SPRITES = 5000;
+    // Sizes of the generated scenarios, in hand-made levels
+    public static final int[] GENERATED_SCALES = {10, 100, 1000};
+    public static final long GENERATED_SEED = 1;
+
+    private static final int FIRST_LEVEL = 1;
+    private static final int LAST_LEVEL = 9;
+    private static final int TILE = LevelLoader.TILE_SIZE;
+    private static final int TILES = LevelLoader.NUM_TILES;
+
+    public final String name;
+    private final int levelNum;  // Level file number, or -1 for a synthetic or generated level
+    private final int count;     // Synthetic entity count
+    private File generatedFile;  // Text file of a generated level, written on first use
+
+    private Scenario(String name, int levelNum, int count) {
+        this.name = name;
+        this.levelNum = levelNum;
+        this.count = count;
+    }
+
+    /**
+     * @param levelNum The number of a level file.
+     * @return A scenario that loads levels/level<levelNum>.txt.
+     */
+    public static Scenario levelFile(int levelNum) {
+        return new Scenario("level" + levelNum, levelNum, 0);
+    }
+
+    /**
+     * @param count The number of bubbles, of monsters and of fruits.
+     * @return A synthetic scenario.
+     */
+    public static Scenario synthetic(int count) {
+        return new Scenario("synthetic-" + count, -1, count);
+    }
+
+    /**
+     * @param scale How many hand-made levels worth of entities the level holds.
+     * @return A scenario that loads a level made by LevelGenerator.scaled(GENERATED_SEED,
+     *         scale), written to the temporary directory the first time it is needed.
+     */
+    public static Scenario generated(int scale) {
+        Scenario scenario = new Scenario("generated-" + scale + "x", -1, scale);
+        // Named by format version too, so a file compiled by an older build is not reused
+        scenario.generatedFile = new File(System.getProperty("java.io.tmpdir"), "bubblebobble-levels/generated-"
+                + scale + "x-" + GENERATED_SEED + "-v" + LevelCompiler.VERSION + ".txt");
+        return scenario;
+    }
+
+    /**
+     * @param sprites The number of moving sprites, all of them inside the playfield.
+     * @return A synthetic scenario with a third of them each bubbles, monsters and fruits.
+     */
+    public static Scenario onScreen(int sprites) {
+        return new Scenario("sprites-" + sprites, -1, sprites / 3);
+    }
+
+    /**
+     * @return The playable level files followed by the synthetic scenarios.
+     */
+    public static List<Scenario> all() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = FIRST_LEVEL; i <= LAST_LEVEL; i++) {
+            scenarios.add(levelFile(i));
+        }
+        for (int scale : GENERATED_SCALES) {
+            scenarios.add(generated(scale));
+        }
+        for (int size : SYNTHETIC_SIZES) {
+            scenarios.add(synthetic(size));
+        }
+        scenarios.add(onScreen(ON_SCREEN_SPRITES));
+        return scenarios;
+    }
+
+    /**
+     * @return true if this scenario is read from a level file.
+     */
+    public boolean isLevelFile() {
+        return this.levelNum >= 0 || this.generatedFile != null;
+    }
+
+    /**
+     * Builds the level and runs one tick so that everything in it has been added.
+     *
+     * @return A new level.
+     * @throws IllegalStateException if the level file cannot be read.
+     */
+    public Level build() {
+        Level level = this.isLevelFile() ? this.load() : this.buildSynthetic();
+        level.timePassed();
+        return level;
+    }
+
+    /**
+     * Reads the level file without running it.
+     *
+     * @return A new level.
+     * @throws IllegalStateException if the level file cannot be read.
+     */
+    public Level load() {
+        if (this.generatedFile != null) {
+            try {
+                return LevelLoader.loadCompiled(LevelCompiler.compiledFile(this.generatedFile()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read level file " + this.generatedFile, e);
+            }
+        }
+        Level level = LevelLoader.load(this.levelNum);
+        if (level == null) {
+            throw new IllegalStateException("Cannot read level file " + this.levelNum);
+        }
+        return level;
+    }
+
+    /**
+     * Parses the level's text file, ignoring its compiled file.
+     *
+     * @return A new level.
+     * @throws IllegalStateException if the level file cannot be read.
+     */
+    public Level loadText() {
+        File file = (this.generatedFile != null) ? this.generatedFile() : new File("levels/level" + this.levelNum + ".txt");
+        try {
+            return LevelLoader.load(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read level file " + file, e);
+        }
+    }
+
+    /**
+     * Writes the generated level and its compiled file unless they are there already. The
+     * same seed and scale always give the same level, so files from an earlier run are
+     * reused.
+     */
+    private File generatedFile() {
+        File compiled = LevelCompiler.compiledFile(this.generatedFile);
+        if (!this.generatedFile.isFile() || !compiled.isFile()) {
+            try {
+                LevelGenerator.scaled(GENERATED_SEED, this.count).write(this.generatedFile);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write " + this.generatedFile, e);
+            }
+        }
+        return this.generatedFile;
+    }
+
+    private Level buildSynthetic() {
+        Level level = new Level();
+        int size = TILES * TILE;
+        // Walls and floor like the level files, plus two rows of platforms to land on
+        level.addCollidable(new Platform(level, 0, 0, TILE, size, SpriteRegistry.get("sprites/wall2.png")));
+        level.addCollidable(new Platform(level, size - TILE, 0, TILE, size, SpriteRegistry.get("sprites/wall2.png")));
+        level.addCollidable(new Platform(level, 0, size - TILE, size, TILE, SpriteRegistry.get("sprites/floor2.png")));
+        for (int row = 5; row < TILES - 1; row += 5) {
+            level.addCollidable(new Platform(level, 3 * TILE, row * TILE, 5 * TILE, TILE,
+                    SpriteRegistry.get("sprites/bigPlatform2.png")));
+            level.addCollidable(new Platform(level, 12 * TILE, row * TILE, 5 * TILE, TILE,
+                    SpriteRegistry.get("sprites/bigPlatform2.png")));
+        }
+        level.addCollidable(new Hero(level, TILE, size - 2 * TILE, TILE, TILE));
+
+        // Same seed every time so every iteration starts from the same level
+        Random random = new Random(this.count);
+        int span = size - 3 * TILE;
+        for (int i = 0; i < this.count; i++) {
+            level.addCollidable(new BubbleBuster(level, TILE + random.nextInt(span), random.nextInt(span), TILE, TILE));
+            level.spawnBubble(TILE + random.nextInt(span), random.nextInt(span), random.nextBoolean() ? 1 : -1);
+            level.spawnFruit(TILE + random.nextInt(span), random.nextInt(span), TILE, TILE, 10);
+        }
+        level.compileTileMap(TILES, TILES);
+        return level;
+    }
+}
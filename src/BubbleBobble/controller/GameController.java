@@ -3,6 +3,7 @@ package BubbleBobble.controller;
 import BubbleBobble.LevelComponent;
 import BubbleBobble.designPattern.InvincibleHeroAction;
 import BubbleBobble.designPattern.NormalHeroAction;
+import BubbleBobble.model.Hero;
 import BubbleBobble.view.GameView;
 import javax.swing.*;
 import java.awt.event.KeyEvent;
@@ -65,19 +66,26 @@ public class GameController {
 			 */
 			@Override
 			public void keyPressed(KeyEvent e) {
+				// the hero is changed on the game loop thread, at the start of the next tick
 				if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-					this.comp.currentLevel.hero1.move("Right");
-					this.comp.currentLevel.hero1.sprite =(new ImageIcon("sprites/hero_right.gif")).getImage();
+					this.comp.requestInput(() -> {
+						Hero hero = this.comp.currentLevel.hero1;
+						hero.move("Right");
+						hero.sprite = hero.sprites[2];  // hero_right.gif
+					});
 					this.comp.setKeyState("Right", true);
 				}
 				if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-					this.comp.currentLevel.hero1.move("Left");
+					this.comp.requestInput(() -> {
+						Hero hero = this.comp.currentLevel.hero1;
+						hero.move("Left");
+						hero.sprite = hero.sprites[1];  // hero_left.gif
+					});
 					this.comp.setKeyState("Left", true);
-					this.comp.currentLevel.hero1.sprite = (new ImageIcon("sprites/hero_left.gif")).getImage();
 				}
 				if (e.getKeyCode() == KeyEvent.VK_UP) {
 					this.comp.setKeyState("Up", true);
-					this.comp.handleMoveHero();
+					this.comp.requestInput(this.comp::handleMoveHero);
 				}
 			}
 			
@@ -90,20 +98,20 @@ public class GameController {
 			public void keyReleased(KeyEvent e) {
 				char key = e.getKeyChar();
 				if (key == 'u' && !this.comp.checkGameOver()) {
-					this.comp.changeLevel(1);
+					this.comp.requestLevelChange(1);
 				}
 				if (key == 'd' && !this.comp.checkGameOver()) {
-					this.comp.changeLevel(-1);
+					this.comp.requestLevelChange(-1);
 				}
 				if (key == 'p') {
-					this.comp.currentLevel.changePause();
+					this.comp.requestInput(() -> this.comp.currentLevel.changePause());
 				}
 				if (key == 'm') {
-					this.comp.changeLevel(0);
+					this.comp.requestLevelChange(0);
 				}
 				if (e.getKeyCode() == KeyEvent.VK_UP) {
 					this.comp.setKeyState("Up", false);
-					this.comp.handleMoveHero();
+					this.comp.requestInput(this.comp::handleMoveHero);
 				}
 				if (e.getKeyCode() == KeyEvent.VK_LEFT) {
 					this.comp.setKeyState("Left", false);
@@ -113,13 +121,16 @@ public class GameController {
 				}
 				if (e.getKeyCode() == KeyEvent.VK_SPACE){
 					if (isFireballMode) {
-						this.comp.handleFireball(1);
+						this.comp.requestInput(() -> this.comp.handleFireball(1));
 					} else {
-						this.comp.handleBubble(1);
+						this.comp.requestInput(() -> this.comp.handleBubble(1));
 					}
 				}
+				if (e.getKeyCode() == KeyEvent.VK_F3) { // show or hide the profiler overlay
+					this.comp.toggleProfiler();
+				}
 				if (key >= '1' && key <= '9') { // change levels from keyboard
-					this.comp.changeLevel(Character.getNumericValue(key));
+					this.comp.requestLevelChange(Character.getNumericValue(key));
 				}
 			}
 			
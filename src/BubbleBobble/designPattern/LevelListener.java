@@ -0,0 +1,20 @@
+package BubbleBobble.designPattern;
+
+/**
+ * Defines the listener interface for events that happen inside a level and that the
+ * user interface may want to show. The model only reports the events; a level without
+ * a listener (for example a headless simulation) simply ignores them.
+ */
+public interface LevelListener {
+    /**
+     * Called when a message should be shown to the player.
+     *
+     * @param message The message text.
+     */
+    void showMessage(String message);
+
+    /**
+     * Called when the hero has collected a fire icon and may shoot fire bubbles.
+     */
+    void fireballModeActivated();
+}
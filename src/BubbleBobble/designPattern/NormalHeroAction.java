@@ -1,7 +1,5 @@
 package BubbleBobble.designPattern;
 
-import BubbleBobble.model.Bubble;
-import BubbleBobble.model.FireBubble;
 import BubbleBobble.model.Hero;
 
 /**
@@ -25,21 +23,21 @@ public class NormalHeroAction implements HeroActionStrategy {
     @Override
     public void move(Hero hero, String direction) {
         if (hero.lives == 0) {
-            hero.isAlive = false; // If the hero is dead, mark them as not alive
+            hero.setAlive(false); // If the hero is dead, mark them as not alive
             return;
         }
-        if (hero.isAlive && !hero.isPaused) {
-            if (direction.equals("Right") && !hero.isCollidingRight) {
-                hero.positionX += hero.DX;  // Move right
-                hero.direction = 1; // Set the direction to right
+        if (hero.isAlive() && !hero.isPaused()) {
+            if (direction.equals("Right") && !hero.isCollidingRight()) {
+                hero.setX(hero.getX() + hero.DX);  // Move right
+                hero.setDirection(1); // Set the direction to right
             }
-            if (direction.equals("Left") && !hero.isCollidingLeft) {
-                hero.positionX -= hero.DX;  // Move left
-                hero.direction = -1; // Set the direction to left
+            if (direction.equals("Left") && !hero.isCollidingLeft()) {
+                hero.setX(hero.getX() - hero.DX);  // Move left
+                hero.setDirection(-1); // Set the direction to left
             }
-            if (direction.equals("Up") && !hero.isJumping && !hero.isFalling) {
-                hero.vy = hero.JUMP_VELOCITY; // Initiate jump with velocity
-                hero.isJumping = true; // Mark as jumping
+            if (direction.equals("Up") && !hero.isJumping() && !hero.isFalling()) {
+                hero.setVy(hero.JUMP_VELOCITY); // Initiate jump with velocity
+                hero.setJumping(true); // Mark as jumping
             }
         }
     }
@@ -53,10 +51,9 @@ public class NormalHeroAction implements HeroActionStrategy {
      */
     @Override
     public void shootBubble(Hero hero) {
-        if (hero.isAlive && !hero.isPaused) {
-            int x = hero.positionX + ((hero.width + hero.PRECISION) * hero.direction); // Calculate bubble's spawn position
-            Bubble bubble = new Bubble(hero.level, x, hero.positionY, hero.direction); // Create a new bubble
-            hero.level.addCollidable(bubble); // Add bubble to the level
+        if (hero.isAlive() && !hero.isPaused()) {
+            int x = hero.getX() + ((hero.getWidth() + hero.PRECISION) * hero.getDirection()); // Calculate bubble's spawn position
+            hero.level.spawnBubble(x, hero.getY(), hero.getDirection()); // Add a (pooled) bubble to the level
         }
     }
 
@@ -70,11 +67,9 @@ public class NormalHeroAction implements HeroActionStrategy {
      */
     @Override
     public void shootFireBubble(Hero hero, int type) {
-        if (hero.isAlive && !hero.isPaused) {
-            int x = hero.positionX + ((hero.width + hero.PRECISION) * hero.direction); // Calculate fire bubble's spawn position
-            FireBubble fireBubble = new FireBubble(hero.level, x, hero.positionY, hero.direction); // Create a new fire bubble
-            fireBubble.setType(type); // Set the type of fire bubble based on hero
-            hero.level.addCollidable(fireBubble); // Add fire bubble to the level
+        if (hero.isAlive() && !hero.isPaused()) {
+            int x = hero.getX() + ((hero.getWidth() + hero.PRECISION) * hero.getDirection()); // Calculate fire bubble's spawn position
+            hero.level.spawnFireBubble(x, hero.getY(), hero.getDirection(), type); // Add a (pooled) fire bubble of the hero's type to the level
         }
     }
 }
@@ -0,0 +1,228 @@
+package BubbleBobble.model;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import org.w3c.dom.Node;
+
+/**
+ * AnimatedSprite is an animated GIF decoded once into an array of ready-to-draw frames.
+ * Entities keep it in their sprite field like any other image (drawn as is, it shows the
+ * first frame) and the frame to show is picked from a tick count with frameAt(), so the
+ * animation advances with the simulation, stops while the entity is paused and needs no
+ * image-producer thread to run it.
+ */
+public class AnimatedSprite extends BufferedImage {
+
+    // GIF frame delays are in 1/100 s; 0 or 1 means "as fast as possible", which
+    // browsers and most viewers show as 1/10 s
+    private static final int MIN_DELAY_CENTISECONDS = 2;
+    private static final int DEFAULT_DELAY_CENTISECONDS = 10;
+
+    private final Image[] frames;
+    private final long[] frameEnds;  // Tick at which each frame ends, counted from the start of a loop
+    private final long period;       // Ticks in one loop of the animation
+
+    private AnimatedSprite(BufferedImage[] frames, long[] frameEnds, long period) {
+        super(frames[0].getColorModel(), frames[0].getRaster(), frames[0].isAlphaPremultiplied(), null);
+        this.frames = frames;
+        this.frameEnds = frameEnds;
+        this.period = period;
+    }
+
+    private AnimatedSprite(BufferedImage[] frames, long[] delayTicks) {
+        super(frames[0].getColorModel(), frames[0].getRaster(), frames[0].isAlphaPremultiplied(), null);
+        this.frames = frames;
+        this.frameEnds = new long[frames.length];
+        long end = 0;
+        for (int i = 0; i < frames.length; i++) {
+            end += delayTicks[i];
+            this.frameEnds[i] = end;
+        }
+        this.period = end;
+    }
+
+    /**
+     * @return The number of frames.
+     */
+    public int getFrameCount() {
+        return this.frames.length;
+    }
+
+    /**
+     * @param i A frame index.
+     * @return The frame.
+     */
+    public Image getFrame(int i) {
+        return this.frames[i];
+    }
+
+    /**
+     * Returns an animation with the same timing as this one but other frames, e.g. the same
+     * frames at another scale.
+     *
+     * @param frames One image for each frame of this animation.
+     * @return The new animation.
+     */
+    public AnimatedSprite withFrames(BufferedImage[] frames) {
+        return new AnimatedSprite(frames, this.frameEnds, this.period);
+    }
+
+    /**
+     * Returns the frame to show after the animation has run for the given number of ticks.
+     * The animation loops forever.
+     *
+     * @param ticks Ticks since the animation started.
+     * @return The frame.
+     */
+    public Image frameAt(long ticks) {
+        long t = Math.floorMod(ticks, this.period);
+        int i = 0;
+        while (this.frameEnds[i] <= t) {
+            i++;
+        }
+        return this.frames[i];
+    }
+
+    /**
+     * Returns the frame of a sprite that may or may not be animated.
+     *
+     * @param sprite An image, possibly an AnimatedSprite, possibly null.
+     * @param ticks Ticks since the animation started.
+     * @return The frame to draw.
+     */
+    public static Image frameOf(Image sprite, long ticks) {
+        return (sprite instanceof AnimatedSprite) ? ((AnimatedSprite) sprite).frameAt(ticks) : sprite;
+    }
+
+    /**
+     * Decodes every frame of a GIF file. Frames are composed the way a viewer shows them
+     * (each frame drawn at its offset over the previous ones, honouring the disposal
+     * method) and copied into images compatible with the screen.
+     *
+     * @param path The GIF file.
+     * @return The animation, or the only frame if the file is not animated, or null if the
+     *         file cannot be read.
+     */
+    static Image read(String path) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new File(path))) {
+            if (in == null) {
+                return null;
+            }
+            ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+            try {
+                reader.setInput(in, false);
+                return compose(reader);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot read " + path);
+            return null;
+        }
+    }
+
+    private static Image compose(ImageReader reader) throws IOException {
+        int count = reader.getNumImages(true);
+        if (count == 0) {
+            return null;
+        }
+        int width = 0;
+        int height = 0;
+        Node screen = child(reader.getStreamMetadata(), "javax_imageio_gif_stream_1.0", "LogicalScreenDescriptor");
+        if (screen != null) {
+            width = intAttribute(screen, "logicalScreenWidth", 0);
+            height = intAttribute(screen, "logicalScreenHeight", 0);
+        }
+        if (width <= 0 || height <= 0) {
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+        }
+
+        BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        List<BufferedImage> frames = new ArrayList<>(count);
+        long[] delays = new long[count];
+        String previousDisposal = "none";
+        int[] previousArea = null;
+        BufferedImage restore = null;
+
+        for (int i = 0; i < count; i++) {
+            IIOMetadata metadata = reader.getImageMetadata(i);
+            Node descriptor = child(metadata, "javax_imageio_gif_image_1.0", "ImageDescriptor");
+            Node control = child(metadata, "javax_imageio_gif_image_1.0", "GraphicControlExtension");
+            int left = intAttribute(descriptor, "imageLeftPosition", 0);
+            int top = intAttribute(descriptor, "imageTopPosition", 0);
+            String disposal = (control != null) ? attribute(control, "disposalMethod", "none") : "none";
+            int delay = intAttribute(control, "delayTime", DEFAULT_DELAY_CENTISECONDS);
+
+            // Undo the previous frame as its disposal method asks
+            if ("restoreToBackgroundColor".equals(previousDisposal) && previousArea != null) {
+                Graphics2D g = canvas.createGraphics();
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(previousArea[0], previousArea[1], previousArea[2], previousArea[3]);
+                g.dispose();
+            } else if ("restoreToPrevious".equals(previousDisposal) && restore != null) {
+                canvas = restore;
+            }
+            restore = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+
+            BufferedImage image = reader.read(i);
+            Graphics2D g = canvas.createGraphics();
+            g.drawImage(image, left, top, null);
+            g.dispose();
+
+            frames.add(SpriteRegistry.toCompatible(canvas));
+            delays[i] = TimerWheel.ticksFor(10L * ((delay < MIN_DELAY_CENTISECONDS) ? DEFAULT_DELAY_CENTISECONDS : delay));
+            previousDisposal = disposal;
+            previousArea = new int[] {left, top, image.getWidth(), image.getHeight()};
+        }
+
+        if (frames.size() == 1) {
+            return frames.get(0);
+        }
+        return new AnimatedSprite(frames.toArray(new BufferedImage[0]), delays);
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    private static Node child(IIOMetadata metadata, String format, String name) {
+        if (metadata == null) {
+            return null;
+        }
+        for (Node n = metadata.getAsTree(format).getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeName().equals(name)) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private static String attribute(Node node, String name, String fallback) {
+        Node attribute = (node != null) ? node.getAttributes().getNamedItem(name) : null;
+        return (attribute != null) ? attribute.getNodeValue() : fallback;
+    }
+
+    private static int intAttribute(Node node, String name, int fallback) {
+        try {
+            return Integer.parseInt(attribute(node, name, String.valueOf(fallback)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
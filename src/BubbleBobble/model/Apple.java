@@ -1,11 +1,5 @@
 package BubbleBobble.model;
 
-import BubbleBobble.view.GameView;
-
-import javax.swing.*;
-import java.util.Timer;
-import java.util.TimerTask;
-
 /**
  * Represents an Apple object in the game, which can be collected by the hero to gain an extra life.
  * The Apple falls from a certain height and becomes collectible after a short grace period.
@@ -31,16 +25,11 @@ public class Apple extends Collidable {
     public Apple(Level level, int x, int y, int width, int height) {
         super(level, x, y, width, height);
         this.heroCanTouch = false;  // Initially, the hero cannot touch the apple
-        this.sprite = (new ImageIcon("sprites/apple.png")).getImage(); // Set the apple's image
+        this.sprite = SpriteRegistry.get("sprites/apple.png"); // Set the apple's image
 
-        java.util.Timer timer = new java.util.Timer();
         // Allow grace period for fruit to fall before colliding with hero
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Apple.this.heroCanTouch = true;  // Make the apple collectible after 500ms
-            }
-        }, 500);  // 500ms grace period before the apple is collectible
+        this.level.timers.schedule(() -> this.heroCanTouch = true,
+                TimerWheel.ticksFor(500));  // 500ms grace period before the apple is collectible
     }
 
     /**
@@ -49,8 +38,8 @@ public class Apple extends Collidable {
      */
     @Override
     public void updatePosition() {
-        this.vy = 0;                     // Stop the vertical speed
-        this.isFalling = false;          // Mark the apple as not falling anymore
+        this.setVy(0);                   // Stop the vertical speed
+        this.setFalling(false);          // Mark the apple as not falling anymore
     }
 
     /**
@@ -79,10 +68,10 @@ public class Apple extends Collidable {
         if (this.heroCanTouch) {
             // Only increase the score if the level is playable
             if (this.level.isPlayable()) {
-                if (this.level.overlapping(this, this.level.hero1)) {  // Check if the apple overlaps with the hero
+                if (this.intersects(this.level.hero1)) {  // Check if the apple overlaps with the hero
                     this.level.hero1.lives += 1;  // Increase the hero's lives by 1
                 }
-                GameView.showMessage("eat Apple add 1 life");  // Show a message when the apple is collected
+                this.level.showMessage("eat Apple add 1 life");  // Show a message when the apple is collected
             }
             this.die();  // Call the die method to remove the apple from the game
         }
@@ -1,11 +1,6 @@
 package BubbleBobble.model;
 
-import BubbleBobble.view.GameView;
-
-import javax.swing.*;
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Represents a Banana object in the game, which can be collected by the hero to gain points.
@@ -32,16 +27,11 @@ public class Banana extends Collidable {
     public Banana(Level level, int x, int y, int width, int height) {
         super(level, x, y, width, height);
         this.heroCanTouch = false;  // Initially, the hero cannot touch the banana
-        this.sprite = (new ImageIcon("sprites/fruit_bubble.png")).getImage();  // Set the banana's image
+        this.sprite = SpriteRegistry.get("sprites/fruit_bubble.png");  // Set the banana's image
 
-        java.util.Timer timer = new java.util.Timer();
         // Allow grace period for fruit to fall before colliding with hero
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Banana.this.heroCanTouch = true;  // Make the banana collectible after 500ms
-            }
-        }, 500);  // 500ms grace period before the banana is collectible
+        this.level.timers.schedule(() -> this.heroCanTouch = true,
+                TimerWheel.ticksFor(500));  // 500ms grace period before the banana is collectible
     }
 
     /**
@@ -50,8 +40,8 @@ public class Banana extends Collidable {
      */
     @Override
     public void updatePosition() {
-        this.vy = 0;                     // Stop the vertical speed
-        this.isFalling = false;          // Mark the banana as not falling anymore
+        this.setVy(0);                   // Stop the vertical speed
+        this.setFalling(false);          // Mark the banana as not falling anymore
     }
 
     /**
@@ -79,10 +69,10 @@ public class Banana extends Collidable {
     public void collideWithHero() {
         if (this.heroCanTouch) {
             if (this.level.isPlayable()) {
-                if (this.level.overlapping(this, this.level.hero1)) {  // Check if the banana overlaps with the hero
+                if (this.intersects(this.level.hero1)) {  // Check if the banana overlaps with the hero
                     this.level.score += 300;  // Increase the score by 300 points
                     // Display a message indicating the banana was eaten
-                    SwingUtilities.invokeLater(() -> GameView.showMessage("eat Banana add 300 point"));
+                    this.level.showMessage("eat Banana add 300 point");
                 }
             }
             this.die();  // Call the die method to remove the banana from the game
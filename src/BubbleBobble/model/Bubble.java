@@ -2,10 +2,6 @@ package BubbleBobble.model;
 
 import java.awt.Color;
 import java.awt.Image;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.swing.ImageIcon;
 
 /**
  * Represents a Bubble shot by the hero. The bubble can trap monsters upon contact
@@ -24,6 +20,10 @@ public class Bubble extends Projectile {
     /** A flag indicating whether the bubble has generated fruit. */
     boolean hasFruit = false;
 
+    /** Timeouts for spawning fruit and popping, reused every time the bubble is shot. */
+    private final TimerWheel.Timeout fruitTimeout;
+    private final TimerWheel.Timeout popTimeout;
+
     /**
      * Constructs a new Bubble at the specified position and direction.
      * 
@@ -37,10 +37,40 @@ public class Bubble extends Projectile {
         this.color = Color.CYAN;  // Set the bubble's color
         this.scoreValue = 10;     // Set the score value when the bubble is collected
         this.sprites = new Image[3]; // Initialize the array of sprites for different states of the bubble
-        this.sprites[0] = (new ImageIcon("sprites/bubble.gif")).getImage();  // Default sprite
-        this.sprites[1] = (new ImageIcon("sprites/bubble6.png")).getImage();  // Sprite when the bubble is rising
-        this.sprites[2] = (new ImageIcon("sprites/fruit_bubble.png")).getImage();  // Sprite when the bubble has fruit
+        this.sprites[0] = SpriteRegistry.get("sprites/bubble.gif");  // Default sprite
+        this.sprites[1] = SpriteRegistry.get("sprites/bubble6.png");  // Sprite when the bubble is rising
+        this.sprites[2] = SpriteRegistry.get("sprites/fruit_bubble.png");  // Sprite when the bubble has fruit
         this.sprite = this.sprites[0];  // Set the initial sprite
+        this.fruitTimeout = level.timers.newTimeout(() -> {
+            this.hasFruit = true;  // Mark that the bubble now has fruit
+            this.sprite = this.sprites[2];  // Change sprite to fruit bubble
+        });
+        this.popTimeout = level.timers.newTimeout(this::die);
+    }
+
+    /**
+     * Resets a pooled bubble so it can be shot again.
+     * 
+     * @param x The x-coordinate of the bubble's position.
+     * @param y The y-coordinate of the bubble's position.
+     * @param dir The direction in which the bubble will be shot.
+     */
+    @Override
+    protected void reset(int x, int y, int dir) {
+        super.reset(x, y, dir);
+        this.onRemoved();
+        this.reachedTop = false;
+        this.hasFruit = false;
+        this.sprite = this.sprites[0];
+    }
+
+    /**
+     * Cancels the fruit and pop timeouts of a bubble that has left the level.
+     */
+    @Override
+    public void onRemoved() {
+        this.level.timers.cancel(this.fruitTimeout);
+        this.level.timers.cancel(this.popTimeout);
     }
 
     /**
@@ -52,31 +82,19 @@ public class Bubble extends Projectile {
     @Override
     public void updatePosition() {
         super.updatePosition(); // Call the superclass's updatePosition method to update position
-        if (this.dx == 0 && !this.reachedTop) {
+        if (this.getVx() == 0 && !this.reachedTop) {
             this.dy = -DX;  // Start moving upwards
             this.sprite = this.sprites[1];  // Change sprite to rising bubble
         }
-        if (this.positionY <= 0 && !this.reachedTop) {  // If the bubble reaches the top
+        if (this.getY() <= 0 && !this.reachedTop) {  // If the bubble reaches the top
             this.reachedTop = true;  // Mark as reached top
             this.dy = 0;  // Stop vertical movement
 
-            // Start a timer to spawn fruit after 5 seconds
-            Timer timer = new Timer();
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    Bubble.this.hasFruit = true;  // Mark that the bubble now has fruit
-                    Bubble.this.sprite = Bubble.this.sprites[2];  // Change sprite to fruit bubble
-                }
-            }, 5000);  // 5000 ms delay before fruit is spawned
+            // Spawn fruit after 5 seconds
+            this.level.timers.schedule(this.fruitTimeout, TimerWheel.ticksFor(5000));  // 5000 ms delay before fruit is spawned
 
-            // Start a timer to pop the bubble after 8 seconds
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    Bubble.this.die();  // Pop the bubble after 8000 ms
-                }
-            }, 8000);  // 8000 ms delay before bubble pops
+            // Pop the bubble after 8 seconds
+            this.level.timers.schedule(this.popTimeout, TimerWheel.ticksFor(8000));  // 8000 ms delay before bubble pops
         }
     }
 
@@ -97,10 +115,10 @@ public class Bubble extends Projectile {
     public void collideWithHero() {
         if (this.hasFruit) {
             this.die();  // Remove the bubble from the game
-            int x = this.positionX;  // Get the bubble's position
-            int y = this.positionY;
+            int x = this.getX();  // Get the bubble's position
+            int y = this.getY();
             // Spawn fruit at the bubble's position
-            this.level.addCollidable(new Fruit(this.level, x, y, SIZE, SIZE, this.scoreValue));
+            this.level.spawnFruit(x, y, SIZE, SIZE, this.scoreValue);
         } else {
             this.die();  // Simply remove the bubble if it does not have fruit
         }
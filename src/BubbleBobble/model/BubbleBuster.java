@@ -1,7 +1,6 @@
 package BubbleBobble.model;
 
 import java.awt.Color;
-import javax.swing.ImageIcon;
 
 /**
  * The BubbleBuster is the most basic type of monster in the game. 
@@ -28,11 +27,11 @@ public class BubbleBuster extends Monster {
         this.color = Color.MAGENTA;  // Set the monster's color to magenta
         this.scoreValue = 500;       // Set the score value when the monster is defeated
         // Set the sprite images for the monster's different directions and states
-        this.sprites[0] = (new ImageIcon("sprites/bubble_buster_left.gif")).getImage();
-        this.sprites[1] = (new ImageIcon("sprites/bubble_buster_right.gif")).getImage();
-        this.sprites[2] = (new ImageIcon("sprites/bubble_buster_bubble.gif")).getImage();
+        this.sprites[0] = SpriteRegistry.get("sprites/bubble_buster_left.gif");
+        this.sprites[1] = SpriteRegistry.get("sprites/bubble_buster_right.gif");
+        this.sprites[2] = SpriteRegistry.get("sprites/bubble_buster_bubble.gif");
         // Set the initial sprite based on the direction the monster is facing
-        this.sprite = (this.direction == 1) ? this.sprites[1] : this.sprites[0];
+        this.sprite = (this.getDirection() == 1) ? this.sprites[1] : this.sprites[0];
     }
 
     /**
@@ -0,0 +1,91 @@
+package BubbleBobble.model;
+
+/**
+ * Camera is the part of a level that is on screen: a window the size of the playfield
+ * (NUM_TILES x NUM_TILES tiles) that follows the hero through levels bigger than that and
+ * stops at the level's edges. In a level of the playfield's size it never moves.
+ *
+ * The level moves the camera once per tick, after everything else has moved, and
+ * remembers where it was before so the renderer can scroll smoothly between ticks like it
+ * moves the sprites. The level's chunks (see LevelChunks) are activated around it.
+ */
+public class Camera {
+
+    public final int width;   // Size of the window in level pixels
+    public final int height;
+    public int worldWidth;    // Size of the level in pixels
+    public int worldHeight;
+    public int x = 0;         // Top left corner of the window
+    public int y = 0;
+    public int previousX = 0;  // Where it was at the end of the previous tick
+    public int previousY = 0;
+    private boolean placed = false;
+
+    /**
+     * Creates a camera for a level of its own size.
+     *
+     * @param width The width of the window.
+     * @param height The height of the window.
+     */
+    public Camera(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.worldWidth = width;
+        this.worldHeight = height;
+    }
+
+    /**
+     * @param worldWidth The width of the level in pixels.
+     * @param worldHeight The height of the level in pixels.
+     */
+    public void setWorld(int worldWidth, int worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * @return true if the level is bigger than the window, so the camera can move.
+     */
+    public boolean scrolls() {
+        return this.worldWidth > this.width || this.worldHeight > this.height;
+    }
+
+    /**
+     * Centres the window on an object as far as the level's edges allow. The first time it
+     * jumps there instead of scrolling from the corner.
+     *
+     * @param target The object to follow, or null to stay.
+     */
+    public void follow(Collidable target) {
+        this.previousX = this.x;
+        this.previousY = this.y;
+        if (target == null) {
+            return;
+        }
+        this.x = clamp(target.getX() + target.getWidth() / 2 - this.width / 2, this.worldWidth - this.width);
+        this.y = clamp(target.getY() + target.getHeight() / 2 - this.height / 2, this.worldHeight - this.height);
+        if (!this.placed) {
+            this.previousX = this.x;
+            this.previousY = this.y;
+            this.placed = true;
+        }
+    }
+
+    /**
+     * @return The X-coordinate of the centre of the window.
+     */
+    public int centerX() {
+        return this.x + this.width / 2;
+    }
+
+    /**
+     * @return The Y-coordinate of the centre of the window.
+     */
+    public int centerY() {
+        return this.y + this.height / 2;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, Math.max(0, max)));
+    }
+}
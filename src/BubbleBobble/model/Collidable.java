@@ -10,6 +10,10 @@ import java.awt.geom.Rectangle2D;
  * The Collidable class is the superclass for all "collidable" objects in the game. Collidables are affected by
  * gravity and store information about their location, graphics, and current state. Collidables can move around
  * on screen and collide with each other.
+ *
+ * While a collidable is in its level, its position, size, velocity and state flags are a row of the level's
+ * EntityStore, and the object is a view of that row: getX(), setX() and the other accessors read and write
+ * the store's arrays, and the object itself keeps the game behaviour and the rest of its state.
  */
 public abstract class Collidable {
 	
@@ -20,28 +24,47 @@ public abstract class Collidable {
 	public static final double JUMP_VELOCITY = -100;
 	public static final int DX = 1;
 	public static final int SIZE = 35;
+
+	// Sides touched in a platform collision, see platformContacts()
+	public static final int TOUCH_TOP = 1;
+	public static final int TOUCH_RIGHT = 2;
+	public static final int TOUCH_LEFT = 4;
 	
 	// Instance variables for use by character-like objects (e.g., Hero, BubbleBuster)
-    public double vy = 0; // Vertical velocity
-    public int direction = 1; // Direction of movement (-1 = left, 1 = right)
     public double currentDistance = 0; // Tracks distance traveled for enemies
-    public boolean isJumping = false; // Flag indicating if the object is jumping
-    public boolean isFalling = true; // Flag indicating if the object is falling
-    public boolean isCollidingLeft = false; // Flag indicating collision on the left side
-    public boolean isCollidingRight = false; // Flag indicating collision on the right side
 
     // Instance variables for all Collidable objects
     public Level level; // The level the object belongs to
     public Image sprite; // The image representing the object
     public Image sprites[]; // Array of sprite images for the object
-    public int positionX; // X-coordinate of the object's position
-    public int positionY; // Y-coordinate of the object's position
-    public int width; // Width of the object
-    public int height; // Height of the object
     public Color color; // Color of the object
     public int scoreValue; // Score value awarded when the object is interacted with
-    public boolean isPaused = false; // Flag indicating if the object is paused
-    public boolean isAlive = true; // Flag indicating if the object is alive
+    public long animationTicks = 0; // Ticks the object has been animated for; stops while paused
+
+    public int entityId = -1; // Generational handle in the level's EntityStore, -1 while not in the level
+    public boolean isRemoved = false; // Set once die() has queued the object for removal
+
+    // Bookkeeping for O(1) removal from the level's EntityLists
+    int levelListIndex = -1; // Index in Level.collidables
+    int typeListIndex = -1; // Index in typeList
+    EntityList<?> typeList; // The level's list for this type (monsters, bubbles...), if any
+
+    // Position, size, velocity and flags live in the level's EntityStore while the object is in it,
+    // in this row; the accessors below (getX(), setX()...) go there
+    EntityStore store; // The store holding the object's row, null while not in the level
+    int row = -1; // The object's dense row in the store
+
+    // The same state while the object is not in a store (not added yet, removed, pooled)
+    private int detachedX;
+    private int detachedY;
+    private int detachedPreviousX;
+    private int detachedPreviousY;
+    private int detachedWidth;
+    private int detachedHeight;
+    private double detachedVx;
+    private double detachedVy;
+    private int detachedDirection = 1; // -1 = left, 1 = right
+    private int detachedFlags = EntityStore.FLAG_ALIVE | EntityStore.FLAG_FALLING;
 
     /**
      * Constructs a new Collidable object with the specified level, position, and size.
@@ -54,11 +77,245 @@ public abstract class Collidable {
      */
     public Collidable(Level level, int x, int y, int width, int height) {
         this.level = level;
-        this.positionX = x;
-        this.positionY = y;
-        this.width = width;
-        this.height = height;
+        this.detachedX = x;
+        this.detachedY = y;
+        this.detachedPreviousX = x;
+        this.detachedPreviousY = y;
+        this.detachedWidth = width;
+        this.detachedHeight = height;
     }
+
+	/**
+	 * 
+	 * Moves the object's state into a row of the store. Called by EntityStore.add().
+	 *
+	 * @param store is the store the object is added to
+	 * @param row is the object's new row
+	 */
+	void attach(EntityStore store, int row) {
+		store.x[row] = this.detachedX;
+		store.y[row] = this.detachedY;
+		store.previousX[row] = this.detachedPreviousX;
+		store.previousY[row] = this.detachedPreviousY;
+		store.width[row] = this.detachedWidth;
+		store.height[row] = this.detachedHeight;
+		store.vx[row] = this.detachedVx;
+		store.vy[row] = this.detachedVy;
+		store.direction[row] = this.detachedDirection;
+		store.flags[row] = this.detachedFlags;
+		this.store = store;
+		this.row = row;
+	}
+
+	/**
+	 * 
+	 * Moves the object's state out of its row, so it keeps it once it has left the store.
+	 * Called by EntityStore.remove().
+	 */
+	void detach() {
+		EntityStore s = this.store;
+		int r = this.row;
+		this.detachedX = s.x[r];
+		this.detachedY = s.y[r];
+		this.detachedPreviousX = s.previousX[r];
+		this.detachedPreviousY = s.previousY[r];
+		this.detachedWidth = s.width[r];
+		this.detachedHeight = s.height[r];
+		this.detachedVx = s.vx[r];
+		this.detachedVy = s.vy[r];
+		this.detachedDirection = s.direction[r];
+		this.detachedFlags = s.flags[r];
+		this.store = null;
+		this.row = -1;
+	}
+
+	/**
+	 * @return the X-coordinate of the object's position
+	 */
+	public int getX() {
+		return (this.row >= 0) ? this.store.x[this.row] : this.detachedX;
+	}
+
+	public void setX(int x) {
+		if (this.row >= 0) {
+			this.store.x[this.row] = x;
+		} else {
+			this.detachedX = x;
+		}
+	}
+
+	/**
+	 * @return the Y-coordinate of the object's position
+	 */
+	public int getY() {
+		return (this.row >= 0) ? this.store.y[this.row] : this.detachedY;
+	}
+
+	public void setY(int y) {
+		if (this.row >= 0) {
+			this.store.y[this.row] = y;
+		} else {
+			this.detachedY = y;
+		}
+	}
+
+	/**
+	 * @return the X-coordinate at the start of the current tick
+	 */
+	public int getPreviousX() {
+		return (this.row >= 0) ? this.store.previousX[this.row] : this.detachedPreviousX;
+	}
+
+	/**
+	 * @return the Y-coordinate at the start of the current tick
+	 */
+	public int getPreviousY() {
+		return (this.row >= 0) ? this.store.previousY[this.row] : this.detachedPreviousY;
+	}
+
+	/**
+	 * @return the width of the object
+	 */
+	public int getWidth() {
+		return (this.row >= 0) ? this.store.width[this.row] : this.detachedWidth;
+	}
+
+	public void setWidth(int width) {
+		if (this.row >= 0) {
+			this.store.width[this.row] = width;
+		} else {
+			this.detachedWidth = width;
+		}
+	}
+
+	/**
+	 * @return the height of the object
+	 */
+	public int getHeight() {
+		return (this.row >= 0) ? this.store.height[this.row] : this.detachedHeight;
+	}
+
+	public void setHeight(int height) {
+		if (this.row >= 0) {
+			this.store.height[this.row] = height;
+		} else {
+			this.detachedHeight = height;
+		}
+	}
+
+	/**
+	 * @return the horizontal speed of a projectile, per tick
+	 */
+	public double getVx() {
+		return (this.row >= 0) ? this.store.vx[this.row] : this.detachedVx;
+	}
+
+	public void setVx(double vx) {
+		if (this.row >= 0) {
+			this.store.vx[this.row] = vx;
+		} else {
+			this.detachedVx = vx;
+		}
+	}
+
+	/**
+	 * @return the vertical velocity
+	 */
+	public double getVy() {
+		return (this.row >= 0) ? this.store.vy[this.row] : this.detachedVy;
+	}
+
+	public void setVy(double vy) {
+		if (this.row >= 0) {
+			this.store.vy[this.row] = vy;
+		} else {
+			this.detachedVy = vy;
+		}
+	}
+
+	/**
+	 * @return the direction of movement (-1 = left, 1 = right)
+	 */
+	public int getDirection() {
+		return (this.row >= 0) ? this.store.direction[this.row] : this.detachedDirection;
+	}
+
+	public void setDirection(int direction) {
+		if (this.row >= 0) {
+			this.store.direction[this.row] = direction;
+		} else {
+			this.detachedDirection = direction;
+		}
+	}
+
+	public boolean isAlive() {
+		return this.hasFlag(EntityStore.FLAG_ALIVE);
+	}
+
+	public void setAlive(boolean alive) {
+		this.setFlag(EntityStore.FLAG_ALIVE, alive);
+	}
+
+	public boolean isPaused() {
+		return this.hasFlag(EntityStore.FLAG_PAUSED);
+	}
+
+	public void setPaused(boolean paused) {
+		this.setFlag(EntityStore.FLAG_PAUSED, paused);
+	}
+
+	public boolean isFalling() {
+		return this.hasFlag(EntityStore.FLAG_FALLING);
+	}
+
+	public void setFalling(boolean falling) {
+		this.setFlag(EntityStore.FLAG_FALLING, falling);
+	}
+
+	public boolean isJumping() {
+		return this.hasFlag(EntityStore.FLAG_JUMPING);
+	}
+
+	public void setJumping(boolean jumping) {
+		this.setFlag(EntityStore.FLAG_JUMPING, jumping);
+	}
+
+	/**
+	 * @return true if a platform was touched on the left side
+	 */
+	public boolean isCollidingLeft() {
+		return this.hasFlag(EntityStore.FLAG_COLLIDING_LEFT);
+	}
+
+	public void setCollidingLeft(boolean colliding) {
+		this.setFlag(EntityStore.FLAG_COLLIDING_LEFT, colliding);
+	}
+
+	/**
+	 * @return true if a platform was touched on the right side
+	 */
+	public boolean isCollidingRight() {
+		return this.hasFlag(EntityStore.FLAG_COLLIDING_RIGHT);
+	}
+
+	public void setCollidingRight(boolean colliding) {
+		this.setFlag(EntityStore.FLAG_COLLIDING_RIGHT, colliding);
+	}
+
+	private boolean hasFlag(int flag) {
+		int flags = (this.row >= 0) ? this.store.flags[this.row] : this.detachedFlags;
+		return (flags & flag) != 0;
+	}
+
+	private void setFlag(int flag, boolean on) {
+		int flags = (this.row >= 0) ? this.store.flags[this.row] : this.detachedFlags;
+		flags = on ? (flags | flag) : (flags & ~flag);
+		if (this.row >= 0) {
+			this.store.flags[this.row] = flags;
+		} else {
+			this.detachedFlags = flags;
+		}
+	}
 	
 	/**
 	 * 
@@ -67,18 +324,180 @@ public abstract class Collidable {
 	 * @param g is graphics object
 	 */
 	public void draw(Graphics2D g) {
-		g.drawImage(this.sprite, this.positionX, this.positionY, null);
+		g.drawImage(this.currentFrame(), this.getX(), this.getY(), null);
+	}
+
+	/**
+	 * 
+	 * Returns the image to draw for the current tick: the sprite itself, or the frame
+	 * of an animated sprite the object's animation has reached.
+	 *
+	 * @return the image to draw
+	 */
+	public Image currentFrame() {
+		return AnimatedSprite.frameOf(this.sprite, this.animationTicks);
+	}
+
+	/**
+	 * 
+	 * Draws the collidable between its previous and current position. An alpha of 0 draws it where
+	 * it was at the start of the last tick, an alpha of 1 where it is now.
+	 *
+	 * @param g is graphics object
+	 * @param alpha is interpolation factor in [0, 1]
+	 */
+	public void draw(Graphics2D g, double alpha) {
+		int x = (int) Math.round(this.getPreviousX() + (this.getX() - this.getPreviousX()) * alpha);
+		int y = (int) Math.round(this.getPreviousY() + (this.getY() - this.getPreviousY()) * alpha);
+		g.drawImage(this.currentFrame(), x, y, null);
+	}
+
+	/**
+	 * Records the current position as the starting point of the next tick. The level does
+	 * this for all of its objects at once with EntityStore.savePreviousPositions().
+	 */
+	public void savePreviousPosition() {
+		if (this.row >= 0) {
+			this.store.previousX[this.row] = this.store.x[this.row];
+			this.store.previousY[this.row] = this.store.y[this.row];
+		} else {
+			this.detachedPreviousX = this.detachedX;
+			this.detachedPreviousY = this.detachedY;
+		}
 	}
 	
-	// Mainly for use in the design phase (as well as object colors)
+	/**
+	 * 
+	 * Applies one tick of gravity: the object counts as falling unless its vertical speed is
+	 * negligible, gravity speeds it up, and it moves down by its new speed. Used by character-like
+	 * collidables and fruit in updatePosition().
+	 */
+	protected void fall() {
+		if (this.row >= 0) {
+			this.store.fall(this.row);
+		} else {
+			double vy = this.getVy();
+			this.setFalling(!(vy < 1));
+			vy = vy + GRAVITY * DT;
+			this.setVy(vy);
+			this.setY((int) (this.getY() + vy * DT));
+		}
+	}
+
+	/**
+	 * 
+	 * Puts the collidable back into the state it had right after construction, at the given position.
+	 * Used when a pooled object is handed out again; subclasses reset their own fields on top of this.
+	 *
+	 * @param x is the new X-coordinate
+	 * @param y is the new Y-coordinate
+	 * @param width is the new width
+	 * @param height is the new height
+	 */
+	protected void resetState(int x, int y, int width, int height) {
+		this.setX(x);
+		this.setY(y);
+		this.savePreviousPosition();
+		this.setWidth(width);
+		this.setHeight(height);
+		this.setVx(0);
+		this.setVy(0);
+		this.setDirection(1);
+		this.currentDistance = 0;
+		this.setJumping(false);
+		this.setFalling(true);
+		this.setCollidingLeft(false);
+		this.setCollidingRight(false);
+		this.setPaused(false);
+		this.animationTicks = 0;
+		this.setAlive(true);
+		this.isRemoved = false;
+	}
+
+	/**
+	 * 
+	 * Called by the level once the collidable has been taken out of it. Collidables with pending timeouts
+	 * cancel them here, so nothing fires on an object that has been recycled.
+	 */
+	public void onRemoved() {
+		// Nothing pending by default
+	}
+	
+	/**
+	 * @return the X-coordinate of the left edge of the bounding box
+	 */
+	public int left() {
+		return this.getX();
+	}
+
+	/**
+	 * @return the X-coordinate just past the right edge of the bounding box
+	 */
+	public int right() {
+		return this.getX() + this.getWidth();
+	}
+
+	/**
+	 * @return the Y-coordinate of the top edge of the bounding box
+	 */
+	public int top() {
+		return this.getY();
+	}
+
+	/**
+	 * @return the Y-coordinate just past the bottom edge of the bounding box
+	 */
+	public int bottom() {
+		return this.getY() + this.getHeight();
+	}
+
+	/**
+	 * 
+	 * Tests whether the bounding box of this collidable overlaps the given box. Edges are open and empty
+	 * boxes never overlap, exactly like Rectangle2D.intersects(), but nothing is allocated.
+	 *
+	 * @param x is the left edge of the other box
+	 * @param y is the top edge of the other box
+	 * @param w is the width of the other box
+	 * @param h is the height of the other box
+	 * @return true if the boxes overlap
+	 */
+	public boolean intersects(int x, int y, int w, int h) {
+		int left = this.getX();
+		int top = this.getY();
+		int width = this.getWidth();
+		int height = this.getHeight();
+		if (width <= 0 || height <= 0 || w <= 0 || h <= 0) {
+			return false;
+		}
+		return x + w > left && y + h > top && x < left + width && y < top + height;
+	}
+
+	/**
+	 * 
+	 * Tests whether the bounding boxes of this collidable and another one overlap.
+	 *
+	 * @param other is the other collidable
+	 * @return true if the boxes overlap
+	 * @see #intersects(int, int, int, int)
+	 */
+	public boolean intersects(Collidable other) {
+		return this.intersects(other.getX(), other.getY(), other.getWidth(), other.getHeight());
+	}
+
+	// Mainly for use in the design phase (as well as object colors). Allocates; use intersects() for collision checks
 	public Rectangle2D getShape() {
-		return new Rectangle2D.Double(this.positionX, this.positionY, this.width, this.height);
+		return new Rectangle2D.Double(this.getX(), this.getY(), this.getWidth(), this.getHeight());
 	}
 	
 	public void changePause() {
-		this.isPaused = !this.isPaused;
+		this.setPaused(!this.isPaused());
 	}
 	
+	/**
+	 * 
+	 * Removes the collidable from the level at the end of the tick. Calling it again before then does nothing.
+	 */
 	public void die(){
 		this.level.removeCollidable(this);
 	}
@@ -91,29 +510,107 @@ public abstract class Collidable {
 	 * @param p is Platform object
 	 */
 	public void collideWithPlatform(Platform p) {
-		double bottomY = this.positionY + this.height;
-		double rightX = this.positionX + this.width;
+		this.applyPlatformContacts(this.platformContacts(p));
+		this.respondToPlatformCollision();
+	}
+
+	/**
+	 * 
+	 * Same checks as collideWithPlatform(), but against the level's precompiled tile map instead of a
+	 * single platform, so the cost does not depend on how many platforms the level has. The response
+	 * runs once per tick, however many platforms are touched.
+	 *
+	 * @param tiles is the level's TileMap
+	 */
+	public void collideWithTiles(TileMap tiles) {
+		this.applyTileContacts(this.tileContacts(tiles));
+	}
+
+	/**
+	 * 
+	 * Reacts to the sides found by tileContacts(), like collideWithTiles() does. The level calls this
+	 * directly when it has worked out the contacts from its EntityStore rows.
+	 *
+	 * @param contacts is a combination of TOUCH_TOP, TOUCH_RIGHT and TOUCH_LEFT
+	 */
+	void applyTileContacts(int contacts) {
+		if (contacts != 0) {
+			this.applyPlatformContacts(contacts);
+			this.respondToPlatformCollision();
+		}
+	}
+
+	/**
+	 * 
+	 * Works out which sides of this collidable touch the given (overlapping) platform, without changing
+	 * any state.
+	 *
+	 * @param p is Platform object
+	 * @return a combination of TOUCH_TOP, TOUCH_RIGHT and TOUCH_LEFT
+	 */
+	public int platformContacts(Platform p) {
+		int bottomY = this.bottom();
+		int rightX = this.right();
+		int contacts = 0;
 		
-		if(this.isAlive) {
+		if(this.isAlive()) {
 			
 			//top collision
-			if (((bottomY < (p.positionY + PRECISION)) && (bottomY > p.positionY) && this.isFalling)) {
-				this.vy = 0;
-				this.isJumping = false;
+			if (((bottomY < (p.top() + PRECISION)) && (bottomY > p.top()) && this.isFalling())) {
+				contacts |= TOUCH_TOP;
 			}
 			
 			//right collision
-			if (rightX > p.positionX && rightX < (p.positionX + PRECISION) && !(this.positionY < p.positionY)) {
-				this.isCollidingRight = true;
+			if (rightX > p.left() && rightX < (p.left() + PRECISION) && !(this.top() < p.top())) {
+				contacts |= TOUCH_RIGHT;
 			}
 			
 			//left collision
-			if (this.positionX < (p.positionX + p.width) && this.positionX > (p.positionX + p.width - PRECISION)
-					&& !(this.positionY < p.positionY)) {
-				this.isCollidingLeft = true;
+			if (this.left() < p.right() && this.left() > (p.right() - PRECISION)
+					&& !(this.top() < p.top())) {
+				contacts |= TOUCH_LEFT;
 			}
 		}
+		return contacts;
+	}
+
+	/**
+	 * 
+	 * Works out which sides of this collidable touch a platform in the tile map. The result is the same as
+	 * combining platformContacts() over every platform that overlaps this collidable.
+	 *
+	 * @param tiles is the level's TileMap
+	 * @return a combination of TOUCH_TOP, TOUCH_RIGHT and TOUCH_LEFT
+	 */
+	public int tileContacts(TileMap tiles) {
+		if (!this.isAlive()) {
+			return 0;
+		}
+		return tiles.contacts(this.getX(), this.getY(), this.getWidth(), this.getHeight(), this.isFalling());
+	}
+
+	private void applyPlatformContacts(int contacts) {
+		if ((contacts & TOUCH_TOP) != 0) {
+			this.setVy(0);
+			this.setJumping(false);
+		}
+		if ((contacts & TOUCH_RIGHT) != 0) {
+			this.setCollidingRight(true);
+		}
+		if ((contacts & TOUCH_LEFT) != 0) {
+			this.setCollidingLeft(true);
+		}
 	}
+
+	/**
+	 * 
+	 * Called after a platform collision has set the collision flags. Character-like collidables override
+	 * this to push themselves out of the platform or turn around.
+	 */
+	protected void respondToPlatformCollision() {
+		// Most collidables only need the flags
+	}
+
 	/**
      * Abstract method for updating the position of the collidable object.
      * This method should be implemented by subclasses to define specific movement logic.
@@ -0,0 +1,127 @@
+package BubbleBobble.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * EntityList holds the collidables of a level, either all of them or those of one type
+ * (monsters, bubbles...). It reads like an ArrayList, but every member remembers its own
+ * index in the list, so removing it takes O(1): the last element is moved into the hole.
+ * The order of the list therefore changes when something is removed.
+ *
+ * A collidable can be in the list of all collidables and in one typed list at the same
+ * time; the two kinds of list keep their indexes in different fields of Collidable.
+ *
+ * @param <T> The type of the members.
+ */
+public class EntityList<T extends Collidable> extends AbstractList<T> implements RandomAccess {
+
+    private final boolean typed;  // true for a typed list, false for the list of all collidables
+    private Collidable[] elements = new Collidable[16];
+    private int size = 0;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param typed true for a list of one type of collidable, false for the list of all
+     *              the collidables in the level.
+     */
+    public EntityList(boolean typed) {
+        this.typed = typed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return (T) this.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Appends a collidable. Nothing happens if it is already in the list.
+     *
+     * @param c The collidable to add.
+     * @return true if it was added.
+     */
+    @Override
+    public boolean add(T c) {
+        if (this.contains(c)) {
+            return false;
+        }
+        if (this.size == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.size * 2);
+        }
+        this.setIndex(c, this.size);
+        this.elements[this.size++] = c;
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * Removes a collidable in O(1) by moving the last element into its place.
+     *
+     * @param o The collidable to remove.
+     * @return true if it was in the list.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!this.contains(o)) {
+            return false;
+        }
+        Collidable c = (Collidable) o;
+        int index = this.indexOf(c);
+        int last = --this.size;
+        if (index != last) {
+            Collidable moved = this.elements[last];
+            this.elements[index] = moved;
+            this.setIndex(moved, index);
+        }
+        this.elements[last] = null;
+        this.setIndex(c, -1);
+        this.modCount++;
+        return true;
+    }
+
+    /**
+     * @return true if the object is a member of this list; O(1).
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Collidable)) {
+            return false;
+        }
+        int index = this.indexOf((Collidable) o);
+        return index >= 0 && index < this.size && this.elements[index] == o;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.setIndex(this.elements[i], -1);
+            this.elements[i] = null;
+        }
+        this.size = 0;
+        this.modCount++;
+    }
+
+    private int indexOf(Collidable c) {
+        return this.typed ? c.typeListIndex : c.levelListIndex;
+    }
+
+    private void setIndex(Collidable c, int index) {
+        if (this.typed) {
+            c.typeListIndex = index;
+            c.typeList = (index >= 0) ? this : null;
+        } else {
+            c.levelListIndex = index;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package BubbleBobble.model;
+
+import java.util.Arrays;
+
+/**
+ * EntityStore holds the state of every live collidable of a level in parallel primitive
+ * arrays (struct-of-arrays): position, position at the start of the tick, size, velocity,
+ * direction, state flags and a type tag. Rows are packed densely, so a pass over all
+ * entities walks a handful of contiguous arrays instead of chasing one heap object per
+ * entity. The level's move phase and the broadphase collision path iterate the rows.
+ *
+ * The arrays are the only copy of that state while an entity is in the store. The
+ * Collidable objects (views[]) keep the game behaviour and read and write their row
+ * through accessors such as Collidable.getX() and setX(); an object only holds the state
+ * itself while it is not in a store (before it is added, after it is removed, in a pool).
+ * add() moves it into a row and remove() moves it back out.
+ *
+ * Every entity gets a generational handle when it is added. The low bits of the handle are
+ * a slot in a sparse table that points at the entity's dense row; the high bits are the
+ * slot's generation, which changes every time the slot is freed. A handle kept after its
+ * entity has left the store is therefore never mistaken for the entity that reuses the
+ * slot (see isLive()). Removing an entity moves the last row into the hole, so the arrays
+ * stay packed and removal is O(1).
+ */
+public class EntityStore {
+
+    // Type tags
+    public static final byte TYPE_PLATFORM = 0;
+    public static final byte TYPE_HERO = 1;
+    public static final byte TYPE_MONSTER = 2;
+    public static final byte TYPE_BUBBLE = 3;
+    public static final byte TYPE_FIRE_BUBBLE = 4;
+    public static final byte TYPE_FIREBALL = 5;
+    public static final byte TYPE_FRUIT = 6;
+    public static final byte TYPE_BANANA = 7;
+    public static final byte TYPE_APPLE = 8;
+    public static final byte TYPE_FIRE_ICON = 9;
+
+    // Flag bits
+    public static final int FLAG_ALIVE = 1;
+    public static final int FLAG_PAUSED = 2;
+    public static final int FLAG_FALLING = 4;
+    public static final int FLAG_JUMPING = 8;
+    public static final int FLAG_COLLIDING_LEFT = 16;
+    public static final int FLAG_COLLIDING_RIGHT = 32;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Handle layout: generation above SLOT_BITS, slot below
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;  // Keeps handles positive
+
+    // Dense rows, indexes 0 to size - 1
+    public int[] x = new int[INITIAL_CAPACITY];
+    public int[] y = new int[INITIAL_CAPACITY];
+    public int[] previousX = new int[INITIAL_CAPACITY];
+    public int[] previousY = new int[INITIAL_CAPACITY];
+    public int[] width = new int[INITIAL_CAPACITY];
+    public int[] height = new int[INITIAL_CAPACITY];
+    public double[] vx = new double[INITIAL_CAPACITY];  // Horizontal speed of projectiles, per tick
+    public double[] vy = new double[INITIAL_CAPACITY];  // Vertical velocity of falling and jumping objects
+    public int[] direction = new int[INITIAL_CAPACITY];
+    public int[] flags = new int[INITIAL_CAPACITY];
+    public byte[] type = new byte[INITIAL_CAPACITY];
+    public Collidable[] views = new Collidable[INITIAL_CAPACITY];
+    private int[] handleOfRow = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Sparse table from slot to dense row and generation, plus recycled slots
+    private int[] rowOfSlot = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int nextSlot = 0;
+
+    /**
+     * @return The number of live entities, which is also the number of dense rows.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a collidable to the store and gives it a handle. Its state moves into the new
+     * row, where its accessors find it from then on.
+     *
+     * @param c The collidable to add.
+     * @return The handle of the new entity, also stored in c.entityId.
+     */
+    public int add(Collidable c) {
+        int slot;
+        if (this.freeCount > 0) {
+            slot = this.freeSlots[--this.freeCount];
+        } else {
+            if (this.nextSlot > SLOT_MASK) {
+                throw new IllegalStateException("Too many entities: " + this.nextSlot);
+            }
+            slot = this.nextSlot++;
+            if (slot == this.rowOfSlot.length) {
+                this.rowOfSlot = Arrays.copyOf(this.rowOfSlot, slot * 2);
+                this.generations = Arrays.copyOf(this.generations, slot * 2);
+            }
+        }
+        if (this.size == this.views.length) {
+            this.grow();
+        }
+        int row = this.size++;
+        int handle = (this.generations[slot] << SLOT_BITS) | slot;
+        this.rowOfSlot[slot] = row;
+        this.handleOfRow[row] = handle;
+        this.views[row] = c;
+        this.type[row] = typeOf(c);
+        c.attach(this, row);
+        c.entityId = handle;
+        return handle;
+    }
+
+    /**
+     * @param handle A handle returned by add().
+     * @return true if the entity with that handle is still in the store.
+     */
+    public boolean isLive(int handle) {
+        if (handle < 0) {
+            return false;
+        }
+        int slot = handle & SLOT_MASK;
+        return slot < this.nextSlot && this.generations[slot] == (handle >>> SLOT_BITS)
+                && this.rowOfSlot[slot] >= 0;
+    }
+
+    /**
+     * @param handle A handle returned by add().
+     * @return The entity with that handle, or null if it has left the store.
+     */
+    public Collidable get(int handle) {
+        return this.isLive(handle) ? this.views[this.rowOfSlot[handle & SLOT_MASK]] : null;
+    }
+
+    /**
+     * Removes an entity. Its state moves back into the collidable, the last dense row is
+     * moved into its place and the entity's handle stops being live.
+     *
+     * @param c The collidable to remove. Nothing happens if it is not in the store.
+     * @return true if the collidable was in the store.
+     */
+    public boolean remove(Collidable c) {
+        int handle = c.entityId;
+        if (!this.isLive(handle) || this.views[this.rowOfSlot[handle & SLOT_MASK]] != c) {
+            return false;
+        }
+        int slot = handle & SLOT_MASK;
+        int row = this.rowOfSlot[slot];
+        c.detach();
+        int last = --this.size;
+        if (row != last) {
+            this.x[row] = this.x[last];
+            this.y[row] = this.y[last];
+            this.previousX[row] = this.previousX[last];
+            this.previousY[row] = this.previousY[last];
+            this.width[row] = this.width[last];
+            this.height[row] = this.height[last];
+            this.vx[row] = this.vx[last];
+            this.vy[row] = this.vy[last];
+            this.direction[row] = this.direction[last];
+            this.flags[row] = this.flags[last];
+            this.type[row] = this.type[last];
+            this.views[row] = this.views[last];
+            this.views[row].row = row;
+            int movedHandle = this.handleOfRow[last];
+            this.handleOfRow[row] = movedHandle;
+            this.rowOfSlot[movedHandle & SLOT_MASK] = row;
+        }
+        this.views[last] = null;
+        this.rowOfSlot[slot] = -1;
+        this.generations[slot] = (this.generations[slot] + 1) & GENERATION_MASK;
+        if (this.freeCount == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeCount * 2);
+        }
+        this.freeSlots[this.freeCount++] = slot;
+        c.entityId = -1;
+        return true;
+    }
+
+    /**
+     * @param handle The handle of an entity in the store.
+     * @return The dense row of the entity.
+     */
+    public int rowOf(int handle) {
+        return this.rowOfSlot[handle & SLOT_MASK];
+    }
+
+    /**
+     * @param row A dense row.
+     * @return The handle of the entity in that row.
+     */
+    public int handleOf(int row) {
+        return this.handleOfRow[row];
+    }
+
+    /**
+     * Tests whether the bounding boxes of two rows overlap, with the same (open) edges as
+     * Rectangle2D.intersects().
+     *
+     * @param a A dense row.
+     * @param b Another dense row.
+     * @return true if the two entities overlap.
+     */
+    public boolean overlaps(int a, int b) {
+        return this.x[a] < this.x[b] + this.width[b] && this.x[b] < this.x[a] + this.width[a]
+                && this.y[a] < this.y[b] + this.height[b] && this.y[b] < this.y[a] + this.height[a];
+    }
+
+    /**
+     * Applies one tick of gravity to a row, see Collidable.fall().
+     *
+     * @param row A dense row.
+     */
+    public void fall(int row) {
+        double v = this.vy[row];
+        this.flags[row] = (this.flags[row] & ~FLAG_FALLING) | ((v < 1) ? 0 : FLAG_FALLING);
+        v = v + Collidable.GRAVITY * Collidable.DT;
+        this.vy[row] = v;
+        this.y[row] = (int) (this.y[row] + v * Collidable.DT);
+    }
+
+    /**
+     * Records the current position of every entity as its position at the start of the
+     * tick, which the renderer interpolates from.
+     */
+    public void savePreviousPositions() {
+        System.arraycopy(this.x, 0, this.previousX, 0, this.size);
+        System.arraycopy(this.y, 0, this.previousY, 0, this.size);
+    }
+
+    private void grow() {
+        int capacity = this.views.length * 2;
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.previousX = Arrays.copyOf(this.previousX, capacity);
+        this.previousY = Arrays.copyOf(this.previousY, capacity);
+        this.width = Arrays.copyOf(this.width, capacity);
+        this.height = Arrays.copyOf(this.height, capacity);
+        this.vx = Arrays.copyOf(this.vx, capacity);
+        this.vy = Arrays.copyOf(this.vy, capacity);
+        this.direction = Arrays.copyOf(this.direction, capacity);
+        this.flags = Arrays.copyOf(this.flags, capacity);
+        this.type = Arrays.copyOf(this.type, capacity);
+        this.views = Arrays.copyOf(this.views, capacity);
+        this.handleOfRow = Arrays.copyOf(this.handleOfRow, capacity);
+    }
+
+    private static byte typeOf(Collidable c) {
+        if (c instanceof Platform) {
+            return TYPE_PLATFORM;
+        } else if (c instanceof Hero) {
+            return TYPE_HERO;
+        } else if (c instanceof Monster) {
+            return TYPE_MONSTER;
+        } else if (c instanceof Bubble) {
+            return TYPE_BUBBLE;
+        } else if (c instanceof FireBubble) {
+            return TYPE_FIRE_BUBBLE;
+        } else if (c instanceof Fireball) {
+            return TYPE_FIREBALL;
+        } else if (c instanceof Fruit) {
+            return TYPE_FRUIT;
+        } else if (c instanceof Banana) {
+            return TYPE_BANANA;
+        } else if (c instanceof Apple) {
+            return TYPE_APPLE;
+        }
+        return TYPE_FIRE_ICON;
+    }
+}
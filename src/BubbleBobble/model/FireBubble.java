@@ -1,6 +1,5 @@
 package BubbleBobble.model;
 
-import javax.swing.*;
 import java.awt.*;
 
 /**
@@ -22,11 +21,32 @@ public class FireBubble extends Projectile {
     public FireBubble(Level level, int x, int y, int dir) {
         super(level, x, y, dir);
         this.color = Color.RED;
-        // Set the appropriate sprite based on the direction of the fire bubble
-        if (this.direction == -1) {
-            this.sprite = (new ImageIcon("sprites/fireBubbleLeft.png")).getImage();
+        this.sprites = new Image[2];
+        this.sprites[0] = SpriteRegistry.get("sprites/fireBubbleLeft.png");
+        this.sprites[1] = SpriteRegistry.get("sprites/fireBubbleRight.png");
+        this.updateSprite();
+    }
+
+    /**
+     * Resets a pooled fire bubble so it can be shot again.
+     * 
+     * @param x The X-coordinate of the fire bubble.
+     * @param y The Y-coordinate of the fire bubble.
+     * @param dir The direction of the fire bubble (-1 for left, 1 for right).
+     */
+    @Override
+    protected void reset(int x, int y, int dir) {
+        super.reset(x, y, dir);
+        this.type = 0;
+        this.updateSprite();
+    }
+
+    // Set the appropriate sprite based on the direction of the fire bubble
+    private void updateSprite() {
+        if (this.getDirection() == -1) {
+            this.sprite = this.sprites[0];
         } else {
-            this.sprite = (new ImageIcon("sprites/fireBubbleRight.png")).getImage();
+            this.sprite = this.sprites[1];
         }
     }
 
@@ -37,7 +57,7 @@ public class FireBubble extends Projectile {
     public void updatePosition() {
         super.updatePosition();
         // If the horizontal velocity is zero, the fire bubble has traveled its distance and should be removed
-        if (this.dx == 0) {
+        if (this.getVx() == 0) {
             this.die();
         }
     }
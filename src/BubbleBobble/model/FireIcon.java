@@ -1,12 +1,5 @@
 package BubbleBobble.model;
 
-import BubbleBobble.controller.GameController;
-import BubbleBobble.view.GameView;
-
-import javax.swing.*;
-import java.util.Timer;
-import java.util.TimerTask;
-
 /**
  * FireIcon represents an item that can be collected by the hero in the game.
  * When the hero collects the FireIcon, it grants the hero the ability to shoot fireballs for a limited time.
@@ -28,16 +21,10 @@ public class FireIcon extends Collidable {
     public FireIcon(Level level, int x, int y, int width, int height) {
         super(level, x, y, width, height);
         this.heroCanTouch = false;
-        this.sprite = (new ImageIcon("sprites/fire.png")).getImage();
+        this.sprite = SpriteRegistry.get("sprites/fire.png");
 
         // Allow a grace period before the FireIcon can be touched by the hero
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                FireIcon.this.heroCanTouch = true;
-            }
-        }, 500);
+        this.level.timers.schedule(() -> this.heroCanTouch = true, TimerWheel.ticksFor(500));
     }
 
     /**
@@ -46,8 +33,8 @@ public class FireIcon extends Collidable {
      */
     @Override
     public void updatePosition() {
-        this.vy = 0;                     // Stops vertical speed
-        this.isFalling = false;          // Marks as no longer falling
+        this.setVy(0);                   // Stops vertical speed
+        this.setFalling(false);          // Marks as no longer falling
     }
 
     /**
@@ -68,12 +55,12 @@ public class FireIcon extends Collidable {
             // Only allow interaction if the level is playable
             if (this.level.isPlayable()) {
                 // Activates the fireball mode for the hero
-                GameController.BubbleKeyListener.activateFireballMode();
+                this.level.fireballModeActivated();
             }
             // Destroy the FireIcon after collection
             this.die();
             // Display message indicating the ability to shoot fireballs
-            GameView.showMessage("add fire attack to bubble");
+            this.level.showMessage("add fire attack to bubble");
         }
     }
 }
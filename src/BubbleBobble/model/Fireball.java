@@ -1,7 +1,7 @@
 package BubbleBobble.model;
 
 import java.awt.Color;
-import javax.swing.ImageIcon;
+import java.awt.Image;
 
 /**
  * Fireball is a projectile shot by an Incendo monster. It travels a certain distance before disappearing.
@@ -20,11 +20,31 @@ public class Fireball extends Projectile {
     public Fireball(Level level, int x, int y, int dir) {
         super(level, x, y, dir);
         this.color = Color.RED;
-        // Set the appropriate sprite based on the direction of the fireball
-        if (this.direction == -1) {
-            this.sprite = (new ImageIcon("sprites/fireball_left.png")).getImage();
+        this.sprites = new Image[2];
+        this.sprites[0] = SpriteRegistry.get("sprites/fireball_left.png");
+        this.sprites[1] = SpriteRegistry.get("sprites/fireball_right.png");
+        this.updateSprite();
+    }
+
+    /**
+     * Resets a pooled fireball so it can be shot again.
+     * 
+     * @param x The initial X-coordinate of the fireball.
+     * @param y The initial Y-coordinate of the fireball.
+     * @param dir The direction of the fireball (-1 for left, 1 for right).
+     */
+    @Override
+    protected void reset(int x, int y, int dir) {
+        super.reset(x, y, dir);
+        this.updateSprite();
+    }
+
+    // Set the appropriate sprite based on the direction of the fireball
+    private void updateSprite() {
+        if (this.getDirection() == -1) {
+            this.sprite = this.sprites[0];
         } else {
-            this.sprite = (new ImageIcon("sprites/fireball_right.png")).getImage();
+            this.sprite = this.sprites[1];
         }
     }
 
@@ -35,7 +55,7 @@ public class Fireball extends Projectile {
     public void updatePosition() {
         super.updatePosition();
         // If the horizontal velocity is zero, the fireball has traveled its distance and should be removed
-        if (this.dx == 0) {
+        if (this.getVx() == 0) {
             this.die();
         }
     }
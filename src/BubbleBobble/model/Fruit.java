@@ -2,10 +2,6 @@ package BubbleBobble.model;
 
 import java.awt.Color;
 import java.awt.Image;
-import java.util.Timer;
-import java.util.TimerTask;
-
-import javax.swing.ImageIcon;
 
 /**
  * The Fruit class represents collectible items in the game that increase the player's score
@@ -19,6 +15,8 @@ import javax.swing.ImageIcon;
 public class Fruit extends Collidable {
 
     private boolean heroCanTouch;
+    // Ends the grace period; reused every time the fruit is spawned
+    private final TimerWheel.Timeout touchTimeout;
 
     /**
      * Constructs a Fruit object with a specific position, size, and score value.
@@ -33,16 +31,32 @@ public class Fruit extends Collidable {
      */
     public Fruit(Level level, int x, int y, int width, int height, int scoreValue) {
         super(level, x, y, width, height);
-        this.scoreValue = scoreValue;
         this.color = Color.GREEN;
-        this.heroCanTouch = false;
 
         // Initialize fruit sprites based on score value
         this.sprites = new Image[4];
-        this.sprites[0] = (new ImageIcon("sprites/banana.png")).getImage();
-        this.sprites[1] = (new ImageIcon("sprites/eggplant.png")).getImage();
-        this.sprites[2] = (new ImageIcon("sprites/watermelon.png")).getImage();
-        this.sprites[3] = (new ImageIcon("sprites/ur_boi_rascal.gif")).getImage();
+        this.sprites[0] = SpriteRegistry.get("sprites/banana.png");
+        this.sprites[1] = SpriteRegistry.get("sprites/eggplant.png");
+        this.sprites[2] = SpriteRegistry.get("sprites/watermelon.png");
+        this.sprites[3] = SpriteRegistry.get("sprites/ur_boi_rascal.gif");
+
+        this.touchTimeout = level.timers.newTimeout(() -> this.heroCanTouch = true);
+        this.reset(x, y, width, height, scoreValue);
+    }
+
+    /**
+     * Resets a pooled fruit so it can be spawned again. The fruit gets a new grace period.
+     *
+     * @param x The X-coordinate of the fruit.
+     * @param y The Y-coordinate of the fruit.
+     * @param width The width of the fruit.
+     * @param height The height of the fruit.
+     * @param scoreValue The score value associated with the fruit.
+     */
+    protected void reset(int x, int y, int width, int height, int scoreValue) {
+        this.resetState(x, y, width, height);
+        this.scoreValue = scoreValue;
+        this.heroCanTouch = false;
 
         // Set the sprite based on the fruit type
         if (scoreValue == 10) {
@@ -56,24 +70,24 @@ public class Fruit extends Collidable {
         }
 
         // Allow the fruit to be collected after a brief delay
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Fruit.this.heroCanTouch = true;
-            }
-        }, 500);
+        this.level.timers.schedule(this.touchTimeout, TimerWheel.ticksFor(500));
+    }
+
+    /**
+     * Cancels the grace period of a fruit that has left the level.
+     */
+    @Override
+    public void onRemoved() {
+        this.level.timers.cancel(this.touchTimeout);
     }
 
     /**
      * Updates the position of the fruit, making it fall under the influence of gravity.
-     * The fruit's vertical speed (vy) is updated based on gravity, and the position is updated accordingly.
+     * The fruit's vertical speed is updated based on gravity, and the position is updated accordingly.
      */
     @Override
     public void updatePosition() {
-        this.isFalling = !(this.vy < 1);  // The fruit is falling unless its vertical speed is negligible
-        this.vy = this.vy + GRAVITY * DT;  // Apply gravity
-        this.positionY += this.vy * DT;  // Update the vertical position
+        this.fall();  // Apply gravity and update the vertical position
     }
 
     /**
@@ -94,7 +108,7 @@ public class Fruit extends Collidable {
             // Only increase the score if the level is playable
             if (this.level.isPlayable()) {
                 // Check if the hero is overlapping with the fruit
-                if (this.level.overlapping(this, this.level.hero1)) {
+                if (this.intersects(this.level.hero1)) {
                     this.level.score += this.scoreValue;  // Add fruit's score value to the total score
                 }
             }
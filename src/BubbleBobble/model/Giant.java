@@ -1,11 +1,8 @@
 package BubbleBobble.model;
 
 import java.awt.*;
-import java.util.Calendar;
 import java.util.Random;
 
-import javax.swing.ImageIcon;
-
 /**
  * MyMonster class extends the Monster class and represents a specific type of
  * monster with unique behaviors, including shooting fireballs at random intervals,
@@ -15,15 +12,29 @@ public class Giant extends Monster {
 
     public int count = 50;  // Number of attacks remaining (i.e., health of the monster)
 
-    // The timestamp of the last fireball shot (in milliseconds)
-    private long lastFireballTime = 0;
+    // The tick of the last fireball shot (far in the past, so the first one goes right away)
+    private long lastFireballTick = Long.MIN_VALUE / 2;
 
-    // Interval between fireball shots (in milliseconds), randomized between 4 and 6 seconds
+    // Interval between fireball shots (in ticks), randomized between 4 and 6 seconds
     private long fireballInterval;
 
     // Random instance used for generating random values
     private static final Random random = new Random();
 
+    // Font of the attack count, shared by all Giants
+    private static final Font ATTACK_COUNT_FONT = new Font("SansSerif", Font.BOLD, 15);
+
+    // Font of the attack count at the scale it was last drawn at
+    private static Font scaledAttackCountFont = ATTACK_COUNT_FONT;
+
+    // The attack counts as text, made once; a Giant starts at 50 and counts down
+    private static final String[] COUNT_TEXT = new String[51];
+    static {
+        for (int i = 0; i < COUNT_TEXT.length; i++) {
+            COUNT_TEXT[i] = String.valueOf(i);
+        }
+    }
+
     /**
      * Constructor to initialize a MyMonster with specific position, size, and appearance.
      * The monster will also have a randomized fireball interval between 4000 and 6000 milliseconds.
@@ -36,11 +47,11 @@ public class Giant extends Monster {
      */
     public Giant(Level level, int x, int y, int width, int height) {
         super(level, x, y, width, height);
-        this.sprites[0] = (new ImageIcon("sprites/m_left.gif")).getImage();  // Left-facing sprite
-        this.sprites[1] = (new ImageIcon("sprites/m_right.gif")).getImage();  // Right-facing sprite
-        this.sprite = (this.direction == 1) ? this.sprites[1] : this.sprites[0];  // Set initial sprite
+        this.sprites[0] = SpriteRegistry.get("sprites/m_left.gif");  // Left-facing sprite
+        this.sprites[1] = SpriteRegistry.get("sprites/m_right.gif");  // Right-facing sprite
+        this.sprite = (this.getDirection() == 1) ? this.sprites[1] : this.sprites[0];  // Set initial sprite
         // Initialize the fireball shooting interval to a random value between 4000 and 6000 ms
-        this.fireballInterval = (long) (random.nextDouble() * (6000 - 4000) + 4000);
+        this.fireballInterval = TimerWheel.ticksFor((long) (random.nextDouble() * (6000 - 4000) + 4000));
     }
 
     /**
@@ -51,16 +62,16 @@ public class Giant extends Monster {
     public void updatePosition() {
         super.updatePosition();  // Update basic monster position and movement
 
-        // Get the current timestamp (in milliseconds)
-        long currentTime = Calendar.getInstance().getTimeInMillis();
+        // Get the current simulation tick
+        long currentTick = this.level.timers.now();
 
         // If the random time interval has passed, shoot a fireball
-        if (currentTime - lastFireballTime >= fireballInterval && !this.isBubbled) {
-            // Update the timestamp of the last fireball shot
-            lastFireballTime = currentTime;
+        if (currentTick - lastFireballTick >= fireballInterval && !this.isBubbled) {
+            // Update the tick of the last fireball shot
+            lastFireballTick = currentTick;
 
             // Generate a new random interval for the next fireball shot
-            this.fireballInterval = (long) (random.nextDouble() * (6000 - 4000) + 4000);
+            this.fireballInterval = TimerWheel.ticksFor((long) (random.nextDouble() * (6000 - 4000) + 4000));
 
             // Shoot a fireball
             this.shootFireball();
@@ -109,8 +120,7 @@ public class Giant extends Monster {
      * Shoots a fireball in the current direction. The fireball is added to the level.
      */
     public void shootFireball() {
-        Fireball fireball = new Fireball(this.level, this.positionX, this.positionY, this.direction);
-        this.level.addCollidable(fireball);  // Add the fireball to the level's list of collidables
+        this.level.spawnFireball(this.getX(), this.getY(), this.getDirection());  // Add a pooled fireball to the level's list of collidables
     }
 
     /**
@@ -119,15 +129,48 @@ public class Giant extends Monster {
      * @param g The graphics object used to draw the attack count.
      */
     public void drawAttackCount(Graphics g) {
-        // Set the font and color for the attack count
-        g.setFont(new Font("SansSerif", Font.BOLD, 15));
+        drawAttackCount(g, this.count, this.getX(), this.getY());
+    }
+
+    /**
+     * Draws an attack count above a Giant at the given position, e.g. from a render snapshot.
+     *
+     * @param g The graphics object used to draw the attack count.
+     * @param count The attack count.
+     * @param x The x-coordinate of the Giant.
+     * @param y The y-coordinate of the Giant.
+     */
+    public static void drawAttackCount(Graphics g, int count, int x, int y) {
+        drawAttackCount(g, count, x, y, 1);
+    }
+
+    /**
+     * Draws an attack count above a Giant drawn at a scale, with the text scaled to match.
+     *
+     * @param g The graphics object used to draw the attack count.
+     * @param count The attack count.
+     * @param x The x-coordinate the Giant is drawn at, in pixels.
+     * @param y The y-coordinate the Giant is drawn at, in pixels.
+     * @param scale Pixels per pixel of the design size.
+     */
+    public static void drawAttackCount(Graphics g, int count, int x, int y, double scale) {
+        // Set the font and color for the attack count; the scaled font is only derived
+        // again when the scale changes
+        Font font = scaledAttackCountFont;
+        float size = (float) (ATTACK_COUNT_FONT.getSize2D() * scale);
+        if (font.getSize2D() != size) {
+            font = ATTACK_COUNT_FONT.deriveFont(size);
+            scaledAttackCountFont = font;
+        }
+        g.setFont(font);
         g.setColor(Color.BLUE);
 
         // Calculate the position to draw the count (above the monster's head)
-        int textX = this.positionX + 14;  // Slightly offset from the monster's X position
-        int textY = this.positionY - 4;   // Slightly offset above the monster's Y position
+        int textX = x + (int) Math.round(14 * scale);  // Slightly offset from the monster's X position
+        int textY = y - (int) Math.round(4 * scale);   // Slightly offset above the monster's Y position
 
         // Draw the attack count as text
-        g.drawString(String.valueOf(this.count), textX, textY);
+        String text = (count >= 0 && count < COUNT_TEXT.length) ? COUNT_TEXT[count] : String.valueOf(count);
+        g.drawString(text, textX, textY);
     }
 }
@@ -6,9 +6,6 @@ import BubbleBobble.designPattern.NormalHeroAction;
 import java.awt.Color;
 import java.awt.Image;
 import java.awt.geom.Point2D;
-import java.util.Timer;
-import java.util.TimerTask;
-import javax.swing.ImageIcon;
 
 /**
  * The Hero class represents the main character of the game. The hero can move, shoot bubbles,
@@ -26,6 +23,8 @@ public class Hero extends Collidable {
     public boolean invincible = false;  // Whether the hero is invincible (e.g., after colliding with an enemy)
     boolean type = false;  // Placeholder for any hero type (potentially for future customization)
     private HeroActionStrategy actionStrategy;  // Strategy for hero's actions (e.g., moving, shooting)
+    private final TimerWheel.Timeout respawnTimeout;  // Brings the hero back after a hit
+    private final TimerWheel.Timeout vulnerableTimeout;  // Ends the invincibility after a hit
 
     /**
      * Constructs a Hero object with specified position, size, and initial lives.
@@ -39,7 +38,7 @@ public class Hero extends Collidable {
      */
     public Hero(Level level, int x, int y, int width, int height) {
         super(level, x, y, width, height);
-        this.startingPoint = new Point2D.Double(this.positionX, this.positionY);
+        this.startingPoint = new Point2D.Double(this.getX(), this.getY());
         this.lives = MAX_LIVES;
         this.color = Color.YELLOW;  // Default hero color
 
@@ -48,12 +47,24 @@ public class Hero extends Collidable {
 
         // Initialize hero sprites for different states
         this.sprites = new Image[5];
-        this.sprites[0] = (new ImageIcon("sprites/hero0.png")).getImage();  // Standing sprite
-        this.sprites[1] = (new ImageIcon("sprites/hero_left.gif")).getImage();  // Left direction sprite
-        this.sprites[2] = (new ImageIcon("sprites/hero_right.gif")).getImage();  // Right direction sprite
-        this.sprites[3] = (new ImageIcon("sprites/hero_invincible_left.gif")).getImage();  // Invincible left sprite
-        this.sprites[4] = (new ImageIcon("sprites/hero_invincible_right.gif")).getImage();  // Invincible right sprite
+        this.sprites[0] = SpriteRegistry.get("sprites/hero0.png");  // Standing sprite
+        this.sprites[1] = SpriteRegistry.get("sprites/hero_left.gif");  // Left direction sprite
+        this.sprites[2] = SpriteRegistry.get("sprites/hero_right.gif");  // Right direction sprite
+        this.sprites[3] = SpriteRegistry.get("sprites/hero_invincible_left.gif");  // Invincible left sprite
+        this.sprites[4] = SpriteRegistry.get("sprites/hero_invincible_right.gif");  // Invincible right sprite
         this.sprite = this.sprites[0];  // Default sprite
+
+        // Armed on every hit; both have run before the hero can be hit again
+        this.respawnTimeout = level.timers.newTimeout(() -> {
+            this.setAlive(true);  // Hero is respawned
+            this.setX((int) this.startingPoint.getX());
+            this.setY((int) this.startingPoint.getY() - 3 * PRECISION);
+            this.color = Color.PINK;  // Temporarily change color for respawn
+        });
+        this.vulnerableTimeout = level.timers.newTimeout(() -> {
+            this.invincible = false;  // End invincibility
+            this.color = Color.YELLOW;  // Restore original color
+        });
     }
 
     /**
@@ -72,11 +83,9 @@ public class Hero extends Collidable {
     @Override
     public void updatePosition() {
         this.changeSpriteDirection();  // Change sprite direction based on movement
-        this.isCollidingLeft = false;
-        this.isCollidingRight = false;
-        this.isFalling = !(this.vy < 1);  // Check if the hero is falling
-        this.vy = this.vy + GRAVITY * DT;  // Apply gravity
-        this.positionY += this.vy * DT;  // Update vertical position
+        this.setCollidingLeft(false);
+        this.setCollidingRight(false);
+        this.fall();  // Apply gravity and update vertical position
     }
 
     /**
@@ -92,20 +101,16 @@ public class Hero extends Collidable {
     /**
      * Handles collisions with platforms, adjusting the hero's position if necessary.
      * This method is responsible for preventing the hero from passing through platforms.
-     *
-     * @param p The platform with which the hero may collide.
      */
     @Override
-    public void collideWithPlatform(Platform p) {
-        super.collideWithPlatform(p);
-
-        if (this.isAlive) {
+    protected void respondToPlatformCollision() {
+        if (this.isAlive()) {
             // Adjust position if colliding with platform
-            if (this.isCollidingRight) {
-                this.positionX -= PRECISION / 2;
+            if (this.isCollidingRight()) {
+                this.setX(this.getX() - PRECISION / 2);
             }
-            if (this.isCollidingLeft) {
-                this.positionX += PRECISION / 2;
+            if (this.isCollidingLeft()) {
+                this.setX(this.getX() + PRECISION / 2);
             }
         }
     }
@@ -116,10 +121,10 @@ public class Hero extends Collidable {
      */
     public void changeSpriteDirection() {
         if (!this.invincible) {
-            if (this.direction == -1) {
+            if (this.getDirection() == -1) {
                 this.sprite = this.sprites[1];  // Left movement
             }
-            if (this.direction == 1) {
+            if (this.getDirection() == 1) {
                 this.sprite = this.sprites[2];  // Right movement
             }
         }
@@ -159,35 +164,19 @@ public class Hero extends Collidable {
     public void collideWithEnemy() {
         if (!this.invincible) {
             if (this.lives == 0) {
-                this.isAlive = false;  // Hero is dead
+                this.setAlive(false);  // Hero is dead
                 return;
             }
             this.invincible = true;  // Make the hero invincible for a short time
-            this.isAlive = false;  // Hero is temporarily not alive
+            this.setAlive(false);  // Hero is temporarily not alive
             this.lives -= 1;  // Decrease the number of lives
-            this.vy = JUMP_VELOCITY;  // Set the vertical speed for respawning
-
-            Timer timer = new Timer();
+            this.setVy(JUMP_VELOCITY);  // Set the vertical speed for respawning
 
             // Schedule respawn event after 1.5 seconds
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    Hero.this.isAlive = true;  // Hero is respawned
-                    Hero.this.positionX = (int) Hero.this.startingPoint.getX();
-                    Hero.this.positionY = (int) Hero.this.startingPoint.getY() - 3 * PRECISION;
-                    Hero.this.color = Color.PINK;  // Temporarily change color for respawn
-                }
-            }, 1500);
+            this.level.timers.schedule(this.respawnTimeout, TimerWheel.ticksFor(1500));
 
             // Schedule end of invincibility period after 5 seconds
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    Hero.this.invincible = false;  // End invincibility
-                    Hero.this.color = Color.YELLOW;  // Restore original color
-                }
-            }, 5000);
+            this.level.timers.schedule(this.vulnerableTimeout, TimerWheel.ticksFor(5000));
         }
     }
 }
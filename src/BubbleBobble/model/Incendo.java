@@ -1,9 +1,7 @@
 package BubbleBobble.model;
 
 import java.awt.Color;
-import java.util.Calendar;
 import java.util.Random;
-import javax.swing.ImageIcon;
 
 /**
  * Incendo is a subclass of Monster. In addition to the abilities of a BubbleBuster,
@@ -14,9 +12,9 @@ import javax.swing.ImageIcon;
  */
 public class Incendo extends Monster {
 
-    // Last time the fireball was shot (in milliseconds)
-    private long lastFireballTime = 0;
-    // Randomized interval between shooting fireballs (in milliseconds), ranging from 2000 to 4000 ms
+    // Tick on which the last fireball was shot (far in the past, so the first one goes right away)
+    private long lastFireballTick = Long.MIN_VALUE / 2;
+    // Randomized interval between shooting fireballs (in ticks), ranging from 2000 to 4000 ms
     private long fireballInterval;
     // Random instance used to generate random numbers for fireball intervals
     private static final Random random = new Random();
@@ -36,13 +34,13 @@ public class Incendo extends Monster {
         this.color = Color.BLUE;  // Set color of the Incendo
         this.scoreValue = 3000;  // Set score value for defeating Incendo
         // Initialize sprite images for different directions
-        this.sprites[0] = (new ImageIcon("sprites/incendo_left.gif")).getImage();
-        this.sprites[1] = (new ImageIcon("sprites/incendo_right.gif")).getImage();
-        this.sprites[2] = (new ImageIcon("sprites/incendo_bubble.gif")).getImage();
+        this.sprites[0] = SpriteRegistry.get("sprites/incendo_left.gif");
+        this.sprites[1] = SpriteRegistry.get("sprites/incendo_right.gif");
+        this.sprites[2] = SpriteRegistry.get("sprites/incendo_bubble.gif");
         // Set the sprite based on the direction of Incendo
-        this.sprite = (this.direction == 1) ? this.sprites[1] : this.sprites[0];
+        this.sprite = (this.getDirection() == 1) ? this.sprites[1] : this.sprites[0];
         // Initialize a random fireball shooting interval between 2000 and 4000 ms
-        this.fireballInterval = (long) (random.nextDouble() * (5000 - 2000) + 2000);
+        this.fireballInterval = TimerWheel.ticksFor((long) (random.nextDouble() * (5000 - 2000) + 2000));
     }
 
     /**
@@ -52,15 +50,15 @@ public class Incendo extends Monster {
     @Override
     public void updatePosition() {
         super.updatePosition();  // Call the updatePosition method of the superclass
-        // Get the current timestamp in milliseconds
-        long currentTime = Calendar.getInstance().getTimeInMillis();
+        // Get the current simulation tick
+        long currentTick = this.level.timers.now();
 
         // Check if the time has passed for the next fireball to be shot
-        if (currentTime - lastFireballTime >= fireballInterval && !this.isBubbled) {
+        if (currentTick - lastFireballTick >= fireballInterval && !this.isBubbled) {
             // Update the last fireball shooting time
-            lastFireballTime = currentTime;
+            lastFireballTick = currentTick;
             // Generate a new random interval for the next fireball shot
-            this.fireballInterval = (long) (random.nextDouble() * (4000 - 2000) + 2000);
+            this.fireballInterval = TimerWheel.ticksFor((long) (random.nextDouble() * (4000 - 2000) + 2000));
 
             // Shoot the fireball
             this.shootFireball();
@@ -77,11 +75,10 @@ public class Incendo extends Monster {
 
     /**
      * Shoots a fireball in the current direction.
-     * A new Fireball object is created and added to the level's collidables.
+     * A Fireball is taken from the level's pool and added to the level's collidables.
      */
     public void shootFireball() {
-        // Create a Fireball object and add it to the level's collidables
-        Fireball fireball = new Fireball(this.level, this.positionX, this.positionY, this.direction);
-        this.level.addCollidable(fireball);
+        // Take a Fireball from the level's pool and add it to the level's collidables
+        this.level.spawnFireball(this.getX(), this.getY(), this.getDirection());
     }
 }
@@ -1,5 +1,7 @@
 package BubbleBobble.model;
 
+import BubbleBobble.designPattern.LevelListener;
+
 import java.awt.Image;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -14,29 +16,90 @@ import java.util.Random;
  */
 public class Level {
 
+    // Length of one simulation tick in milliseconds (the game loop's fixed step)
+    public static final int TICK_MILLIS = 4;
+
+    /**
+     * Selects how handleCheckCollision() finds colliding pairs. BRUTE_FORCE tests every
+     * pair like the original nested loops, BROADPHASE only tests pairs that share a
+     * SpatialGrid cell (and uses the tile map for platforms), and VERIFY runs the
+     * broadphase but first checks that both paths agree on every pair and every platform
+     * contact and reports any difference on stderr. The default can be set
+     * with -Dbubblebobble.collision=brute_force|broadphase|verify.
+     */
+    public enum CollisionMode { BRUTE_FORCE, BROADPHASE, VERIFY }
+
+    public static CollisionMode collisionMode = CollisionMode.valueOf(
+            System.getProperty("bubblebobble.collision", "broadphase").toUpperCase());
+
     // Level states and values
     public Image screen;  // The background image of the level
+    public boolean isScreenLevel = false;  // Menu, game over or game won screen (screen may be null when headless)
     public boolean isReadyToChange = false;  // Flag indicating whether the level is ready to transition
     public boolean gameOver = false;  // Flag indicating whether the game is over
     public Point2D heroLocation = new Point2D.Double();  // Hero's current location
 
-    // Lists for game objects
-    public ArrayList<Collidable> collidables = new ArrayList<>();  // All collidable objects in the level
+    // Lists for game objects. Removing from an EntityList is O(1) but moves its last element.
+    public EntityList<Collidable> collidables = new EntityList<>(false);  // All collidable objects in the level
     public ArrayList<Collidable> toAdd = new ArrayList<>();  // Objects to be added to the level
     public ArrayList<Collidable> toRemove = new ArrayList<>();  // Objects to be removed from the level
-    public ArrayList<Platform> platforms = new ArrayList<>();  // Platforms in the level
-    public ArrayList<Bubble> bubbles = new ArrayList<>();  // Bubbles in the level
-    public ArrayList<Fireball> fireballs = new ArrayList<>();  // Fireballs in the level
-    public ArrayList<FireIcon> fireIcons = new ArrayList<>();  // Fire Icons in the level
-    public ArrayList<FireBubble> fireBubbles = new ArrayList<>();  // Fire Bubbles in the level
-    public ArrayList<Fruit> fruits = new ArrayList<>();  // Fruits in the level
-    public ArrayList<Monster> monsters = new ArrayList<>();  // Monsters in the level
-    public ArrayList<Banana> bananas = new ArrayList<>();  // Bananas in the level
-    public ArrayList<Apple> apples = new ArrayList<>();  // Apples in the level
+    public EntityList<Platform> platforms = new EntityList<>(true);  // Platforms in the level
+    public EntityList<Bubble> bubbles = new EntityList<>(true);  // Bubbles in the level
+    public EntityList<Fireball> fireballs = new EntityList<>(true);  // Fireballs in the level
+    public EntityList<FireIcon> fireIcons = new EntityList<>(true);  // Fire Icons in the level
+    public EntityList<FireBubble> fireBubbles = new EntityList<>(true);  // Fire Bubbles in the level
+    public EntityList<Fruit> fruits = new EntityList<>(true);  // Fruits in the level
+    public EntityList<Monster> monsters = new EntityList<>(true);  // Monsters in the level
+    public EntityList<Banana> bananas = new EntityList<>(true);  // Bananas in the level
+    public EntityList<Apple> apples = new EntityList<>(true);  // Apples in the level
     
     // Counter for monster addition tracking
     private int monsterAddCount = 0;
 
+    // Static geometry compiled into tiles, see compileTileMap()
+    public TileMap tileMap;
+
+    // The part of the level on screen; only moves in levels bigger than the screen
+    public final Camera camera = new Camera(LevelLoader.NUM_TILES * Collidable.SIZE, LevelLoader.NUM_TILES * Collidable.SIZE);
+
+    // Streams the platforms and entities of levels bigger than the screen; null otherwise
+    public LevelChunks chunks;
+
+    // Delayed game events, advanced once per tick
+    public final TimerWheel timers = new TimerWheel();
+    private final TimerWheel.Timeout monsterCheckTimeout = this.timers.newTimeout(() -> {
+        if (this.checkMonsters()) {
+            this.timers.schedule(this.monsterCheckTimeout, TimerWheel.ticksFor(1000));
+        }
+    });
+
+    // Recycled projectiles and fruit, see the spawn methods
+    private final ObjectPool<Bubble> bubblePool = new ObjectPool<>(() -> new Bubble(this, 0, 0, 1));
+    private final ObjectPool<FireBubble> fireBubblePool = new ObjectPool<>(() -> new FireBubble(this, 0, 0, 1));
+    private final ObjectPool<Fireball> fireballPool = new ObjectPool<>(() -> new Fireball(this, 0, 0, 1));
+    private final ObjectPool<Fruit> fruitPool = new ObjectPool<>(
+            () -> new Fruit(this, 0, 0, Collidable.SIZE, Collidable.SIZE, 10));
+
+    // Position, size, velocity, flags and type of every collidable in the level, in packed rows
+    public final EntityStore entities = new EntityStore();
+
+    // Broadphase grids, rebuilt every tick
+    private final SpatialGrid platformGrid = new SpatialGrid();
+    private final SpatialGrid monsterGrid = new SpatialGrid();
+    private int[] heroContacts = new int[16];  // Rows touching the hero this tick
+    private int heroContactCount = 0;
+
+    // Told about messages and power-ups; null when nobody is watching (e.g. headless runs)
+    public LevelListener listener;
+
+    // Per-phase tick timings, only measured while this is set (e.g. by the benchmarks)
+    public PhaseTimes phaseTimes;
+
+    // Where each finished tick is published for the renderer; null when nothing is drawn
+    public RenderBuffers renderBuffers;
+    // The number the level was built for (see LevelComponent), published for the HUD
+    public int levelNum;
+
     // The hero in the level
     public Hero hero1;
     // Player scores
@@ -54,18 +117,125 @@ public class Level {
     }
 
     /**
-     * Removes a collidable object from the level.
+     * Removes a collidable object from the level at the end of the tick. Removing an
+     * object that is already on its way out does nothing.
      *
      * @param c The collidable object to remove.
      */
     public synchronized void removeCollidable(Collidable c) {
+        if (c.isRemoved) {
+            return;  // Killed twice; the first call already queued it
+        }
+        c.isRemoved = true;
         this.toRemove.add(c);  // Add the object to the removal list.
     }
 
     /**
-     * Pauses all of the collidable objects in the level.
+     * Adds a bubble to the level, reusing one that has popped if possible.
+     *
+     * @param x The x-coordinate of the bubble.
+     * @param y The y-coordinate of the bubble.
+     * @param dir The direction in which the bubble is shot.
+     * @return The bubble.
+     */
+    public synchronized Bubble spawnBubble(int x, int y, int dir) {
+        Bubble b = this.bubblePool.acquire();
+        b.reset(x, y, dir);
+        this.addCollidable(b);
+        return b;
+    }
+
+    /**
+     * Adds a fire bubble to the level, reusing an old one if possible.
+     *
+     * @param x The x-coordinate of the fire bubble.
+     * @param y The y-coordinate of the fire bubble.
+     * @param dir The direction in which the fire bubble is shot.
+     * @param type The hero who shot it.
+     * @return The fire bubble.
      */
-    public void changePause() {
+    public synchronized FireBubble spawnFireBubble(int x, int y, int dir, int type) {
+        FireBubble f = this.fireBubblePool.acquire();
+        f.reset(x, y, dir);
+        f.setType(type);
+        this.addCollidable(f);
+        return f;
+    }
+
+    /**
+     * Adds a fireball to the level, reusing an old one if possible.
+     *
+     * @param x The x-coordinate of the fireball.
+     * @param y The y-coordinate of the fireball.
+     * @param dir The direction in which the fireball is shot.
+     * @return The fireball.
+     */
+    public synchronized Fireball spawnFireball(int x, int y, int dir) {
+        Fireball f = this.fireballPool.acquire();
+        f.reset(x, y, dir);
+        this.addCollidable(f);
+        return f;
+    }
+
+    /**
+     * Adds a fruit to the level, reusing one that has been collected if possible.
+     *
+     * @param x The x-coordinate of the fruit.
+     * @param y The y-coordinate of the fruit.
+     * @param width The width of the fruit.
+     * @param height The height of the fruit.
+     * @param scoreValue The score value of the fruit, which also picks its sprite.
+     * @return The fruit.
+     */
+    public synchronized Fruit spawnFruit(int x, int y, int width, int height, int scoreValue) {
+        Fruit f = this.fruitPool.acquire();
+        f.reset(x, y, width, height, scoreValue);
+        this.addCollidable(f);
+        return f;
+    }
+
+    /**
+     * Returns a collidable that has left the level to its pool, if its type is pooled.
+     *
+     * @param c The removed collidable.
+     */
+    private void recycle(Collidable c) {
+        if (c instanceof Bubble) {
+            this.bubblePool.release((Bubble) c);
+        } else if (c instanceof FireBubble) {
+            this.fireBubblePool.release((FireBubble) c);
+        } else if (c instanceof Fireball) {
+            this.fireballPool.release((Fireball) c);
+        } else if (c instanceof Fruit) {
+            this.fruitPool.release((Fruit) c);
+        }
+    }
+
+    /**
+     * Passes a message for the player on to the listener, if there is one.
+     *
+     * @param message The message text.
+     */
+    public void showMessage(String message) {
+        if (this.listener != null) {
+            this.listener.showMessage(message);
+        }
+    }
+
+    /**
+     * Tells the listener, if there is one, that the hero may now shoot fire bubbles.
+     */
+    public void fireballModeActivated() {
+        if (this.listener != null) {
+            this.listener.fireballModeActivated();
+        }
+    }
+
+    /**
+     * Pauses all of the collidable objects in the level. Synchronized like timePassed(),
+     * so a tick never adds or removes objects while they are being paused.
+     */
+    public synchronized void changePause() {
         for (Collidable c : this.collidables) {
             c.changePause();  // Change the pause state of each collidable object.
         }
@@ -80,45 +250,132 @@ public class Level {
      */
     public void setLevelScreen(Image image, boolean isGameScreen) {
         this.screen = image;
+        this.isScreenLevel = true;
         if (isGameScreen) {
             // Additional logic for game screen (if needed)
         }
     }
 
     /**
-     * Called on each clock tick of the LevelComponent's timer to update the level.
+     * Called on each fixed step of the game loop to update the level.
      * This updates the positions of all collidables and checks for collisions.
      */
     public synchronized void timePassed() {
+        PhaseTimes times = this.phaseTimes;
+        long start = (times != null) ? System.nanoTime() : 0L;
+
+        // Wake the chunks the camera has come near and put the ones it left to sleep
+        if (this.chunks != null) {
+            this.chunks.update(this, this.camera.centerX(), this.camera.centerY());
+        }
+
+        // Run the delayed events that are due on this tick
+        this.timers.advance();
+        if (times != null) {
+            start = times.record(PhaseTimes.Phase.TIMERS, start);
+        }
 
         // Update positions of all monsters and collidables
-        for (Monster m : this.monsters) {
-            this.heroLocation.setLocation(this.hero1.positionX, this.hero1.positionY);
+        for (int i = 0; i < this.monsters.size(); i++) {
+            Monster m = this.monsters.get(i);
+            this.heroLocation.setLocation(this.hero1.getX(), this.hero1.getY());
             m.updateHeroLocation(this.heroLocation);
         }
-        for (Collidable c : this.collidables) {
-            if (!c.isPaused) {
+        // The store's rows hold the same collidables in the same order as collidables
+        EntityStore e = this.entities;
+        e.savePreviousPositions();  // Remember where everything was drawn for interpolation
+        for (int row = 0; row < e.size(); row++) {
+            if ((e.flags[row] & EntityStore.FLAG_PAUSED) == 0) {
+                Collidable c = e.views[row];
                 c.updatePosition();  // Update position for non-paused objects
+                c.animationTicks++;  // Paused objects also hold their animation frame
             }
         }
+        if (times != null) {
+            start = times.record(PhaseTimes.Phase.MOVE, start);
+        }
 
-        // Remove collidables that are marked for removal
-        this.collidables.removeAll(this.toRemove);
-        this.monsters.removeAll(this.toRemove);
-        this.fireballs.removeAll(this.toRemove);
-        this.fireIcons.removeAll(this.toRemove);
-        this.fireBubbles.removeAll(this.toRemove);
-        this.bubbles.removeAll(this.toRemove);
-        this.fruits.removeAll(this.toRemove);
-        this.bananas.removeAll(this.toRemove);
-        this.apples.removeAll(this.toRemove);
+        // Add new collidables (one at a time, addAll() would copy the list into a new array every tick).
+        // Adding first means an object that died before it was ever added is removed below as well.
+        for (int i = 0; i < this.toAdd.size(); i++) {
+            Collidable c = this.toAdd.get(i);
+            this.collidables.add(c);
+            this.entities.add(c);
+        }
+        this.toAdd.clear();  // Clear the addition list
 
+        // Remove collidables that are marked for removal, O(1) each
+        boolean platformRemoved = false;
+        for (int i = 0; i < this.toRemove.size(); i++) {
+            Collidable c = this.toRemove.get(i);
+            this.collidables.remove(c);
+            if (c.typeList != null) {
+                c.typeList.remove(c);  // Its monsters, bubbles, platforms... list
+            }
+            if (this.entities.remove(c)) {
+                c.onRemoved();
+                this.recycle(c);
+            }
+            platformRemoved |= c instanceof Platform;
+        }
         this.toRemove.clear();  // Clear the removal list
-        this.collidables.addAll(this.toAdd);  // Add new collidables
-        this.toAdd.clear();  // Clear the addition list
+
+        // The tile map is only built once, so it has to follow if a platform goes away.
+        // A streamed level's map is built from all its records and stays as it is when
+        // a chunk's platforms go to sleep.
+        if (platformRemoved && this.tileMap != null && this.chunks == null) {
+            this.compileTileMap(this.tileMap.columns, this.tileMap.rows);
+        }
+        if (times != null) {
+            start = times.record(PhaseTimes.Phase.ADD_REMOVE, start);
+        }
 
         // Handle collisions after updating positions
         handleCheckCollision();
+        if (times != null) {
+            start = times.record(PhaseTimes.Phase.COLLISION, start);
+        }
+
+        // The camera follows the hero once everything has moved
+        this.camera.follow(this.hero1);
+
+        // Hand the finished tick to the renderer
+        if (this.renderBuffers != null) {
+            this.renderBuffers.publish(this);
+        }
+        if (times != null) {
+            times.record(PhaseTimes.Phase.SNAPSHOT, start);
+            times.ticks++;
+        }
+    }
+
+    /**
+     * Compiles the level's platforms into a TileMap. Called once the level has been built;
+     * from then on platform contact is a tile lookup. A streamed level compiles all its
+     * platform records, asleep or not, so its map covers the whole level. Also tells the
+     * camera how big the level is.
+     *
+     * @param columns The width of the level in tiles.
+     * @param rows The height of the level in tiles.
+     */
+    public void compileTileMap(int columns, int rows) {
+        this.tileMap = new TileMap(columns, rows, Collidable.SIZE);
+        if (this.chunks != null) {
+            this.chunks.rasterize(this.tileMap);
+        } else {
+            for (Platform p : this.platforms) {
+                this.tileMap.addPlatform(p);
+            }
+        }
+        this.camera.setWorld(columns * Collidable.SIZE, rows * Collidable.SIZE);
+    }
+
+    /**
+     * @return The number of monsters left to beat, including those asleep in chunks far
+     *         from the camera.
+     */
+    public int remainingMonsters() {
+        return this.monsters.size() + ((this.chunks != null) ? this.chunks.sleepingMonsters : 0);
     }
 
     /**
@@ -127,46 +384,69 @@ public class Level {
      * @return true if the level is playable, false otherwise.
      */
     public boolean isPlayable() {
-        return this.screen == null;  // Level is playable if screen is not set (i.e., no special screen like game over or menu)
+        return !this.isScreenLevel;  // Level is playable if screen is not set (i.e., no special screen like game over or menu)
     }
 
     /**
-     * Updates the state of the level based on game progress. If there are no monsters left,
-     * the level is ready to change. If the hero has no lives left, the game over flag is set.
+     * Checks whether the bounding boxes of two collidables overlap.
+     *
+     * @param c1 The first collidable.
+     * @param c2 The second collidable.
+     * @return true if they overlap.
      */
     public boolean overlapping(Collidable c1, Collidable c2) {
-        return c1.getShape().intersects(c2.getShape());  // Checks if the collidable objects overlap
+        return c1.intersects(c2);  // Checks if the collidable objects overlap, without allocating
     }
 
     /**
      * Iterates through all collidables to check for collisions, including platform, enemy,
-     * bubble, and fruit collisions.
+     * bubble, and fruit collisions. The pairs are found according to collisionMode.
      */
     public void handleCheckCollision() {
+        if (collisionMode == CollisionMode.BRUTE_FORCE) {
+            handleCheckCollisionBruteForce();
+        } else {
+            if (collisionMode == CollisionMode.VERIFY) {
+                verifyBroadphase();
+            }
+            handleCheckCollisionBroadphase();
+        }
+    }
+
+    /**
+     * Checks every platform against every moving object and every bubble against every
+     * monster. This is the reference path the broadphase is compared with.
+     */
+    public void handleCheckCollisionBruteForce() {
 
         // Check for collisions with platforms
-        for (Platform p : this.platforms) {
+        for (int i = 0; i < this.platforms.size(); i++) {
+            Platform p = this.platforms.get(i);
             if (overlapping(p, this.hero1)) {
                 this.hero1.collideWithPlatform(p);
             }
 
             // Check for platform collisions with other objects (monsters, fruits, etc.)
-            for (Monster m : this.monsters) {
+            for (int j = 0; j < this.monsters.size(); j++) {
+                Monster m = this.monsters.get(j);
                 if (overlapping(p, m)) {
                     m.collideWithPlatform(p);
                 }
             }
-            for (Fruit f : this.fruits) {
+            for (int j = 0; j < this.fruits.size(); j++) {
+                Fruit f = this.fruits.get(j);
                 if (overlapping(p, f)) {
                     f.collideWithPlatform(p);
                 }
             }
-            for (Banana f : this.bananas) {
+            for (int j = 0; j < this.bananas.size(); j++) {
+                Banana f = this.bananas.get(j);
                 if (overlapping(p, f)) {
                     f.collideWithPlatform(p);
                 }
             }
-            for (Apple f : this.apples) {
+            for (int j = 0; j < this.apples.size(); j++) {
+                Apple f = this.apples.get(j);
                 if (overlapping(p, f)) {
                     f.collideWithPlatform(p);
                 }
@@ -174,11 +454,11 @@ public class Level {
         }
 
         // Check for collisions with monsters (enemies)
-        for (Monster m : this.monsters) {
-            if (overlapping(m, this.hero1)) {
+        for (int i = 0; i < this.monsters.size(); i++) {
+            Monster m = this.monsters.get(i);
+            if (overlapping(m, this.hero1) && !m.isRemoved) {  // A popped monster only gives one fruit
                 if (m.isBubbled) {
-                    this.addCollidable(
-                            new Fruit(this, m.positionX, m.positionY, Collidable.SIZE, Collidable.SIZE, m.scoreValue));
+                    this.spawnFruit(m.getX(), m.getY(), Collidable.SIZE, Collidable.SIZE, m.scoreValue);
                     m.die();
                 } else {
                     this.hero1.collideWithEnemy();
@@ -187,7 +467,8 @@ public class Level {
         }
 
         // Check for bubble collisions
-        for (Bubble b : this.bubbles) {
+        for (int i = 0; i < this.bubbles.size(); i++) {
+            Bubble b = this.bubbles.get(i);
             if (overlapping(b, this.hero1)) {
                 b.collideWithHero();
                 if (this.isPlayable()) {
@@ -195,8 +476,9 @@ public class Level {
                 }
             }
 
-            for (Monster m : this.monsters) {
-                if (overlapping(b, m) && b.dx != 0) {
+            for (int j = 0; j < this.monsters.size(); j++) {
+                Monster m = this.monsters.get(j);
+                if (overlapping(b, m) && b.getVx() != 0) {
                     b.die();
                     m.collideWithBubble();
                 }
@@ -204,36 +486,210 @@ public class Level {
         }
 
         // Handle collisions for fire bubbles, fruits, bananas, apples, and fire icons
-        for (FireBubble f : this.fireBubbles) {
-            for (Monster m : this.monsters) {
-                if (overlapping(f, m) && f.dx != 0) {
+        for (int i = 0; i < this.fireBubbles.size(); i++) {
+            FireBubble f = this.fireBubbles.get(i);
+            for (int j = 0; j < this.monsters.size(); j++) {
+                Monster m = this.monsters.get(j);
+                if (overlapping(f, m) && f.getVx() != 0) {
                     f.die();
                     m.collideWithFireBubble(f.getType(), this);
                 }
             }
         }
 
-        for (Fruit f : this.fruits) {
+        handleHeroPickupCollisions();
+    }
+
+    /**
+     * Same collisions as handleCheckCollisionBruteForce(), but the pairs are found by
+     * walking the packed EntityStore rows. Monsters are looked up in a SpatialGrid so
+     * only entities sharing a cell are tested, and platforms are looked up in the tile map
+     * (or in a grid if the level has no tile map).
+     */
+    public void handleCheckCollisionBroadphase() {
+        EntityStore e = this.entities;
+
+        // Check for collisions with platforms
+        if (this.tileMap == null) {
+            this.platformGrid.build(e, EntityStore.TYPE_PLATFORM);
+        }
+        for (int row = 0; row < e.size(); row++) {
+            byte type = e.type[row];
+            if (type == EntityStore.TYPE_HERO || type == EntityStore.TYPE_MONSTER || type == EntityStore.TYPE_FRUIT
+                    || type == EntityStore.TYPE_BANANA || type == EntityStore.TYPE_APPLE) {
+                collideWithStaticGeometry(row);
+            }
+        }
+
+        // One pass over the packed rows finds everything that touches the hero
+        int hero = e.rowOf(this.hero1.entityId);
+        this.heroContactCount = 0;
+        if (this.heroContacts.length < e.size()) {
+            this.heroContacts = new int[Math.max(e.size(), this.heroContacts.length * 2)];  // Room for every row
+        }
+        for (int row = 0; row < e.size(); row++) {
+            if (row != hero && e.type[row] != EntityStore.TYPE_PLATFORM && e.overlaps(row, hero)) {
+                this.heroContacts[this.heroContactCount++] = row;
+            }
+        }
+
+        // Check for collisions with monsters (enemies)
+        for (int i = 0; i < this.heroContactCount; i++) {
+            if (e.type[this.heroContacts[i]] == EntityStore.TYPE_MONSTER) {
+                Monster m = (Monster) e.views[this.heroContacts[i]];
+                if (m.isRemoved) {
+                    continue;  // A popped monster only gives one fruit
+                }
+                if (m.isBubbled) {
+                    this.spawnFruit(m.getX(), m.getY(), Collidable.SIZE, Collidable.SIZE, m.scoreValue);
+                    m.die();
+                } else {
+                    this.hero1.collideWithEnemy();
+                }
+            }
+        }
+
+        // Monsters have been pushed out of platforms, so index them now
+        this.monsterGrid.build(e, EntityStore.TYPE_MONSTER);
+
+        // Check for bubble collisions
+        for (int row = 0; row < e.size(); row++) {
+            if (e.type[row] != EntityStore.TYPE_BUBBLE) {
+                continue;
+            }
+            Bubble b = (Bubble) e.views[row];
+            if (e.overlaps(row, hero)) {
+                b.collideWithHero();
+                if (this.isPlayable()) {
+                    b.setScore(1);
+                }
+            }
+
+            int count = this.monsterGrid.query(e, row, 0);
+            for (int i = 0; i < count; i++) {
+                int other = this.monsterGrid.getResult(i);
+                if (e.overlaps(row, other) && e.vx[row] != 0) {
+                    b.die();
+                    ((Monster) e.views[other]).collideWithBubble();
+                }
+            }
+        }
+
+        // Handle collisions for fire bubbles
+        for (int row = 0; row < e.size(); row++) {
+            if (e.type[row] != EntityStore.TYPE_FIRE_BUBBLE) {
+                continue;
+            }
+            FireBubble f = (FireBubble) e.views[row];
+            int count = this.monsterGrid.query(e, row, 0);
+            for (int i = 0; i < count; i++) {
+                int other = this.monsterGrid.getResult(i);
+                if (e.overlaps(row, other) && e.vx[row] != 0) {
+                    f.die();
+                    ((Monster) e.views[other]).collideWithFireBubble(f.getType(), this);
+                }
+            }
+        }
+
+        // Pickups and fireballs touching the hero, in the same order as the brute-force path
+        handleHeroContacts(EntityStore.TYPE_FRUIT);
+        handleHeroContacts(EntityStore.TYPE_FIREBALL);
+        handleHeroContacts(EntityStore.TYPE_BANANA);
+        handleHeroContacts(EntityStore.TYPE_APPLE);
+        handleHeroContacts(EntityStore.TYPE_FIRE_ICON);
+    }
+
+    /**
+     * Lets the entity in the given row collide with the level's platforms, through the tile
+     * map when there is one. Otherwise it is tested against every platform that shares a
+     * grid cell with it; the query is widened by PRECISION because a collision response can
+     * push it into the next cell.
+     *
+     * @param row The dense row of the moving entity.
+     */
+    private void collideWithStaticGeometry(int row) {
+        EntityStore e = this.entities;
+        if (this.tileMap != null) {
+            // Worked out from the row; the collidable itself is only needed when it touches something
+            int flags = e.flags[row];
+            if ((flags & EntityStore.FLAG_ALIVE) == 0) {
+                return;
+            }
+            int contacts = this.tileMap.contacts(e.x[row], e.y[row], e.width[row], e.height[row],
+                    (flags & EntityStore.FLAG_FALLING) != 0);
+            if (contacts != 0) {
+                e.views[row].applyTileContacts(contacts);
+            }
+        } else {
+            Collidable c = e.views[row];
+            int count = this.platformGrid.query(this.entities, row, Collidable.PRECISION);
+            for (int i = 0; i < count; i++) {
+                Platform p = (Platform) this.entities.views[this.platformGrid.getResult(i)];
+                if (overlapping(p, c)) {
+                    c.collideWithPlatform(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the hero collision for every entity of the given type found by the hero pass
+     * of handleCheckCollisionBroadphase().
+     *
+     * @param type An EntityStore type tag.
+     */
+    private void handleHeroContacts(byte type) {
+        for (int i = 0; i < this.heroContactCount; i++) {
+            int row = this.heroContacts[i];
+            if (this.entities.type[row] != type) {
+                continue;
+            }
+            Collidable c = this.entities.views[row];
+            if (type == EntityStore.TYPE_FRUIT) {
+                ((Fruit) c).collideWithHero();
+            } else if (type == EntityStore.TYPE_FIREBALL) {
+                this.hero1.collideWithEnemy();
+            } else if (type == EntityStore.TYPE_BANANA) {
+                ((Banana) c).collideWithHero();
+            } else if (type == EntityStore.TYPE_APPLE) {
+                ((Apple) c).collideWithHero();
+            } else if (type == EntityStore.TYPE_FIRE_ICON) {
+                ((FireIcon) c).collideWithHero();
+            }
+        }
+    }
+
+    /**
+     * Checks the hero against fruits, fireballs, bananas, apples and fire icons. There is
+     * only one hero, so these checks are linear in both collision paths.
+     */
+    private void handleHeroPickupCollisions() {
+        for (int i = 0; i < this.fruits.size(); i++) {
+            Fruit f = this.fruits.get(i);
             if (overlapping(f, this.hero1)) {
                 f.collideWithHero();
             }
         }
-        for (Fireball f : this.fireballs) {
+        for (int i = 0; i < this.fireballs.size(); i++) {
+            Fireball f = this.fireballs.get(i);
             if (overlapping(f, this.hero1)) {
                 this.hero1.collideWithEnemy();
             }
         }
-        for (Banana f : this.bananas) {
+        for (int i = 0; i < this.bananas.size(); i++) {
+            Banana f = this.bananas.get(i);
             if (overlapping(f, this.hero1)) {
                 f.collideWithHero();
             }
         }
-        for (Apple f : this.apples) {
+        for (int i = 0; i < this.apples.size(); i++) {
+            Apple f = this.apples.get(i);
             if (overlapping(f, this.hero1)) {
                 f.collideWithHero();
             }
         }
-        for (FireIcon f : this.fireIcons) {
+        for (int i = 0; i < this.fireIcons.size(); i++) {
+            FireIcon f = this.fireIcons.get(i);
             if (overlapping(f, this.hero1)) {
                 f.collideWithHero();
             }
@@ -241,27 +697,108 @@ public class Level {
     }
 
     /**
-     * Starts the timer to check for monsters. Adds new monsters periodically
-     * and tracks the number of added monsters.
-     *
-     * @param t The timer to schedule periodic checks.
-     * @param index The current index or stage of the monster check.
+     * Compares the brute-force and broadphase paths without applying any collision. For
+     * every moving object the number of overlapping platforms, and for every bubble and
+     * fire bubble the number of overlapping monsters, must be the same both ways. Since the
+     * grid only ever returns a subset of the real objects, equal counts mean equal pairs.
+     * When a level that is not streamed has a tile map, the sides each object touches must
+     * also match.
      */
-    public void startMonsterCheckTimer(javax.swing.Timer t, int index) {
-        if (index < 10) {
-            Level _this = this;
-            if (monsters.size() < 3 && monsterAddCount < 5) {
-                addMonster();  // Add two new monsters
-                addMonster();
-                monsterAddCount++;  // Increment the monster add count
+    public void verifyBroadphase() {
+        EntityStore e = this.entities;
+        this.platformGrid.build(e, EntityStore.TYPE_PLATFORM);
+        this.monsterGrid.build(e, EntityStore.TYPE_MONSTER);
+
+        int mismatches = 0;
+        for (int row = 0; row < e.size(); row++) {
+            byte type = e.type[row];
+            if (type == EntityStore.TYPE_HERO || type == EntityStore.TYPE_MONSTER || type == EntityStore.TYPE_FRUIT
+                    || type == EntityStore.TYPE_BANANA || type == EntityStore.TYPE_APPLE) {
+                mismatches += verifyAgainstPlatforms(row);
+            } else if (type == EntityStore.TYPE_BUBBLE || type == EntityStore.TYPE_FIRE_BUBBLE) {
+                mismatches += verifyAgainstMonsters(row);
+            }
+        }
+        if (mismatches > 0) {
+            System.err.println("Broadphase mismatch: " + mismatches + " objects disagree with brute force");
+        }
+    }
+
+    private int verifyAgainstPlatforms(int row) {
+        Collidable c = this.entities.views[row];
+        int expected = 0;
+        int contacts = 0;
+        for (int i = 0; i < this.platforms.size(); i++) {
+            Platform p = this.platforms.get(i);
+            if (overlapping(p, c)) {
+                expected++;
+                contacts |= c.platformContacts(p);
+            }
+        }
+        // A streamed level's tile map also holds the platforms of sleeping chunks, which an
+        // entity that wandered out of the live chunks can stand on, so only the
+        // platforms that exist as objects are compared there
+        if (this.tileMap != null && this.chunks == null && c.tileContacts(this.tileMap) != contacts) {
+            return 1;
+        }
+        int found = 0;
+        int count = this.platformGrid.query(this.entities, row, 0);
+        for (int i = 0; i < count; i++) {
+            if (this.entities.overlaps(this.platformGrid.getResult(i), row)) {
+                found++;
             }
-            if (_this.hero1.lives == 0) {
-                _this.gameOver = true;
+        }
+        return (expected == found) ? 0 : 1;
+    }
+
+    private int verifyAgainstMonsters(int row) {
+        Collidable c = this.entities.views[row];
+        int expected = 0;
+        for (int i = 0; i < this.monsters.size(); i++) {
+            Monster m = this.monsters.get(i);
+            if (overlapping(c, m)) {
+                expected++;
             }
-            if (monsterAddCount >= 2) {
-                t.stop();  // Stop the timer after two monsters have been added
+        }
+        int found = 0;
+        int count = this.monsterGrid.query(this.entities, row, 0);
+        for (int i = 0; i < count; i++) {
+            if (this.entities.overlaps(row, this.monsterGrid.getResult(i))) {
+                found++;
             }
         }
+        return (expected == found) ? 0 : 1;
+    }
+
+    /**
+     * Starts the timer to check for monsters. Every second new monsters are added
+     * while the level is running low, and the number of added monsters is tracked.
+     * The check runs on the level's timer wheel, so it stops with the level, and it
+     * reuses one timeout, so it allocates nothing while it runs.
+     *
+     * @param index The current index or stage of the monster check.
+     */
+    public void startMonsterCheckTimer(int index) {
+        if (index < 10) {
+            this.timers.schedule(this.monsterCheckTimeout, TimerWheel.ticksFor(1000));
+        }
+    }
+
+    /**
+     * One run of the monster check timer.
+     *
+     * @return true if the check should run again.
+     */
+    private boolean checkMonsters() {
+        if (remainingMonsters() < 3 && monsterAddCount < 5) {
+            addMonster();  // Add two new monsters
+            addMonster();
+            monsterAddCount++;  // Increment the monster add count
+        }
+        if (this.hero1.lives == 0) {
+            this.gameOver = true;
+        }
+        return monsterAddCount < 2;  // Stop the timer after two monsters have been added
     }
 
     /**
@@ -0,0 +1,405 @@
+package BubbleBobble.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LevelChunks streams a level that is bigger than one screen. The level is cut into
+ * square chunks of CHUNK_TILES x CHUNK_TILES tiles, one screen each. Only the chunks
+ * around the camera are live: their monsters and items exist as objects and are simulated
+ * and drawn, and their platforms exist as objects and are drawn. Every other chunk is only
+ * records, the platform records and a spawn table like those of a level file, so a level
+ * costs memory and tick time for the few chunks around the camera however big it is.
+ *
+ * Entities are live in the chunks within ACTIVE_RADIUS of the camera's chunk, platforms one
+ * chunk further out, so whatever a live entity stands on or walks into always exists. A
+ * chunk is only put back to sleep one chunk beyond that, so walking back and forth over a
+ * chunk border does not wake and freeze the same chunk over and over.
+ *
+ * When a chunk goes to sleep its monsters, items and fruit are frozen back into spawn
+ * records at their current positions and woken up from there again. A fruit keeps its
+ * score value and a bubbled monster the time it still has to spend in its bubble; other
+ * timers (a fruit's grace period, a Giant's attacks) start over. Bubbles and fire that
+ * are out of range are dropped. Platforms wider or taller than a chunk (floors and walls) are live
+ * all the time. Platform contact uses the level's tile map, which is built from all the
+ * records, so sleeping geometry still counts.
+ */
+public class LevelChunks {
+
+    public static final int CHUNK_TILES = LevelLoader.NUM_TILES;
+    public static final int ACTIVE_RADIUS = 1;  // Chunks around the camera's with live entities
+
+    /**
+     * One chunk: what it holds as records, and as objects while it is live.
+     */
+    private static class Chunk {
+        final int column;
+        final int row;
+        final List<LevelData.PlatformRecord> platforms = new ArrayList<>();
+        final List<LevelData.Spawn> spawns = new ArrayList<>();  // Sleeping entities
+        final List<Platform> livePlatforms = new ArrayList<>();
+        boolean entitiesLive = false;
+        boolean platformsLive = false;
+
+        Chunk(int column, int row) {
+            this.column = column;
+            this.row = row;
+        }
+    }
+
+    public final int chunkSize;  // Side of a chunk in pixels
+    public final int columns;    // Chunks across
+    public final int rows;       // Chunks down
+    private final Chunk[] chunks;
+    private final List<LevelData.PlatformRecord> spanning = new ArrayList<>();  // Always live
+    private final List<Platform> liveSpanning = new ArrayList<>();
+    private final List<Chunk> live = new ArrayList<>();  // Chunks with anything live
+    private int focusColumn = -1;
+    private int focusRow = -1;
+
+    // Monsters asleep in records, which still have to be beaten to clear the level
+    public int sleepingMonsters = 0;
+
+    // Counts the changes to the live platforms, so the renderer knows to redraw them
+    public int platformVersion = 0;
+
+    /**
+     * Creates the chunks for a level.
+     *
+     * @param levelColumns The width of the level in tiles.
+     * @param levelRows The height of the level in tiles.
+     * @param tileSize The side of a tile in pixels.
+     */
+    public LevelChunks(int levelColumns, int levelRows, int tileSize) {
+        this.chunkSize = CHUNK_TILES * tileSize;
+        this.columns = Math.max(1, (levelColumns + CHUNK_TILES - 1) / CHUNK_TILES);
+        this.rows = Math.max(1, (levelRows + CHUNK_TILES - 1) / CHUNK_TILES);
+        this.chunks = new Chunk[this.columns * this.rows];
+        for (int row = 0; row < this.rows; row++) {
+            for (int col = 0; col < this.columns; col++) {
+                this.chunks[row * this.columns + col] = new Chunk(col, row);
+            }
+        }
+    }
+
+    /**
+     * @param levelColumns The width of a level in tiles.
+     * @param levelRows The height of a level in tiles.
+     * @return true if the level is bigger than one screen and should be streamed.
+     */
+    public static boolean needed(int levelColumns, int levelRows) {
+        return levelColumns > CHUNK_TILES || levelRows > CHUNK_TILES;
+    }
+
+    /**
+     * Adds a platform to the chunk it starts in, or to the level straight away if it is too
+     * big for a chunk.
+     *
+     * @param level The level being built.
+     * @param p The platform.
+     */
+    public void addPlatform(Level level, LevelData.PlatformRecord p) {
+        if (p.width > this.chunkSize || p.height > this.chunkSize) {
+            this.spanning.add(p);
+            Platform platform = newPlatform(level, p);
+            this.liveSpanning.add(platform);
+            level.addCollidable(platform);
+        } else {
+            this.chunkAt(p.x, p.y).platforms.add(p);
+        }
+    }
+
+    /**
+     * Adds an entity to the spawn table of the chunk it is in. It is created when the chunk
+     * wakes up.
+     *
+     * @param s The spawn record.
+     */
+    public void addSpawn(LevelData.Spawn s) {
+        Chunk chunk = this.chunkAt(s.x + LevelLoader.TILE_SIZE / 2, s.y + LevelLoader.TILE_SIZE / 2);
+        chunk.spawns.add(s);
+        if (isMonster(s.type)) {
+            this.sleepingMonsters++;
+        }
+        if (chunk.entitiesLive) {
+            // Nobody would wake it otherwise
+            this.focusColumn = -1;
+        }
+    }
+
+    /**
+     * Wakes the chunks around a point and puts the chunks too far from it to sleep. Cheap
+     * unless the point has moved into another chunk since the last call.
+     *
+     * @param level The level.
+     * @param x The X-coordinate of the point, usually the centre of the camera.
+     * @param y The Y-coordinate of the point.
+     * @return true if any chunk woke up or went to sleep.
+     */
+    public boolean update(Level level, int x, int y) {
+        int focusCol = this.clampColumn(Math.floorDiv(x, this.chunkSize));
+        int focusRow = this.clampRow(Math.floorDiv(y, this.chunkSize));
+        if (focusCol == this.focusColumn && focusRow == this.focusRow) {
+            return false;
+        }
+        this.focusColumn = focusCol;
+        this.focusRow = focusRow;
+        boolean changed = false;
+
+        // Put far chunks to sleep, freezing their entities below
+        boolean frozen = false;
+        for (int i = this.live.size() - 1; i >= 0; i--) {
+            Chunk chunk = this.live.get(i);
+            int distance = this.distance(chunk);
+            if (chunk.entitiesLive && distance > ACTIVE_RADIUS + 1) {
+                chunk.entitiesLive = false;
+                frozen = true;
+            }
+            if (chunk.platformsLive && distance > ACTIVE_RADIUS + 2) {
+                for (Platform p : chunk.livePlatforms) {
+                    level.removeCollidable(p);
+                }
+                chunk.livePlatforms.clear();
+                chunk.platformsLive = false;
+                this.platformVersion++;
+                changed = true;
+            }
+            if (!chunk.entitiesLive && !chunk.platformsLive) {
+                this.live.remove(i);
+            }
+        }
+        if (frozen) {
+            this.freeze(level);
+            changed = true;
+        }
+
+        // Wake near chunks, platforms first so the entities have something to stand on
+        int reach = ACTIVE_RADIUS + 1;
+        for (int row = Math.max(0, focusRow - reach); row <= Math.min(this.rows - 1, focusRow + reach); row++) {
+            for (int col = Math.max(0, focusCol - reach); col <= Math.min(this.columns - 1, focusCol + reach); col++) {
+                Chunk chunk = this.chunks[row * this.columns + col];
+                boolean wasLive = chunk.entitiesLive || chunk.platformsLive;
+                if (!chunk.platformsLive) {
+                    for (LevelData.PlatformRecord p : chunk.platforms) {
+                        Platform platform = newPlatform(level, p);
+                        chunk.livePlatforms.add(platform);
+                        level.addCollidable(platform);
+                    }
+                    chunk.platformsLive = true;
+                    this.platformVersion++;
+                    changed = true;
+                }
+                if (!chunk.entitiesLive && this.distance(chunk) <= ACTIVE_RADIUS) {
+                    for (LevelData.Spawn s : chunk.spawns) {
+                        wake(level, s);
+                        if (isMonster(s.type)) {
+                            this.sleepingMonsters--;
+                        }
+                    }
+                    chunk.spawns.clear();
+                    chunk.entitiesLive = true;
+                    changed = true;
+                }
+                if (!wasLive) {
+                    this.live.add(chunk);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Freezes every live entity that is in a sleeping chunk into a spawn record, or drops
+     * it if it has no spawn type.
+     */
+    private void freeze(Level level) {
+        EntityList<Collidable> collidables = level.collidables;
+        for (int i = 0; i < collidables.size(); i++) {
+            Collidable c = collidables.get(i);
+            if (c instanceof Platform || c instanceof Hero || c.isRemoved) {
+                continue;
+            }
+            Chunk chunk = this.chunkAt(c.getX() + c.getWidth() / 2, c.getY() + c.getHeight() / 2);
+            if (chunk.entitiesLive) {
+                continue;
+            }
+            byte type = typeOf(c);
+            if (type != 0) {
+                chunk.spawns.add(new LevelData.Spawn(type, c.getX(), c.getY(), valueOf(c)));
+                if (isMonster(type)) {
+                    this.sleepingMonsters++;
+                }
+            }
+            level.removeCollidable(c);
+        }
+    }
+
+    /**
+     * Replaces the platform records, e.g. after the level file was edited, and brings the
+     * live platforms in line with them.
+     *
+     * @param level The level.
+     * @param platforms The new platform records.
+     * @return The number of platforms removed plus the number added.
+     */
+    public int replacePlatforms(Level level, List<LevelData.PlatformRecord> platforms) {
+        Map<List<Object>, Integer> old = new HashMap<>();
+        int oldCount = 0;
+        for (LevelData.PlatformRecord p : this.allPlatforms()) {
+            old.merge(key(p), 1, Integer::sum);
+            oldCount++;
+        }
+        int common = 0;
+        for (LevelData.PlatformRecord p : platforms) {
+            Integer count = old.get(key(p));
+            if (count != null) {
+                common++;
+                if (count == 1) {
+                    old.remove(key(p));
+                } else {
+                    old.put(key(p), count - 1);
+                }
+            }
+        }
+        int changes = oldCount + platforms.size() - 2 * common;
+        if (changes == 0) {
+            return 0;
+        }
+
+        for (Platform p : this.liveSpanning) {
+            level.removeCollidable(p);
+        }
+        this.liveSpanning.clear();
+        this.spanning.clear();
+        for (Chunk chunk : this.chunks) {
+            for (Platform p : chunk.livePlatforms) {
+                level.removeCollidable(p);
+            }
+            chunk.livePlatforms.clear();
+            chunk.platformsLive = false;
+            chunk.platforms.clear();
+        }
+        for (LevelData.PlatformRecord p : platforms) {
+            this.addPlatform(level, p);
+        }
+        // Wake the platforms around the camera again
+        int focusCol = this.focusColumn;
+        int focusRow = this.focusRow;
+        this.focusColumn = -1;
+        this.update(level, focusCol * this.chunkSize + this.chunkSize / 2, focusRow * this.chunkSize + this.chunkSize / 2);
+        return changes;
+    }
+
+    /**
+     * Rasterizes every platform record onto a tile map, live or not.
+     *
+     * @param map The map to fill.
+     */
+    public void rasterize(TileMap map) {
+        for (LevelData.PlatformRecord p : this.allPlatforms()) {
+            map.addPlatform(p.x, p.y, p.width, p.height);
+        }
+    }
+
+    /**
+     * @return The number of chunks with live entities.
+     */
+    public int liveChunks() {
+        int n = 0;
+        for (Chunk chunk : this.live) {
+            if (chunk.entitiesLive) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private List<LevelData.PlatformRecord> allPlatforms() {
+        List<LevelData.PlatformRecord> all = new ArrayList<>(this.spanning);
+        for (Chunk chunk : this.chunks) {
+            all.addAll(chunk.platforms);
+        }
+        return all;
+    }
+
+    private Chunk chunkAt(int x, int y) {
+        int col = this.clampColumn(Math.floorDiv(x, this.chunkSize));
+        int row = this.clampRow(Math.floorDiv(y, this.chunkSize));
+        return this.chunks[row * this.columns + col];
+    }
+
+    private int clampColumn(int col) {
+        return Math.max(0, Math.min(this.columns - 1, col));
+    }
+
+    private int clampRow(int row) {
+        return Math.max(0, Math.min(this.rows - 1, row));
+    }
+
+    private int distance(Chunk chunk) {
+        return Math.max(Math.abs(chunk.column - this.focusColumn), Math.abs(chunk.row - this.focusRow));
+    }
+
+    private static Platform newPlatform(Level level, LevelData.PlatformRecord p) {
+        return new Platform(level, p.x, p.y, p.width, p.height, SpriteRegistry.get(p.sprite));
+    }
+
+    private static List<Object> key(LevelData.PlatformRecord p) {
+        return Arrays.asList(p.x, p.y, p.width, p.height, p.sprite);
+    }
+
+    private static boolean isMonster(byte type) {
+        return type == LevelData.BUBBLE_BUSTER || type == LevelData.INCENDO || type == LevelData.GIANT;
+    }
+
+    /**
+     * Creates the entity of a spawn record of a chunk that wakes up.
+     */
+    private static void wake(Level level, LevelData.Spawn s) {
+        if (s.type == LevelData.FRUIT) {
+            level.spawnFruit(s.x, s.y, LevelLoader.TILE_SIZE, LevelLoader.TILE_SIZE, s.value);
+            return;
+        }
+        Collidable c = LevelLoader.spawn(level, s.type, s.x, s.y, LevelLoader.TILE_SIZE);
+        if (s.value > 0 && c instanceof Monster) {
+            ((Monster) c).bubbleFor(s.value);
+        }
+    }
+
+    /**
+     * @return The value an entity is frozen with: see LevelData.Spawn.
+     */
+    private static int valueOf(Collidable c) {
+        if (c instanceof Fruit) {
+            return c.scoreValue;
+        } else if (c instanceof Monster) {
+            return (int) ((Monster) c).bubbledTicksLeft();
+        }
+        return 0;
+    }
+
+    /**
+     * @return The spawn type an entity is frozen as, or 0 if it is not kept.
+     */
+    private static byte typeOf(Collidable c) {
+        if (c instanceof BubbleBuster) {
+            return LevelData.BUBBLE_BUSTER;
+        } else if (c instanceof Incendo) {
+            return LevelData.INCENDO;
+        } else if (c instanceof Giant) {
+            return LevelData.GIANT;
+        } else if (c instanceof FireIcon) {
+            return LevelData.FIRE_ICON;
+        } else if (c instanceof Banana) {
+            return LevelData.BANANA;
+        } else if (c instanceof Apple) {
+            return LevelData.APPLE;
+        } else if (c instanceof Fruit) {
+            return LevelData.FRUIT;  // Rascal too, its score value tells it apart
+        }
+        return 0;  // Bubbles and fire
+    }
+}
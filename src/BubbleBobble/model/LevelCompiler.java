@@ -0,0 +1,216 @@
+package BubbleBobble.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * LevelCompiler writes levels in the compiled binary format that LevelLoader memory maps.
+ * A compiled level is levels/levelN.lvl next to its levels/levelN.txt. All numbers are
+ * big-endian:
+ *
+ * <pre>
+ * header (HEADER_SIZE bytes)
+ *   int   MAGIC ("BBLV")
+ *   short VERSION
+ *   short HEADER_SIZE
+ *   int   columns, rows, tileSize
+ *   int   string count, platform count, spawn count
+ *   int   payload length (everything after the header)
+ *   int   CRC32 of the payload
+ * payload
+ *   strings    string count x (short length, UTF-8 bytes), the sprite paths
+ *   screen     short string index or -1, byte 1 if it is the game over screen
+ *   geometry   platform count x (int x, int y, int width, int height, short sprite index)
+ *   spawns     spawn count x (byte type, int x, int y), see the LevelData constants
+ * </pre>
+ *
+ * The geometry is the platform records after LevelData.mergePlatforms(): platforms that
+ * sit side by side in a row with the same sprite are one record, drawn by repeating the
+ * sprite across its width. A row of the text file like "M--M--S-S-" is two records
+ * instead of four.
+ *
+ * Every record has a fixed size and nothing has to be looked up by name except the few
+ * sprite paths, so building a level from the file is one pass over the mapped bytes, and
+ * the size of the file grows with what is in the level rather than with the size of its
+ * grid.
+ *
+ * Run it to compile every level in the levels directory ahead of time, or pass the text
+ * files to compile. LevelLoader also compiles a level the first time it reads its text.
+ */
+public class LevelCompiler {
+
+    public static final int MAGIC = 0x42424C56;  // "BBLV"
+    public static final short VERSION = 2;  // 2: platforms side by side are merged
+    public static final int HEADER_SIZE = 40;
+    public static final String EXTENSION = ".lvl";
+
+    /**
+     * @param textFile A text level file.
+     * @return The compiled file that belongs to it.
+     */
+    public static File compiledFile(File textFile) {
+        String name = textFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(textFile.getParentFile(), ((dot < 0) ? name : name.substring(0, dot)) + EXTENSION);
+    }
+
+    /**
+     * Encodes a level.
+     *
+     * @param data The level description.
+     * @return The compiled level.
+     */
+    public static byte[] compile(LevelData data) {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new HashMap<>();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try {
+            // Sprite indexes first, so the string table is known before it is written
+            short[] sprites = new short[data.platforms.size()];
+            for (int i = 0; i < sprites.length; i++) {
+                sprites[i] = intern(data.platforms.get(i).sprite, strings, stringIndex);
+            }
+            short screen = (data.screen == null) ? -1 : intern(data.screen, strings, stringIndex);
+
+            DataOutputStream out = new DataOutputStream(payload);
+            for (String s : strings) {
+                byte[] bytes = (s == null) ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            out.writeShort(screen);
+            out.writeByte(data.gameOverScreen ? 1 : 0);
+            for (int i = 0; i < sprites.length; i++) {
+                LevelData.PlatformRecord p = data.platforms.get(i);
+                out.writeInt(p.x);
+                out.writeInt(p.y);
+                out.writeInt(p.width);
+                out.writeInt(p.height);
+                out.writeShort(sprites[i]);
+            }
+            for (LevelData.Spawn s : data.spawns) {
+                out.writeByte(s.type);
+                out.writeInt(s.x);
+                out.writeInt(s.y);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // Cannot happen writing to memory
+        }
+
+        byte[] body = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        ByteArrayOutputStream file = new ByteArrayOutputStream(HEADER_SIZE + body.length);
+        try {
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(HEADER_SIZE);
+            out.writeInt(data.columns);
+            out.writeInt(data.rows);
+            out.writeInt(data.tileSize);
+            out.writeInt(strings.size());
+            out.writeInt(data.platforms.size());
+            out.writeInt(data.spawns.size());
+            out.writeInt(body.length);
+            out.writeInt((int) crc.getValue());
+            out.write(body);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return file.toByteArray();
+    }
+
+    /**
+     * Writes a compiled level. The file is written under a temporary name and then renamed,
+     * so a reader never maps a half-written file.
+     *
+     * @param data The level description.
+     * @param file The compiled file to write.
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(LevelData data, File file) throws IOException {
+        byte[] bytes = compile(data);
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(bytes);
+        }
+        if (!temp.renameTo(file)) {
+            // Windows does not rename over an existing file
+            if (!file.delete() || !temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Cannot replace " + file);
+            }
+        }
+    }
+
+    /**
+     * Writes a compiled level if possible. The compiled file is only a cache of the text,
+     * so a read-only levels directory is not an error.
+     *
+     * @param data The level description.
+     * @param file The compiled file to write.
+     */
+    static void writeQuietly(LevelData data, File file) {
+        try {
+            write(data, file);
+        } catch (IOException | SecurityException e) {
+            // Keep reading the text file
+        }
+    }
+
+    private static short intern(String s, List<String> strings, Map<String, Integer> stringIndex) {
+        Integer index = stringIndex.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.add(s);
+            stringIndex.put(s, index);
+        }
+        return (short) (int) index;
+    }
+
+    /**
+     * Compiles the given text level files, or every levels/level*.txt if none are given.
+     *
+     * @param args Text level files.
+     */
+    public static void main(String[] args) {
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            files.add(new File(arg));
+        }
+        if (files.isEmpty()) {
+            File[] found = new File("levels").listFiles((dir, name) -> name.matches("level\\d+\\.txt"));
+            if (found != null) {
+                files.addAll(List.of(found));
+            }
+        }
+        int failed = 0;
+        for (File text : files) {
+            File compiled = compiledFile(text);
+            try {
+                LevelData data = LevelLoader.parse(text);
+                write(data, compiled);
+                System.out.println(text + " -> " + compiled + " (" + data.platforms.size() + " platforms, "
+                        + data.spawns.size() + " spawns, " + compiled.length() + " bytes)");
+            } catch (IOException e) {
+                System.err.println(text + ": " + e.getMessage());
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
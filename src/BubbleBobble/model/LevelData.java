@@ -0,0 +1,111 @@
+package BubbleBobble.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * LevelData is a level as it is stored, before any object of it exists: its size, its
+ * static geometry as one record per platform, a table of what spawns where, and the
+ * menu screen if it is one. LevelLoader reads it from a text level file and builds levels
+ * from it; LevelCompiler writes it in the compiled binary format.
+ */
+public class LevelData {
+
+    // Spawn types, as stored in compiled levels
+    public static final byte HERO = 1;
+    public static final byte BUBBLE_BUSTER = 2;
+    public static final byte INCENDO = 3;
+    public static final byte GIANT = 4;
+    public static final byte FIRE_ICON = 5;
+    public static final byte BANANA = 6;
+    public static final byte APPLE = 7;
+    public static final byte RASCAL = 8;  // The special fruit
+    public static final byte LAST_SPAWN_TYPE = RASCAL;
+    // Fruit of any score value, only recorded by LevelChunks and never stored in a file
+    public static final byte FRUIT = 9;
+
+    /**
+     * One platform: a rectangle and the sprite it is drawn with, repeated across the
+     * width of the rectangle.
+     */
+    public static class PlatformRecord {
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+        public final String sprite;
+
+        public PlatformRecord(int x, int y, int width, int height, String sprite) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.sprite = sprite;
+        }
+    }
+
+    /**
+     * One entity to create when the level is built.
+     */
+    public static class Spawn {
+        public final byte type;
+        public final int x;
+        public final int y;
+        // The score of a FRUIT, the ticks a monster still spends in its bubble, or 0
+        public final int value;
+
+        public Spawn(byte type, int x, int y) {
+            this(type, x, y, 0);
+        }
+
+        public Spawn(byte type, int x, int y, int value) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.value = value;
+        }
+    }
+
+    public int columns;
+    public int rows;
+    public int tileSize;
+    public String screen;            // Menu screen image, or null
+    public boolean gameOverScreen;   // The screen is the game over screen
+    public final List<PlatformRecord> platforms = new ArrayList<>();
+    public final List<Spawn> spawns = new ArrayList<>();
+
+    public LevelData(int columns, int rows, int tileSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Merges every run of platforms that sit side by side in the same row and are drawn
+     * with the same sprite into one record. The merged platform repeats the sprite where
+     * the separate ones each drew it once, so the level looks the same with fewer
+     * platforms to store, build, stream and collide with. Only records that follow each
+     * other are merged, which is every such run in a level read row by row.
+     */
+    public void mergePlatforms() {
+        List<PlatformRecord> merged = new ArrayList<>(this.platforms.size());
+        PlatformRecord run = null;
+        for (PlatformRecord p : this.platforms) {
+            if (run != null && p.y == run.y && p.height == run.height && p.x == run.x + run.width
+                    && Objects.equals(p.sprite, run.sprite)) {
+                run = new PlatformRecord(run.x, run.y, run.width + p.width, run.height, run.sprite);
+            } else {
+                if (run != null) {
+                    merged.add(run);
+                }
+                run = p;
+            }
+        }
+        if (run != null) {
+            merged.add(run);
+        }
+        this.platforms.clear();
+        this.platforms.addAll(merged);
+    }
+}
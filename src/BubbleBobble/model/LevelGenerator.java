@@ -0,0 +1,257 @@
+package BubbleBobble.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * LevelGenerator makes random level grids in the level file vocabulary, for measuring how
+ * the game behaves with far more in it than the hand-made levels have. The same seed and
+ * settings always give the same level, so a measurement can be repeated exactly.
+ *
+ * A generated level looks like the hand-made ones: walls on both sides, a floor, rows of
+ * platforms ('7', 'S', 'M' and 'L') every few rows, the hero in the bottom left corner and
+ * monsters ('B', 'I', '+') and items ('A', '9', 'C') scattered over the free tiles.
+ * Densities are shares of the free tiles, so a bigger grid at the same densities holds
+ * proportionally more. The defaults are about what the hand-made levels have.
+ *
+ * Generated levels can be written as text files and compiled files (see LevelCompiler),
+ * or built directly. Run it to write a set of them:
+ *
+ * java BubbleBobble.model.LevelGenerator [-size 60x60 | -scale 10] [-monsters 0.015]
+ *     [-items 0.03] [-platforms 0.35] [-seed 1] [-n 1] [-o levels/generated]
+ */
+public class LevelGenerator {
+
+    public static final double MONSTER_DENSITY = 0.015;  // About 5 monsters in a 20x20 level
+    public static final double ITEM_DENSITY = 0.03;
+    public static final double PLATFORM_DENSITY = 0.35;
+    public static final int PLATFORM_SPACING = 3;  // Rows from one platform row to the next
+
+    private static final char[] PLATFORMS = {'7', 'S', 'M', 'L'};
+    private static final int[] PLATFORM_WIDTHS = {1, 2, 3, 5};
+    private static final char EMPTY = 'O';
+
+    public final long seed;
+    public int columns = LevelLoader.NUM_TILES;
+    public int rows = LevelLoader.NUM_TILES;
+    public double monsterDensity = MONSTER_DENSITY;  // Share of free tiles with a monster
+    public double itemDensity = ITEM_DENSITY;  // Share of free tiles with an item
+    public double platformDensity = PLATFORM_DENSITY;  // Share of a platform row covered
+
+    /**
+     * Creates a generator for levels of the game's size and the default densities.
+     *
+     * @param seed The seed the levels are made from.
+     */
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Creates a generator for levels with about scale times the entities of a hand-made
+     * level, at the same densities on a grid with scale times the area.
+     *
+     * @param seed The seed the levels are made from.
+     * @param scale How many times bigger than a hand-made level.
+     * @return The generator.
+     */
+    public static LevelGenerator scaled(long seed, int scale) {
+        LevelGenerator generator = new LevelGenerator(seed);
+        int side = (int) Math.round(LevelLoader.NUM_TILES * Math.sqrt(scale));
+        generator.columns = side;
+        generator.rows = side;
+        return generator;
+    }
+
+    /**
+     * Generates the level as the rows of a text level file.
+     *
+     * @return The rows, top first.
+     * @throws IllegalArgumentException if the grid is too small for walls, floor and hero
+     */
+    public List<String> generate() {
+        if (this.columns < 4 || this.rows < 4) {
+            throw new IllegalArgumentException("Levels need at least 4x4 tiles, not " + this.columns + "x" + this.rows);
+        }
+        Random random = new Random(this.seed);
+        char[][] grid = new char[this.rows][this.columns];
+        for (char[] row : grid) {
+            Arrays.fill(row, EMPTY);
+        }
+
+        // Walls are full height from the top row, the floor full width from the left
+        grid[0][0] = 'W';
+        grid[0][this.columns - 1] = 'W';
+        for (int row = 1; row < this.rows - 1; row++) {
+            grid[row][0] = '|';
+            grid[row][this.columns - 1] = '|';
+        }
+        grid[this.rows - 1][0] = 'F';
+        for (int col = 1; col < this.columns; col++) {
+            grid[this.rows - 1][col] = '-';
+        }
+
+        // Platform rows counted up from the floor, leaving the top rows open
+        boolean[] platformRow = new boolean[this.rows];
+        for (int row = this.rows - 1 - PLATFORM_SPACING; row >= 3; row -= PLATFORM_SPACING) {
+            platformRow[row] = true;
+            int col = 1 + random.nextInt(3);
+            while (col < this.columns - 1) {
+                int kind = random.nextInt(PLATFORMS.length);
+                int width = PLATFORM_WIDTHS[kind];
+                if (col + width > this.columns - 1) {
+                    break;
+                }
+                if (random.nextDouble() < this.platformDensity) {
+                    grid[row][col] = PLATFORMS[kind];
+                    for (int i = 1; i < width; i++) {
+                        grid[row][col + i] = '-';
+                    }
+                    col += width + 1;  // Always a gap to jump through
+                } else {
+                    col += width;
+                }
+            }
+        }
+
+        // The hero starts on the floor in the bottom left corner, like in every level
+        grid[this.rows - 2][1] = 'H';
+
+        for (int row = 1; row < this.rows - 1; row++) {
+            if (platformRow[row]) {
+                continue;
+            }
+            for (int col = 1; col < this.columns - 1; col++) {
+                if (grid[row][col] != EMPTY) {
+                    continue;
+                }
+                double roll = random.nextDouble();
+                if (roll < this.monsterDensity) {
+                    double kind = random.nextDouble();
+                    grid[row][col] = (kind < 0.5) ? 'B' : (kind < 0.85) ? 'I' : '+';
+                } else if (roll < this.monsterDensity + this.itemDensity) {
+                    double kind = random.nextDouble();
+                    grid[row][col] = (kind < 0.1) ? 'A' : (kind < 0.55) ? '9' : 'C';
+                }
+            }
+        }
+
+        List<String> lines = new ArrayList<>(this.rows);
+        for (char[] row : grid) {
+            lines.add(new String(row));
+        }
+        return lines;
+    }
+
+    /**
+     * @return The generated level, ready for LevelLoader.build().
+     */
+    public LevelData generateData() {
+        return LevelLoader.parse(this.generate());
+    }
+
+    /**
+     * Writes the generated level as a text level file and compiles it next to it.
+     *
+     * @param textFile The text file to write, e.g. levels/generated/level1.txt.
+     * @throws IOException if a file cannot be written
+     */
+    public void write(File textFile) throws IOException {
+        List<String> lines = this.generate();
+        File dir = textFile.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        try (PrintWriter out = new PrintWriter(textFile, StandardCharsets.UTF_8.name())) {
+            for (String line : lines) {
+                out.print(line);
+                out.print("\r\n");  // Like the hand-made files
+            }
+        }
+        LevelCompiler.write(LevelLoader.parse(lines), LevelCompiler.compiledFile(textFile));
+    }
+
+    /**
+     * Writes generated levels: level1.txt, level2.txt, ... with their compiled files, each
+     * made from the seed plus its number.
+     *
+     * @param args See the class comment.
+     */
+    public static void main(String[] args) {
+        long seed = 1;
+        int count = 1;
+        int scale = 0;
+        int columns = LevelLoader.NUM_TILES;
+        int rows = LevelLoader.NUM_TILES;
+        double monsters = MONSTER_DENSITY;
+        double items = ITEM_DENSITY;
+        double platforms = PLATFORM_DENSITY;
+        File dir = new File("levels/generated");
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = (i + 1 < args.length) ? args[i + 1] : "";
+                switch (args[i]) {
+                    case "-size":
+                        String[] size = value.split("x");
+                        columns = Integer.parseInt(size[0]);
+                        rows = Integer.parseInt(size[size.length - 1]);
+                        break;
+                    case "-scale":
+                        scale = Integer.parseInt(value);
+                        break;
+                    case "-monsters":
+                        monsters = Double.parseDouble(value);
+                        break;
+                    case "-items":
+                        items = Double.parseDouble(value);
+                        break;
+                    case "-platforms":
+                        platforms = Double.parseDouble(value);
+                        break;
+                    case "-seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "-n":
+                        count = Integer.parseInt(value);
+                        break;
+                    case "-o":
+                        dir = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+                i++;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+
+        for (int n = 1; n <= count; n++) {
+            LevelGenerator generator = (scale > 0) ? scaled(seed + n, scale) : new LevelGenerator(seed + n);
+            if (scale <= 0) {
+                generator.columns = columns;
+                generator.rows = rows;
+            }
+            generator.monsterDensity = monsters;
+            generator.itemDensity = items;
+            generator.platformDensity = platforms;
+            File file = new File(dir, "level" + n + ".txt");
+            try {
+                generator.write(file);
+                LevelData data = LevelLoader.parse(file);
+                System.out.println(file + ": " + data.columns + "x" + data.rows + ", " + data.platforms.size()
+                        + " platforms, " + data.spawns.size() + " spawns");
+            } catch (IOException e) {
+                System.err.println(file + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package BubbleBobble.model;
+
+import java.awt.Image;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.zip.CRC32;
+
+/**
+ * LevelLoader builds Level objects from the level files in the levels directory. A level
+ * file is a grid of characters, one per tile, where each character places a platform, the
+ * hero, a monster, an item or a menu screen. The game's levels are NUM_TILES x NUM_TILES;
+ * other sizes (e.g. from LevelGenerator) are read the same way, the floor and walls
+ * spanning the whole grid.
+ *
+ * The text files are the source. Each is compiled into a binary file next to it (see
+ * LevelCompiler) the first time it is read, and from then on the binary file is memory
+ * mapped and the level built straight from it, without parsing anything. A compiled file
+ * that is older than its text file, or fails its checksum, is ignored and the text file
+ * read instead.
+ *
+ * Loading only needs the model, so levels can be built in a headless JVM (sprites are
+ * then null, see SpriteRegistry).
+ */
+public class LevelLoader {
+
+    public static final int NUM_TILES = 20;
+    public static final int TILE_SIZE = 35;
+
+    // Compiled files mapped so far, so switching back to a level does not map it again
+    private static final Map<File, Mapping> MAPPINGS = new HashMap<>();
+
+    /**
+     * A compiled file's mapping and the file it was mapped from.
+     */
+    private static class Mapping {
+        final long lastModified;
+        final long length;
+        final MappedByteBuffer buffer;
+
+        Mapping(long lastModified, long length, MappedByteBuffer buffer) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Takes in a level number and constructs the corresponding level, from its compiled
+     * file if there is an up-to-date one and from its text file otherwise.
+     *
+     * @param levelNum The number of the level file to read.
+     * @return a newly constructed Level, or null if the file cannot be read
+     */
+    public static Level load(int levelNum) {
+        File text = new File("levels/level" + levelNum + ".txt");
+        File compiled = LevelCompiler.compiledFile(text);
+        if (compiled.isFile() && (!text.exists() || compiled.lastModified() >= text.lastModified())) {
+            try {
+                return loadCompiled(compiled);
+            } catch (IOException e) {
+                System.err.println("Ignoring " + compiled + ": " + e.getMessage());
+            }
+        }
+        try {
+            LevelData data = parse(text);
+            LevelCompiler.writeQuietly(data, compiled);  // Compiled for the next time
+            return build(data);
+        } catch (IOException e) {
+            System.err.println("File not found");
+        }
+        return null;
+    }
+
+    /**
+     * Constructs a level from a text level file.
+     *
+     * @param file The level file.
+     * @return a newly constructed Level
+     * @throws IOException if the file cannot be read
+     */
+    public static Level load(File file) throws IOException {
+        return build(parse(file));
+    }
+
+    /**
+     * Reads a text level file.
+     *
+     * @param file The level file.
+     * @return What the file describes.
+     * @throws IOException if the file cannot be read
+     */
+    public static LevelData parse(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Scanner r1 = new Scanner(file)) {
+            while (r1.hasNextLine()) {
+                lines.add(r1.nextLine());
+            }
+        }
+        return parse(lines);
+    }
+
+    /**
+     * Reads the rows of a text level. The grid is as wide as its longest row; missing
+     * tiles at the end of shorter rows are empty, and empty lines at the end are not rows.
+     *
+     * @param lines The rows of the level, top first.
+     * @return What the rows describe.
+     */
+    public static LevelData parse(List<String> lines) {
+        int rows = lines.size();
+        while (rows > 0 && lines.get(rows - 1).isEmpty()) {
+            rows--;
+        }
+        int columns = 0;
+        for (int i = 0; i < rows; i++) {
+            columns = Math.max(columns, lines.get(i).length());
+        }
+        LevelData data = new LevelData(columns, rows, TILE_SIZE);
+        for (int currentRow = 0; currentRow < rows; currentRow++) {
+            String currentLine = lines.get(currentRow);
+            for (int i = 0; i < currentLine.length(); i++) {
+                addTile(data, currentLine.charAt(i), TILE_SIZE * i, TILE_SIZE * currentRow);
+            }
+        }
+        data.mergePlatforms();
+        return data;
+    }
+
+    /**
+     * Constructs a level: the platforms first, then the spawns in table order. A level
+     * bigger than the screen is streamed (see LevelChunks): its platforms and spawns go
+     * into chunks, and only the ones around the hero are created here.
+     *
+     * @param data The level description.
+     * @return a newly constructed Level
+     */
+    public static Level build(LevelData data) {
+        Level level = new Level();
+        if (LevelChunks.needed(data.columns, data.rows)) {
+            level.chunks = new LevelChunks(data.columns, data.rows, data.tileSize);
+        }
+        for (LevelData.PlatformRecord p : data.platforms) {
+            addPlatform(level, p);
+        }
+        for (LevelData.Spawn s : data.spawns) {
+            addSpawn(level, s, data.tileSize);
+        }
+        if (data.screen != null) {
+            level.setLevelScreen(SpriteRegistry.get(data.screen), data.gameOverScreen);
+        }
+        level.compileTileMap(data.columns, data.rows);
+        wakeChunks(level);
+        return level;
+    }
+
+    private static void addPlatform(Level level, LevelData.PlatformRecord p) {
+        if (level.chunks != null) {
+            level.chunks.addPlatform(level, p);
+        } else {
+            level.addCollidable(new Platform(level, p.x, p.y, p.width, p.height, SpriteRegistry.get(p.sprite)));
+        }
+    }
+
+    private static void addSpawn(Level level, LevelData.Spawn s, int tileSize) {
+        if (level.chunks != null && s.type != LevelData.HERO) {
+            level.chunks.addSpawn(s);
+        } else {
+            spawn(level, s.type, s.x, s.y, tileSize);
+        }
+    }
+
+    /**
+     * Puts the camera on the hero and wakes the chunks of a streamed level around it, so
+     * the first tick already has everything near it.
+     */
+    private static void wakeChunks(Level level) {
+        level.camera.follow(level.hero1);
+        if (level.chunks != null) {
+            level.chunks.update(level, level.camera.centerX(), level.camera.centerY());
+        }
+    }
+
+    /**
+     * Brings the static geometry of a running level in line with a new description of it,
+     * e.g. after its level file was edited. Platforms in both stay as they are, platforms
+     * that are gone are removed and new ones added; nothing else in the level (monsters,
+     * items, score, lives) is touched, and spawns in the description are ignored. Meant
+     * to be called between ticks on the thread that runs the level.
+     *
+     * @param level The running level.
+     * @param data The new description.
+     * @return The number of platforms removed plus the number added.
+     */
+    public static int patchGeometry(Level level, LevelData data) {
+        if (level.chunks != null) {
+            // Sleeping platforms are records, so the chunks compare the records
+            int changes = level.chunks.replacePlatforms(level, data.platforms);
+            if (changes > 0) {
+                level.compileTileMap(data.columns, data.rows);
+            }
+            return changes;
+        }
+        // What the level should have, counted, since two platforms can be identical
+        Map<List<Object>, Integer> wanted = new HashMap<>();
+        for (LevelData.PlatformRecord p : data.platforms) {
+            wanted.merge(geometryKey(p.x, p.y, p.width, p.height, SpriteRegistry.get(p.sprite)), 1, Integer::sum);
+        }
+        int changes = 0;
+        for (int i = 0; i < level.platforms.size(); i++) {
+            Platform p = level.platforms.get(i);
+            if (p.isRemoved) {
+                continue;
+            }
+            List<Object> key = geometryKey(p.getX(), p.getY(), p.getWidth(), p.getHeight(), p.sprite);
+            Integer count = wanted.get(key);
+            if (count == null) {
+                level.removeCollidable(p);  // Gone at the end of the next tick
+                changes++;
+            } else if (count == 1) {
+                wanted.remove(key);
+            } else {
+                wanted.put(key, count - 1);
+            }
+        }
+        for (LevelData.PlatformRecord p : data.platforms) {
+            List<Object> key = geometryKey(p.x, p.y, p.width, p.height, SpriteRegistry.get(p.sprite));
+            Integer count = wanted.get(key);
+            if (count == null) {
+                continue;
+            }
+            if (count == 1) {
+                wanted.remove(key);
+            } else {
+                wanted.put(key, count - 1);
+            }
+            level.addCollidable(new Platform(level, p.x, p.y, p.width, p.height, SpriteRegistry.get(p.sprite)));
+            changes++;
+        }
+        if (changes > 0) {
+            // New platforms are in the platform list already; removed ones are taken out
+            // of the map again when the next tick removes them
+            level.compileTileMap(data.columns, data.rows);
+        }
+        return changes;
+    }
+
+    private static List<Object> geometryKey(int x, int y, int width, int height, Image sprite) {
+        return Arrays.asList(x, y, width, height, sprite);
+    }
+
+    /**
+     * Constructs a level from a compiled level file, reading it through a memory mapping.
+     * The mapping is kept until the file changes, so loading the level again costs no more
+     * than building it.
+     *
+     * @param file The compiled level file.
+     * @return a newly constructed Level
+     * @throws IOException if the file cannot be read or is not a valid compiled level
+     */
+    public static Level loadCompiled(File file) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        MappedByteBuffer buffer;
+        synchronized (MAPPINGS) {
+            Mapping mapping = MAPPINGS.get(file);
+            if (mapping == null || mapping.lastModified != lastModified || mapping.length != length) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    mapping = new Mapping(lastModified, length, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+                MAPPINGS.put(file, mapping);
+            }
+            buffer = mapping.buffer;
+        }
+        try {
+            return build(buffer);
+        } catch (IOException e) {
+            synchronized (MAPPINGS) {
+                MAPPINGS.remove(file);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Constructs a level from the bytes of a compiled level (see LevelCompiler for the
+     * layout), checking the header and checksum first.
+     *
+     * @param buffer The compiled level, from its position to its limit.
+     * @return a newly constructed Level
+     * @throws IOException if the bytes are not a valid compiled level
+     */
+    public static Level build(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice();
+        if (in.remaining() < LevelCompiler.HEADER_SIZE || in.getInt(0) != LevelCompiler.MAGIC) {
+            throw new IOException("not a compiled level");
+        }
+        if (in.getShort(4) != LevelCompiler.VERSION) {
+            throw new IOException("compiled level version " + in.getShort(4));
+        }
+        int columns = in.getInt(8);
+        int rows = in.getInt(12);
+        int tileSize = in.getInt(16);
+        int stringCount = in.getInt(20);
+        int platformCount = in.getInt(24);
+        int spawnCount = in.getInt(28);
+        int payloadLength = in.getInt(32);
+        int checksum = in.getInt(36);
+        if (payloadLength < 0 || payloadLength != in.remaining() - LevelCompiler.HEADER_SIZE) {
+            throw new IOException("truncated compiled level");
+        }
+        in.position(LevelCompiler.HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("checksum mismatch");
+        }
+
+        try {
+            // Every sprite path is read once, however many platforms use it
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                byte[] bytes = new byte[in.getShort() & 0xFFFF];
+                in.get(bytes);
+                strings[i] = bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+            }
+            int screen = in.getShort();
+            boolean gameOverScreen = in.get() != 0;
+
+            Level level = new Level();
+            if (LevelChunks.needed(columns, rows)) {
+                level.chunks = new LevelChunks(columns, rows, tileSize);
+            }
+            for (int i = 0; i < platformCount; i++) {
+                int x = in.getInt();
+                int y = in.getInt();
+                int width = in.getInt();
+                int height = in.getInt();
+                String sprite = strings[in.getShort()];
+                if (level.chunks != null) {
+                    level.chunks.addPlatform(level, new LevelData.PlatformRecord(x, y, width, height, sprite));
+                } else {
+                    level.addCollidable(new Platform(level, x, y, width, height, SpriteRegistry.get(sprite)));
+                }
+            }
+            for (int i = 0; i < spawnCount; i++) {
+                byte type = in.get();
+                int x = in.getInt();
+                int y = in.getInt();
+                if (level.chunks != null && type != LevelData.HERO) {
+                    level.chunks.addSpawn(new LevelData.Spawn(type, x, y));
+                } else {
+                    spawn(level, type, x, y, tileSize);
+                }
+            }
+            if (screen >= 0) {
+                level.setLevelScreen(SpriteRegistry.get(strings[screen]), gameOverScreen);
+            }
+            level.compileTileMap(columns, rows);
+            wakeChunks(level);
+            return level;
+        } catch (RuntimeException e) {
+            // A bad index or count that the checksum did not catch
+            throw new IOException("corrupt compiled level", e);
+        }
+    }
+
+    /**
+     * Creates the entity of a spawn table entry.
+     *
+     * @param level The level being built.
+     * @param type The spawn type, one of the LevelData constants.
+     * @param x The X-coordinate of the tile.
+     * @param y The Y-coordinate of the tile.
+     * @param tileSize The size of a tile.
+     * @return The entity created.
+     */
+    static Collidable spawn(Level level, byte type, int x, int y, int tileSize) {
+        Collidable c;
+        switch (type) {
+            case LevelData.HERO:
+                c = new Hero(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.BUBBLE_BUSTER:
+                c = new BubbleBuster(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.INCENDO:
+                c = new Incendo(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.GIANT:
+                c = new Giant(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.FIRE_ICON:
+                c = new FireIcon(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.BANANA:
+                c = new Banana(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.APPLE:
+                c = new Apple(level, x, y, tileSize, tileSize);
+                break;
+            case LevelData.RASCAL:
+                return level.spawnFruit(x, y, tileSize, tileSize, 69);
+            default:
+                throw new IllegalArgumentException("Unknown spawn type " + type);
+        }
+        level.addCollidable(c);
+        return c;
+    }
+
+    /**
+     * Adds whatever the given level file character stands for to the level description.
+     *
+     * @param data The level being read.
+     * @param tile The character from the level file.
+     * @param x The X-coordinate of the tile.
+     * @param y The Y-coordinate of the tile.
+     */
+    private static void addTile(LevelData data, char tile, int x, int y) {
+        switch (tile) {
+            // tiny platform (1 space)
+            case '7':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, TILE_SIZE, TILE_SIZE,
+                        "sprites/tinyPlatform2.png"));
+                break;
+            // small platform (2 spaces)
+            case 'S':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, 2 * TILE_SIZE, TILE_SIZE,
+                        "sprites/smallPlatform2.png"));
+                break;
+            // medium platform (3 spaces)
+            case 'M':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, 3 * TILE_SIZE, TILE_SIZE,
+                        "sprites/mediumPlatform2.png"));
+                break;
+            // large platform (5 spaces)
+            case 'L':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, 5 * TILE_SIZE, TILE_SIZE,
+                        "sprites/bigPlatform2.png"));
+                break;
+            // floor platform
+            case 'F':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, data.columns * TILE_SIZE, TILE_SIZE,
+                        "sprites/floor2.png"));
+                break;
+            // wall platform
+            case 'W':
+                data.platforms.add(new LevelData.PlatformRecord(x, y, TILE_SIZE, data.rows * TILE_SIZE,
+                        "sprites/wall2.png"));
+                break;
+            // hero
+            case 'H':
+                data.spawns.add(new LevelData.Spawn(LevelData.HERO, x, y));
+                break;
+            // BubbleBuster
+            case 'B':
+                data.spawns.add(new LevelData.Spawn(LevelData.BUBBLE_BUSTER, x, y));
+                break;
+            // Incendo
+            case 'I':
+                data.spawns.add(new LevelData.Spawn(LevelData.INCENDO, x, y));
+                break;
+            // Giant
+            case '+':
+                data.spawns.add(new LevelData.Spawn(LevelData.GIANT, x, y));
+                break;
+            // Fire icon
+            case 'A':
+                data.spawns.add(new LevelData.Spawn(LevelData.FIRE_ICON, x, y));
+                break;
+            // Banana
+            case '9':
+                data.spawns.add(new LevelData.Spawn(LevelData.BANANA, x, y));
+                break;
+            // Apple
+            case 'C':
+                data.spawns.add(new LevelData.Spawn(LevelData.APPLE, x, y));
+                break;
+            // Game Over level
+            case 'T':
+                data.screen = "images/game_over.png";
+                data.gameOverScreen = true;
+                break;
+            // Main Menu level
+            case 't':
+                data.screen = "images/main_menu.png";
+                data.gameOverScreen = false;
+                break;
+            // Game Won level
+            case 'Z':
+                data.screen = "images/game_won.png";
+                data.gameOverScreen = false;
+                break;
+            // Spawn my boi Rascal
+            case 'R':
+                data.spawns.add(new LevelData.Spawn(LevelData.RASCAL, x, y));
+                break;
+            default:
+                // Empty tile
+                break;
+        }
+    }
+}
@@ -3,8 +3,6 @@ package BubbleBobble.model;
 import java.awt.Image;
 import java.awt.geom.Point2D;
 import java.util.Random;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * The Monster abstract class defines the basic characteristics of any monster
@@ -20,6 +18,7 @@ public abstract class Monster extends Collidable {
     protected boolean isBubbled = false;  // Flag to indicate if the monster is bubbled
     private Point2D heroLocation;  // The location of the hero for AI decisions
     private double maxDistance;  // Maximum distance the monster will travel in one direction
+    private final TimerWheel.Timeout unbubbleTimeout;  // Frees the monster from its bubble
 
     /**
      * Constructor to initialize a Monster with a given position and size in the level.
@@ -34,8 +33,9 @@ public abstract class Monster extends Collidable {
         super(level, x, y, width, height);
         this.sprites = new Image[3];  // Placeholder for sprite images
         Random rand = new Random();
-        this.direction = (rand.nextBoolean()) ? 1 : -1;  // Random initial direction
-        this.maxDistance = 100 + (Math.random() * 100) * this.direction;  // Random max distance for movement
+        this.setDirection((rand.nextBoolean()) ? 1 : -1);  // Random initial direction
+        this.maxDistance = 100 + (Math.random() * 100) * this.getDirection();  // Random max distance for movement
+        this.unbubbleTimeout = level.timers.newTimeout(() -> this.isBubbled = false);
     }
 
     /**
@@ -48,26 +48,25 @@ public abstract class Monster extends Collidable {
             this.determineMovement();  // Decide movement based on AI
 
             // Attempt to jump if ready
-            if (this.readyToJump && !this.isJumping && !this.isFalling) {
-                this.vy = JUMP_VELOCITY;  // Apply vertical velocity to jump
-                this.isJumping = true;
+            if (this.readyToJump && !this.isJumping() && !this.isFalling()) {
+                this.setVy(JUMP_VELOCITY);  // Apply vertical velocity to jump
+                this.setJumping(true);
                 this.readyToJump = false;
             }
 
             // Update position based on current direction and gravity
-            this.isCollidingLeft = false;
-            this.isCollidingRight = false;
-            this.positionX += this.direction;  // Move horizontally
-            this.currentDistance += this.direction;
-
-            this.isFalling = !(this.vy < 1);  // Check if the monster is falling
-            this.vy = this.vy + GRAVITY * DT;  // Apply gravity
-            this.positionY += this.vy * DT;  // Move vertically
+            this.setCollidingLeft(false);
+            this.setCollidingRight(false);
+            int direction = this.getDirection();
+            this.setX(this.getX() + direction);  // Move horizontally
+            this.currentDistance += direction;
+
+            this.fall();  // Apply gravity and move vertically
         } else {
             // If the monster is bubbled, it rises upwards
-            if (this.positionY >= 0) {
+            if (this.getY() >= 0) {
                 this.sprite = this.sprites[2];  // Change sprite to the bubbled state
-                this.positionY -= DX;  // Move the monster upwards
+                this.setY(this.getY() - DX);  // Move the monster upwards
             }
         }
     }
@@ -75,28 +74,24 @@ public abstract class Monster extends Collidable {
     /**
      * Handles the collision of the monster with a platform. The monster changes
      * direction when it collides with a platform.
-     *
-     * @param p The platform that the monster collided with.
      */
     @Override
-    public void collideWithPlatform(Platform p) {
-        super.collideWithPlatform(p);  // Call superclass to handle basic platform collision
-
-        if (this.isAlive) {
+    protected void respondToPlatformCollision() {
+        if (this.isAlive()) {
             // Handle collision on the right side
-            if (this.isCollidingRight) {
-                this.isCollidingRight = false;
-                this.positionX -= PRECISION;  // Adjust position to avoid getting stuck
-                this.direction *= -1;  // Change direction
+            if (this.isCollidingRight()) {
+                this.setCollidingRight(false);
+                this.setX(this.getX() - PRECISION);  // Adjust position to avoid getting stuck
+                this.setDirection(-this.getDirection());  // Change direction
                 this.changeSpriteDirection();  // Change sprite direction
                 this.currentDistance = 0;  // Reset distance counter
             }
 
             // Handle collision on the left side
-            if (this.isCollidingLeft) {
-                this.isCollidingLeft = false;
-                this.positionX += PRECISION;  // Adjust position to avoid getting stuck
-                this.direction *= -1;  // Change direction
+            if (this.isCollidingLeft()) {
+                this.setCollidingLeft(false);
+                this.setX(this.getX() + PRECISION);  // Adjust position to avoid getting stuck
+                this.setDirection(-this.getDirection());  // Change direction
                 this.changeSpriteDirection();  // Change sprite direction
                 this.currentDistance = 0;  // Reset distance counter
             }
@@ -109,14 +104,14 @@ public abstract class Monster extends Collidable {
      */
     public void determineMovement() {
         // Decide if the monster should jump (probability of 0.5%)
-        if (this.positionY > (this.heroLocation.getY() + PRECISION) && Math.random() < PROB_OF_JUMP) {
+        if (this.getY() > (this.heroLocation.getY() + PRECISION) && Math.random() < PROB_OF_JUMP) {
             this.readyToJump = true;
         }
 
         // If the monster has reached the target distance, change direction
         if (Math.abs(this.currentDistance) >= Math.abs(this.maxDistance)) {
             this.changeDirection();
-            this.maxDistance = 100 + (Math.random() * 100) * this.direction;  // Randomize new max distance
+            this.maxDistance = 100 + (Math.random() * 100) * this.getDirection();  // Randomize new max distance
             this.currentDistance = 0;  // Reset the current distance
         }
     }
@@ -135,24 +130,37 @@ public abstract class Monster extends Collidable {
      * reversed, and the sprite direction is updated accordingly.
      */
     public void changeDirection() {
-        this.direction = (Math.random() < PROB_OF_DIR_CHANGE) ? 1 : -1;  // Randomly choose a direction
+        this.setDirection((Math.random() < PROB_OF_DIR_CHANGE) ? 1 : -1);  // Randomly choose a direction
         this.changeSpriteDirection();  // Change sprite direction to match the new direction
     }
 
     /**
      * Handles the situation when the monster is hit by a bubble. The monster
      * becomes bubbled and starts rising upwards. After a delay based on its current
-     * height, the monster will un-bubble itself.
+     * height, the monster will un-bubble itself; another hit starts the delay again.
      */
     public void collideWithBubble() {
+        this.bubbleFor(TimerWheel.ticksFor(10000 + this.getY() / 4));  // Delay time depends on monster's current height
+    }
+
+    /**
+     * Puts the monster in a bubble that frees it after the given number of ticks.
+     *
+     * @param ticks The ticks until the monster is free again.
+     */
+    public void bubbleFor(long ticks) {
         this.isBubbled = true;  // Set the monster to the bubbled state
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Monster.this.isBubbled = false;  // Un-bubble the monster after a delay
-            }
-        }, 10000 + this.positionY / 4);  // Delay time depends on monster's current height
+        this.level.timers.schedule(this.unbubbleTimeout, ticks);
+    }
+
+    /**
+     * @return The ticks until the monster gets out of its bubble, or 0 if it is not bubbled.
+     */
+    public long bubbledTicksLeft() {
+        if (!this.isBubbled || !this.unbubbleTimeout.isPending()) {
+            return 0;
+        }
+        return Math.max(1, this.unbubbleTimeout.getDeadline() - this.level.timers.now());
     }
 
     /**
@@ -176,10 +184,10 @@ public abstract class Monster extends Collidable {
      * The sprite is updated to reflect the direction of movement.
      */
     public void changeSpriteDirection() {
-        if (this.direction == -1) {
+        if (this.getDirection() == -1) {
             this.sprite = this.sprites[0];  // Set sprite for left-facing monster
         }
-        if (this.direction == 1) {
+        if (this.getDirection() == 1) {
             this.sprite = this.sprites[1];  // Set sprite for right-facing monster
         }
     }
@@ -0,0 +1,70 @@
+package BubbleBobble.model;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * ObjectPool keeps collidables that have left the level so they can be handed out again
+ * instead of being allocated. Projectiles and fruit are created and destroyed many times
+ * a second while the hero is shooting; with a pool the steady state allocates nothing and
+ * the sprites are only loaded when the pool has to grow.
+ *
+ * The level owns one pool per pooled type. Objects are acquired through the level's
+ * spawn methods, which reset them, and released in the removal phase of
+ * Level.timePassed(), once nothing in the level refers to them any more.
+ *
+ * @param <T> The pooled collidable type.
+ */
+public class ObjectPool<T extends Collidable> {
+
+    private final Supplier<T> factory;  // Makes a new object when the pool is empty
+    private final ArrayList<T> free = new ArrayList<>();
+    private int created = 0;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param factory Creates a new object when the pool has none to hand out.
+     */
+    public ObjectPool(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an object out of the pool, creating one if the pool is empty. The caller
+     * has to reset it before use.
+     *
+     * @return A free object.
+     */
+    public T acquire() {
+        int size = this.free.size();
+        if (size > 0) {
+            return this.free.remove(size - 1);
+        }
+        this.created++;
+        return this.factory.get();
+    }
+
+    /**
+     * Returns an object to the pool. It must not be used by the level any more.
+     *
+     * @param t The object to return.
+     */
+    public void release(T t) {
+        this.free.add(t);
+    }
+
+    /**
+     * @return The number of objects waiting in the pool.
+     */
+    public int available() {
+        return this.free.size();
+    }
+
+    /**
+     * @return The number of objects the pool has created so far.
+     */
+    public int created() {
+        return this.created;
+    }
+}
@@ -0,0 +1,107 @@
+package BubbleBobble.model;
+
+import java.util.Arrays;
+
+/**
+ * PhaseTimes adds up how long each phase of Level.timePassed() takes. A level only
+ * measures itself when one is attached to Level.phaseTimes; otherwise the phases are
+ * not timed at all.
+ *
+ * A PhaseTimes can also keep the time of every phase for the last few ticks in a
+ * preallocated ring buffer, e.g. for the profiler overlay to draw. The ring is written by
+ * the simulation and may be read by another thread; a reader may see a tick that is being
+ * written, which is good enough for a graph.
+ */
+public class PhaseTimes {
+
+    /**
+     * The phases of one tick, in the order timePassed() runs them.
+     */
+    public enum Phase { TIMERS, MOVE, ADD_REMOVE, COLLISION, SNAPSHOT }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    public final long[] nanos = new long[PHASES.length];  // Total time per phase
+    public long ticks = 0;  // Number of ticks measured
+    private final long[][] history;  // [phase][tick % size], time of each phase of recent ticks; null if not kept
+
+    /**
+     * Creates a PhaseTimes that only keeps totals.
+     */
+    public PhaseTimes() {
+        this(0);
+    }
+
+    /**
+     * Creates a PhaseTimes that also remembers each phase of the last ticks.
+     *
+     * @param historySize The number of ticks to remember, 0 for none.
+     */
+    public PhaseTimes(int historySize) {
+        this.history = (historySize > 0) ? new long[PHASES.length][historySize] : null;
+    }
+
+    /**
+     * Adds the time since the given start to a phase.
+     *
+     * @param phase The phase that just ended.
+     * @param start System.nanoTime() when the phase started.
+     * @return System.nanoTime() now, i.e. the start of the next phase.
+     */
+    public long record(Phase phase, long start) {
+        long now = System.nanoTime();
+        this.nanos[phase.ordinal()] += now - start;
+        if (this.history != null) {
+            this.history[phase.ordinal()][(int) (this.ticks % this.history[0].length)] = now - start;
+        }
+        return now;
+    }
+
+    /**
+     * @param phase A phase.
+     * @return The average time of the phase per measured tick, in nanoseconds.
+     */
+    public double averageNanos(Phase phase) {
+        return (this.ticks == 0) ? 0 : (double) this.nanos[phase.ordinal()] / this.ticks;
+    }
+
+    /**
+     * @return The number of ticks the history holds, 0 if none is kept.
+     */
+    public int historySize() {
+        return (this.history != null) ? this.history[0].length : 0;
+    }
+
+    /**
+     * Returns the time a phase took on a recent tick.
+     *
+     * @param phase A phase.
+     * @param tick A tick number, at most historySize() ticks before ticks.
+     * @return The time in nanoseconds, or 0 if no history is kept.
+     */
+    public long sample(Phase phase, long tick) {
+        return (this.history != null) ? this.history[phase.ordinal()][(int) (tick % this.history[0].length)] : 0;
+    }
+
+    /**
+     * Forgets everything measured so far.
+     */
+    public void reset() {
+        for (int i = 0; i < this.nanos.length; i++) {
+            this.nanos[i] = 0;
+        }
+        if (this.history != null) {
+            for (long[] row : this.history) {
+                Arrays.fill(row, 0);
+            }
+        }
+        this.ticks = 0;
+    }
+
+    /**
+     * @return The phases, in order.
+     */
+    public static Phase[] phases() {
+        return PHASES.clone();
+    }
+}
@@ -36,13 +36,19 @@ public class Platform extends Collidable {
 
     /**
      * Draws the platform on the screen using the provided graphics object.
-     * The platform's sprite is rendered at its current position.
+     * The platform's sprite is rendered at its current position and repeated across
+     * its width, for platforms merged from several side by side (see LevelData).
      *
      * @param g The graphics object used to draw the platform on the screen.
      */
     @Override
     public void draw(Graphics2D g) {
-        g.drawImage(this.sprite, this.positionX, this.positionY, null);  // Draw the platform's sprite
+        int step = Math.max(1, (this.sprite == null) ? this.getWidth() : this.sprite.getWidth(null));
+        int x = this.getX();
+        do {
+            g.drawImage(this.sprite, x, this.getY(), null);  // Draw the platform's sprite
+            x += step;
+        } while (x < this.getX() + this.getWidth());
     }
 
     /**
@@ -8,9 +8,10 @@ public abstract class Projectile extends Collidable {
 
     // Maximum distance the projectile can travel
     private static final int MAX_DISTANCE = 125;
+    // Horizontal speed at launch
+    private static final double SPEED = 3;
     
-    // Horizontal and vertical movement speeds
-    protected double dx = 3;
+    // Vertical movement speed; the horizontal one is in the level's EntityStore (getVx())
     protected double dy = 0;
 
     /**
@@ -23,27 +24,42 @@ public abstract class Projectile extends Collidable {
      */
     public Projectile(Level level, int x, int y, int dir) {
         super(level, x, y, SIZE, SIZE);  // Initialize the parent Collidable class with size and level info
-        this.direction = dir;  // Set the direction of the projectile
-        this.dx = this.dx * this.direction;  // Adjust the horizontal speed based on the direction
-        this.width = SIZE;  // Set the width of the projectile
-        this.height = SIZE;  // Set the height of the projectile
+        this.setDirection(dir);  // Set the direction of the projectile
+        this.setVx(SPEED * this.getDirection());  // Adjust the horizontal speed based on the direction
+        this.setWidth(SIZE);  // Set the width of the projectile
+        this.setHeight(SIZE);  // Set the height of the projectile
     }
 
     /**
-     * Updates the position of the projectile based on its movement speed (dx, dy).
+     * Resets a pooled projectile so it can be shot again from a new position.
+     * 
+     * @param x The x-coordinate of the projectile's new position.
+     * @param y The y-coordinate of the projectile's new position.
+     * @param dir The direction in which the projectile will travel (1 for right, -1 for left).
+     */
+    protected void reset(int x, int y, int dir) {
+        this.resetState(x, y, SIZE, SIZE);
+        this.setDirection(dir);
+        this.setVx(SPEED * dir);
+        this.dy = 0;
+    }
+
+    /**
+     * Updates the position of the projectile based on its movement speed (getVx(), dy).
      * The projectile will stop moving if it has traveled beyond its maximum distance.
      */
     @Override
     public void updatePosition() {
         // Stop the projectile if it exceeds the maximum travel distance
         if (Math.abs(this.currentDistance) >= MAX_DISTANCE) {
-            this.dx = 0;  // Stop horizontal movement if max distance is reached
+            this.setVx(0);  // Stop horizontal movement if max distance is reached
         }
         
         // Update the position of the projectile
-        this.positionX += this.dx;  // Update the x-coordinate
-        this.currentDistance += this.dx;  // Track the distance traveled
-        this.positionY += this.dy;  // Update the y-coordinate
+        double dx = this.getVx();
+        this.setX((int) (this.getX() + dx));  // Update the x-coordinate
+        this.currentDistance += dx;  // Track the distance traveled
+        this.setY((int) (this.getY() + this.dy));  // Update the y-coordinate
     }
 }
 
@@ -0,0 +1,81 @@
+package BubbleBobble.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RenderBuffers hands render snapshots from the simulation thread to the render thread
+ * without locks. There are two preallocated snapshots: the published one, which the
+ * renderer may read, and the back one, which the simulation fills at the end of the next
+ * tick and then publishes by swapping the two.
+ *
+ * The renderer marks the snapshot it reads. If the renderer is still reading the back
+ * snapshot (it picked it up just before the last swap), the simulation skips publishing
+ * for that tick rather than overwrite it; the next tick publishes again. Neither side
+ * ever waits for the other.
+ *
+ * There is one writer (the simulation) and one reader (the renderer) at a time.
+ */
+public class RenderBuffers {
+
+    private static final int NONE = -1;
+
+    private final RenderSnapshot[] snapshots = {new RenderSnapshot(), new RenderSnapshot()};
+    private volatile int published = NONE;  // Index of the published snapshot
+    private final AtomicInteger reading = new AtomicInteger(NONE);  // Index the renderer is reading
+    private volatile long skipped = 0;
+
+    /**
+     * Captures the level into the back snapshot and publishes it. Called by the
+     * simulation at the end of a tick.
+     *
+     * @param level The level that just finished a tick.
+     * @return true if the snapshot was published, false if it was skipped because the
+     *         renderer was still reading the back snapshot.
+     */
+    public boolean publish(Level level) {
+        int front = this.published;
+        int back = (front == 0) ? 1 : 0;
+        if (this.reading.get() == back) {
+            this.skipped++;
+            return false;
+        }
+        this.snapshots[back].capture(level);
+        this.published = back;  // Volatile write: the renderer sees the finished snapshot
+        return true;
+    }
+
+    /**
+     * Returns the published snapshot and marks it as being read. Every call that returns
+     * a snapshot must be followed by release().
+     *
+     * @return The latest published snapshot, or null if nothing was published yet.
+     */
+    public RenderSnapshot acquire() {
+        while (true) {
+            int index = this.published;
+            if (index == NONE) {
+                return null;
+            }
+            this.reading.set(index);
+            // If the simulation swapped in between, it may already be writing into
+            // this snapshot; take the new one instead
+            if (this.published == index) {
+                return this.snapshots[index];
+            }
+        }
+    }
+
+    /**
+     * Ends reading the snapshot returned by acquire().
+     */
+    public void release() {
+        this.reading.set(NONE);
+    }
+
+    /**
+     * @return How many ticks were not published because the renderer was still reading.
+     */
+    public long getSkipped() {
+        return this.skipped;
+    }
+}
@@ -0,0 +1,199 @@
+package BubbleBobble.model;
+
+import java.awt.Image;
+import java.util.Arrays;
+
+/**
+ * RenderSnapshot is everything the renderer needs to draw one tick of a level: for every
+ * collidable its sprite, its position at the start and at the end of the tick and a few
+ * flags, plus the values shown in the HUD and the profiler overlay. The simulation fills
+ * it at the end of a tick (see RenderBuffers); after that it is only read, and it holds
+ * no reference to the level, so the renderer never touches the level or its lists while
+ * the simulation is changing them.
+ *
+ * Entries are stored as parallel arrays that grow when a level has more collidables than
+ * ever before and are reused otherwise, so capturing a tick allocates nothing.
+ */
+public class RenderSnapshot {
+
+    /** The entry is a platform; it is part of the static background. extra holds its width. */
+    public static final int PLATFORM = 1;
+    /** The entry is a Giant; extra holds its attack count. */
+    public static final int GIANT = 2;
+
+    // Draw layers, back to front
+    public static final int LAYER_ITEM = 0;        // Fruits and power-ups
+    public static final int LAYER_MONSTER = 1;
+    public static final int LAYER_HERO = 2;
+    public static final int LAYER_PROJECTILE = 3;  // Bubbles and fire
+    public static final int LAYERS = 4;
+
+    // Per-entry data, valid for indexes below count
+    public int count = 0;
+    public Image[] sprites = new Image[0];
+    public int[] x = new int[0];
+    public int[] y = new int[0];
+    public int[] previousX = new int[0];
+    public int[] previousY = new int[0];
+    public int[] flags = new int[0];
+    public int[] extra = new int[0];
+    public int[] layer = new int[0];
+
+    // Per-level data
+    public int levelNum;         // The number the level was built for
+    public Image screen;         // Menu screen image, or null
+    public TileMap geometry;     // Changes whenever the platforms change
+    public int platformCount;
+    public int platformVersion;  // Changes when a streamed level's chunks change platforms
+    public int score;
+    public int lives;
+    public long tick;            // Level tick the snapshot was taken at
+    public long capturedNanos;   // System.nanoTime() when the snapshot was taken
+    public boolean scrolling;    // The level is bigger than the screen
+    public int cameraX;          // Top left corner of the camera at the end of the tick
+    public int cameraY;
+    public int previousCameraX;  // And at its start
+    public int previousCameraY;
+
+    // Sizes of the level's lists, shown by the profiler overlay
+    public int monsterCount;
+    public int bubbleCount;
+    public int fireBubbleCount;
+    public int fireballCount;
+    public int fireIconCount;
+    public int fruitCount;
+    public int bananaCount;
+    public int appleCount;
+
+    /**
+     * Copies the drawable state of the level into this snapshot.
+     *
+     * @param level The level, at the end of a tick.
+     */
+    public void capture(Level level) {
+        EntityStore entities = level.entities;
+        int n = entities.size();
+        if (n > this.sprites.length) {
+            this.grow(n);
+        }
+        System.arraycopy(entities.x, 0, this.x, 0, n);
+        System.arraycopy(entities.y, 0, this.y, 0, n);
+        System.arraycopy(entities.previousX, 0, this.previousX, 0, n);
+        System.arraycopy(entities.previousY, 0, this.previousY, 0, n);
+        for (int i = 0; i < n; i++) {
+            Collidable c = entities.views[i];
+            this.sprites[i] = c.currentFrame();
+            this.layer[i] = (c instanceof Projectile) ? LAYER_PROJECTILE
+                    : (c instanceof Hero) ? LAYER_HERO
+                    : (c instanceof Monster) ? LAYER_MONSTER
+                    : LAYER_ITEM;
+            if (c instanceof Platform) {
+                this.flags[i] = PLATFORM;
+                this.extra[i] = entities.width[i];
+            } else if (c instanceof Giant) {
+                this.flags[i] = GIANT;
+                this.extra[i] = ((Giant) c).count;
+            } else {
+                this.flags[i] = 0;
+                this.extra[i] = 0;
+            }
+        }
+        // Let go of sprites from a bigger earlier tick
+        for (int i = n; i < this.count; i++) {
+            this.sprites[i] = null;
+        }
+        this.count = n;
+
+        this.levelNum = level.levelNum;
+        this.screen = level.screen;
+        this.geometry = level.tileMap;
+        this.platformCount = level.platforms.size();
+        this.platformVersion = (level.chunks != null) ? level.chunks.platformVersion : 0;
+        this.score = level.score;
+        this.lives = (level.hero1 != null) ? level.hero1.lives : 0;
+        this.tick = level.timers.now();
+        this.capturedNanos = System.nanoTime();
+        this.scrolling = level.camera.scrolls();
+        this.cameraX = level.camera.x;
+        this.cameraY = level.camera.y;
+        this.previousCameraX = level.camera.previousX;
+        this.previousCameraY = level.camera.previousY;
+        this.monsterCount = level.monsters.size();
+        this.bubbleCount = level.bubbles.size();
+        this.fireBubbleCount = level.fireBubbles.size();
+        this.fireballCount = level.fireballs.size();
+        this.fireIconCount = level.fireIcons.size();
+        this.fruitCount = level.fruits.size();
+        this.bananaCount = level.bananas.size();
+        this.appleCount = level.apples.size();
+    }
+
+    private void grow(int minimum) {
+        int capacity = Math.max(minimum, Math.max(16, this.sprites.length * 2));
+        this.sprites = Arrays.copyOf(this.sprites, capacity);
+        this.x = Arrays.copyOf(this.x, capacity);
+        this.y = Arrays.copyOf(this.y, capacity);
+        this.previousX = Arrays.copyOf(this.previousX, capacity);
+        this.previousY = Arrays.copyOf(this.previousY, capacity);
+        this.flags = Arrays.copyOf(this.flags, capacity);
+        this.extra = Arrays.copyOf(this.extra, capacity);
+        this.layer = Arrays.copyOf(this.layer, capacity);
+    }
+
+    /**
+     * @param i An entry index.
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The X-coordinate to draw the entry at, between its previous and current one.
+     */
+    public int drawX(int i, double alpha) {
+        return (int) Math.round(this.interpolatedX(i, alpha));
+    }
+
+    /**
+     * @param i An entry index.
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The Y-coordinate to draw the entry at, between its previous and current one.
+     */
+    public int drawY(int i, double alpha) {
+        return (int) Math.round(this.interpolatedY(i, alpha));
+    }
+
+    /**
+     * Like drawX(), but not rounded, for drawing at a scale where a playfield pixel is
+     * several screen pixels.
+     *
+     * @param i An entry index.
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The X-coordinate between the entry's previous and current one.
+     */
+    public double interpolatedX(int i, double alpha) {
+        return this.previousX[i] + (this.x[i] - this.previousX[i]) * alpha;
+    }
+
+    /**
+     * Like drawY(), but not rounded.
+     *
+     * @param i An entry index.
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The Y-coordinate between the entry's previous and current one.
+     */
+    public double interpolatedY(int i, double alpha) {
+        return this.previousY[i] + (this.y[i] - this.previousY[i]) * alpha;
+    }
+
+    /**
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The X-coordinate of the camera, between its previous and current one.
+     */
+    public double interpolatedCameraX(double alpha) {
+        return this.previousCameraX + (this.cameraX - this.previousCameraX) * alpha;
+    }
+
+    /**
+     * @param alpha The interpolation factor in [0, 1].
+     * @return The Y-coordinate of the camera, between its previous and current one.
+     */
+    public double interpolatedCameraY(double alpha) {
+        return this.previousCameraY + (this.cameraY - this.previousCameraY) * alpha;
+    }
+}
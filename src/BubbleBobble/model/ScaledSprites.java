@@ -0,0 +1,135 @@
+package BubbleBobble.model;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ScaledSprites is a copy of every sprite resampled once to one scale, so a renderer that
+ * draws the playfield bigger or smaller than its 700x700 design size can copy sprites 1:1
+ * instead of having Java2D scale each of them on every frame. Build one with
+ * SpriteRegistry.scaled(); the atlas pages are scaled as a whole set.
+ *
+ * Whole scales are resampled with nearest neighbour so pixel art stays sharp; fractional
+ * scales are resampled bicubically.
+ *
+ * A set is meant for the one thread that renders.
+ */
+public class ScaledSprites {
+
+    public final double scale;
+    private final Object interpolation;
+    private final Map<Image, Image> images = new HashMap<>();  // Original image -> scaled copy
+    private final Map<Image, SpriteRegistry.Region> regions = new HashMap<>();  // Scaled atlas sprite -> its place
+    private List<BufferedImage> pages = new ArrayList<>();  // Scaled atlas pages
+
+    ScaledSprites(double scale) {
+        this.scale = scale;
+        this.interpolation = (scale == Math.rint(scale))
+                ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                : RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+    }
+
+    /**
+     * Returns the scaled copy of a sprite.
+     *
+     * @param sprite An image from the SpriteRegistry (or a frame of one), possibly null.
+     * @return The image to draw at this scale. Images that were not in the set when it was
+     *         built, e.g. a screen loaded later, are scaled on first use.
+     */
+    public Image get(Image sprite) {
+        if (sprite == null || this.scale == 1) {
+            return sprite;
+        }
+        Image scaled = this.images.get(sprite);
+        if (scaled == null) {
+            scaled = this.scaleImage(sprite);
+            this.images.put(sprite, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * Returns where a scaled sprite is on its scaled atlas page, see SpriteRegistry.regionOf().
+     *
+     * @param sprite An image returned by get().
+     * @return Its region at this scale, or null if it is not in the atlas.
+     */
+    public SpriteRegistry.Region regionOf(Image sprite) {
+        if (this.scale == 1) {
+            return SpriteRegistry.regionOf(sprite);
+        }
+        return this.regions.get(sprite);
+    }
+
+    /**
+     * @param index A page index from a Region.
+     * @return The atlas page at this scale.
+     */
+    public Image page(int index) {
+        if (this.scale == 1) {
+            return SpriteRegistry.page(index);
+        }
+        return this.pages.get(index);
+    }
+
+    /**
+     * @param length A length or coordinate at the design size.
+     * @return The same length at this scale, in pixels.
+     */
+    public int scale(int length) {
+        return (int) Math.round(length * this.scale);
+    }
+
+    /**
+     * @return The number of images in the set.
+     */
+    public int size() {
+        return this.images.size();
+    }
+
+    void put(Image original, Image scaled) {
+        this.images.put(original, scaled);
+    }
+
+    void putRegion(Image scaled, SpriteRegistry.Region region) {
+        this.regions.put(scaled, region);
+    }
+
+    void setPages(List<BufferedImage> pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Resamples a whole image into a new compatible image.
+     */
+    BufferedImage scaleImage(Image source) {
+        int width = source.getWidth(null);
+        int height = source.getHeight(null);
+        if (width <= 0 || height <= 0) {
+            // Not loaded (a missing file); there is nothing to scale
+            return SpriteRegistry.createCompatible(1, 1);
+        }
+        BufferedImage image = SpriteRegistry.createCompatible(Math.max(1, this.scale(width)), Math.max(1, this.scale(height)));
+        Graphics2D g = image.createGraphics();
+        this.draw(g, source, 0, 0, image.getWidth(), image.getHeight(), width, height);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Draws a resampled image into the given rectangle of a destination.
+     */
+    void draw(Graphics2D g, Image source, int x, int y, int width, int height, int sourceWidth, int sourceHeight) {
+        g.setComposite(AlphaComposite.Src);  // Copy the pixels exactly instead of blending
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, this.interpolation);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(source, x, y, x + width, y + height, 0, 0, sourceWidth, sourceHeight, null);
+    }
+}
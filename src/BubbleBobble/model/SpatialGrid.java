@@ -0,0 +1,182 @@
+package BubbleBobble.model;
+
+import java.util.Arrays;
+
+/**
+ * SpatialGrid is a uniform spatial hash used as the broadphase for collision checks.
+ * The world is divided into square cells the size of one level tile, and every
+ * inserted entity is recorded in each cell its bounding box covers. A query only
+ * returns entities that share at least one cell with the queried box, so the exact
+ * overlap test runs on a handful of candidates instead of on every object in the level.
+ *
+ * Cells are hashed into a fixed number of buckets, which means the grid has no bounds
+ * (objects above the top of the screen still hash fine). Two cells that share a bucket
+ * only produce extra candidates, never missed ones. Entities are referred to by their
+ * dense row in the level's EntityStore, which does not change while collisions are being
+ * handled, and their bounding boxes are read from the store's arrays.
+ *
+ * The grid is rebuilt in two passes, like a counting sort: the first counts the entries
+ * of every bucket, the second writes them into one shared array, each bucket in its own
+ * range. That array only has to grow when there are more entities, however they crowd
+ * together, so rebuilding and querying allocate nothing while the level's population
+ * stays the same.
+ */
+public class SpatialGrid {
+
+    // Side of one cell in pixels, equal to the level tile size
+    public static final int CELL_SIZE = Collidable.SIZE;
+
+    private static final int BUCKET_COUNT = 1024;  // Must be a power of two
+
+    private int[] entries = new int[64];  // Rows of every bucket, bucket after bucket
+    private final int[] bucketStarts = new int[BUCKET_COUNT];  // Index of each bucket's first row in entries
+    private final int[] bucketSizes = new int[BUCKET_COUNT];
+    private final int[] usedBuckets = new int[BUCKET_COUNT];  // Buckets to reset on the next build()
+    private int usedCount = 0;
+
+    private int[] stamps = new int[64];  // Last query that returned each row
+    private int queryStamp = 0;
+
+    private int[] results = new int[64];
+    private int resultCount = 0;
+
+    private int[] runNext = new int[16];  // Next unread entry of each cell a query merges
+    private int[] runEnd = new int[16];
+
+    /**
+     * Empties the grid and inserts every entity of a type into each cell its bounding box
+     * covers.
+     *
+     * @param store The store holding the entities.
+     * @param type The EntityStore type tag of the entities to insert.
+     */
+    public void build(EntityStore store, byte type) {
+        for (int i = 0; i < this.usedCount; i++) {
+            this.bucketSizes[this.usedBuckets[i]] = 0;
+        }
+        this.usedCount = 0;
+
+        // Count the entries of each bucket
+        int total = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.type[row] != type) {
+                continue;
+            }
+            int minCol = Math.floorDiv(store.x[row], CELL_SIZE);
+            int maxCol = Math.floorDiv(store.x[row] + store.width[row] - 1, CELL_SIZE);
+            int minRow = Math.floorDiv(store.y[row], CELL_SIZE);
+            int maxRow = Math.floorDiv(store.y[row] + store.height[row] - 1, CELL_SIZE);
+            for (int cellRow = minRow; cellRow <= maxRow; cellRow++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    int bucket = bucketOf(col, cellRow);
+                    if (this.bucketSizes[bucket]++ == 0) {
+                        this.usedBuckets[this.usedCount++] = bucket;
+                    }
+                    total++;
+                }
+            }
+        }
+
+        // Give each used bucket its range, then fill the ranges in row order
+        if (this.entries.length < total) {
+            this.entries = new int[Math.max(total, this.entries.length * 2)];
+        }
+        int start = 0;
+        for (int i = 0; i < this.usedCount; i++) {
+            int bucket = this.usedBuckets[i];
+            this.bucketStarts[bucket] = start;
+            start += this.bucketSizes[bucket];
+            this.bucketSizes[bucket] = 0;
+        }
+        for (int row = 0; row < store.size(); row++) {
+            if (store.type[row] != type) {
+                continue;
+            }
+            int minCol = Math.floorDiv(store.x[row], CELL_SIZE);
+            int maxCol = Math.floorDiv(store.x[row] + store.width[row] - 1, CELL_SIZE);
+            int minRow = Math.floorDiv(store.y[row], CELL_SIZE);
+            int maxRow = Math.floorDiv(store.y[row] + store.height[row] - 1, CELL_SIZE);
+            for (int cellRow = minRow; cellRow <= maxRow; cellRow++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    int bucket = bucketOf(col, cellRow);
+                    this.entries[this.bucketStarts[bucket] + this.bucketSizes[bucket]++] = row;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects every entity that shares a cell with the bounding box of the given row,
+     * grown by margin pixels on each side. The candidates are available through
+     * getResult() in row order until the next query.
+     *
+     * @param store The store holding the entities.
+     * @param row The dense row to look up; it is never returned itself.
+     * @param margin Extra pixels around the bounding box to include.
+     * @return The number of candidates found.
+     */
+    public int query(EntityStore store, int row, int margin) {
+        if (this.stamps.length < store.size()) {
+            // Each row is returned at most once, so results never needs more room than this
+            int capacity = Math.max(store.size(), this.stamps.length * 2);
+            this.stamps = Arrays.copyOf(this.stamps, capacity);
+            this.results = new int[capacity];
+        }
+        this.resultCount = 0;
+        this.queryStamp++;
+        int minCol = Math.floorDiv(store.x[row] - margin, CELL_SIZE);
+        int maxCol = Math.floorDiv(store.x[row] + store.width[row] + margin - 1, CELL_SIZE);
+        int minRow = Math.floorDiv(store.y[row] - margin, CELL_SIZE);
+        int maxRow = Math.floorDiv(store.y[row] + store.height[row] + margin - 1, CELL_SIZE);
+        int cells = (maxCol - minCol + 1) * (maxRow - minRow + 1);
+        if (this.runNext.length < cells) {
+            this.runNext = new int[Math.max(cells, this.runNext.length * 2)];
+            this.runEnd = new int[this.runNext.length];
+        }
+        int runCount = 0;
+        for (int cellRow = minRow; cellRow <= maxRow; cellRow++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int bucket = bucketOf(col, cellRow);
+                if (this.bucketSizes[bucket] > 0) {
+                    this.runNext[runCount] = this.bucketStarts[bucket];
+                    this.runEnd[runCount] = this.bucketStarts[bucket] + this.bucketSizes[bucket];
+                    runCount++;
+                }
+            }
+        }
+        // Every bucket holds its rows in ascending order, so merging the buckets of the
+        // cells returns the candidates in row order, the order the brute-force path
+        // handles contacts in, without sorting them
+        while (runCount > 0) {
+            int smallest = 0;
+            for (int r = 1; r < runCount; r++) {
+                if (this.entries[this.runNext[r]] < this.entries[this.runNext[smallest]]) {
+                    smallest = r;
+                }
+            }
+            int other = this.entries[this.runNext[smallest]++];
+            if (this.runNext[smallest] == this.runEnd[smallest]) {
+                runCount--;
+                this.runNext[smallest] = this.runNext[runCount];
+                this.runEnd[smallest] = this.runEnd[runCount];
+            }
+            if (this.stamps[other] != this.queryStamp && other != row) {
+                this.stamps[other] = this.queryStamp;
+                this.results[this.resultCount++] = other;
+            }
+        }
+        return this.resultCount;
+    }
+
+    /**
+     * @param i The index of the candidate, below the count returned by query().
+     * @return The dense row of the i-th candidate of the last query.
+     */
+    public int getResult(int i) {
+        return this.results[i];
+    }
+
+    private static int bucketOf(int col, int row) {
+        return ((col * 73856093) ^ (row * 19349663)) & (BUCKET_COUNT - 1);
+    }
+}
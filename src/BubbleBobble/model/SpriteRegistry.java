@@ -0,0 +1,340 @@
+package BubbleBobble.model;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * SpriteRegistry loads every image the game uses once per process and hands out the same
+ * shared Image to everyone who asks for it, so creating an entity or pressing a key never
+ * reads or decodes a file.
+ *
+ * The first request packs all the static sprites (the PNG files in the sprites directory)
+ * into atlas pages, images compatible with the screen so they can be drawn without
+ * conversion; each sprite is a sub-image of its page. Animated GIFs are decoded into
+ * their frames (see AnimatedSprite). Other images (the menu screens) are loaded into
+ * their own compatible image on first use.
+ *
+ * For a playfield drawn at another size than its design size, scaled() resamples all of
+ * these once into a ScaledSprites set, atlas pages included.
+ *
+ * When the JVM runs headless (-Djava.awt.headless=true) nothing is drawn, so nothing is
+ * loaded and every sprite is null. That keeps levels cheap to build when games are only
+ * simulated. -Dbubblebobble.sprites=true loads them anyway, into plain ARGB images, for
+ * drawing offscreen (e.g. the render benchmarks).
+ */
+public class SpriteRegistry {
+
+    private static final String ATLAS_DIRECTORY = "sprites";
+    private static final int PAGE_WIDTH = 1024;
+    private static final int PAGE_HEIGHT = 1024;
+
+    // Decided once, when the class is first used
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            System.getProperty("bubblebobble.sprites", String.valueOf(!GraphicsEnvironment.isHeadless())));
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    private static final List<BufferedImage> pages = new ArrayList<>();
+    private static final Map<Image, Region> regions = new HashMap<>();  // Where each atlas sprite is
+    private static boolean atlasBuilt = false;
+    private static ScaledSprites scaledSet;
+
+    /**
+     * The place of a sprite in the atlas: the index of its page and its rectangle there.
+     */
+    public static final class Region {
+        public final int page;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        Region(int page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * @return true if sprites are loaded, false in a headless JVM.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the shared image for a file, loading it the first time.
+     *
+     * @param path The path of the image, relative to the working directory.
+     * @return The image, or null when running headless.
+     */
+    public static Image get(String path) {
+        if (!ENABLED) {
+            return null;
+        }
+        Image image = images.get(path);
+        return (image != null) ? image : load(path);
+    }
+
+    /**
+     * Builds the atlas now instead of on the first get(), e.g. before the game starts.
+     */
+    public static void preload() {
+        if (ENABLED) {
+            load(null);
+        }
+    }
+
+    /**
+     * Returns every loaded sprite resampled to a scale. Each atlas page is redrawn at the
+     * scale with its sprites in the same (scaled) places, and every other image and every
+     * frame of an animated sprite gets its own scaled copy. The last set is kept, so asking
+     * again for the same scale costs nothing; a new scale builds a new set.
+     *
+     * @param scale Pixels drawn per pixel of the design size.
+     * @return The scaled sprites.
+     */
+    public static synchronized ScaledSprites scaled(double scale) {
+        if (scaledSet != null && scaledSet.scale == scale) {
+            return scaledSet;
+        }
+        ScaledSprites set = new ScaledSprites(scale);
+        if (ENABLED && scale != 1) {
+            load(null);  // Make sure the atlas exists
+            List<BufferedImage> scaledPages = new ArrayList<>();
+            List<Graphics2D> graphics = new ArrayList<>();
+            for (BufferedImage page : pages) {
+                BufferedImage scaledPage = createCompatible(Math.max(1, set.scale(page.getWidth())),
+                        Math.max(1, set.scale(page.getHeight())));
+                scaledPages.add(scaledPage);
+                graphics.add(scaledPage.createGraphics());
+            }
+            for (Map.Entry<Image, Region> entry : regions.entrySet()) {
+                Region r = entry.getValue();
+                // Scale the corners rather than the size so neighbours meet without gaps
+                int x0 = set.scale(r.x);
+                int y0 = set.scale(r.y);
+                int width = set.scale(r.x + r.width) - x0;
+                int height = set.scale(r.y + r.height) - y0;
+                if (width <= 0 || height <= 0) {
+                    set.put(entry.getKey(), set.scaleImage(entry.getKey()));
+                    continue;
+                }
+                set.draw(graphics.get(r.page), entry.getKey(), x0, y0, width, height, r.width, r.height);
+                Image sprite = scaledPages.get(r.page).getSubimage(x0, y0, width, height);
+                set.put(entry.getKey(), sprite);
+                set.putRegion(sprite, new Region(r.page, x0, y0, width, height));
+            }
+            set.setPages(scaledPages);
+            for (Graphics2D g : graphics) {
+                g.dispose();
+            }
+            for (Image image : images.values()) {
+                if (regions.containsKey(image)) {
+                    continue;
+                }
+                if (image instanceof AnimatedSprite) {
+                    AnimatedSprite animation = (AnimatedSprite) image;
+                    BufferedImage[] frames = new BufferedImage[animation.getFrameCount()];
+                    for (int i = 0; i < frames.length; i++) {
+                        frames[i] = set.scaleImage(animation.getFrame(i));
+                        set.put(animation.getFrame(i), frames[i]);  // Snapshots hold single frames
+                    }
+                    set.put(animation, animation.withFrames(frames));
+                } else {
+                    set.put(image, set.scaleImage(image));
+                }
+            }
+        }
+        scaledSet = set;
+        return set;
+    }
+
+    /**
+     * @return The number of atlas pages.
+     */
+    public static synchronized int pageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns where a sprite is in the atlas. Sprites on the same page can be drawn one
+     * after the other from the page, with their region as the source rectangle, without
+     * the graphics pipeline switching source images.
+     *
+     * @param sprite An image from get().
+     * @return Its region, or null if it is not in the atlas (animation frames, screens).
+     */
+    public static synchronized Region regionOf(Image sprite) {
+        return regions.get(sprite);
+    }
+
+    /**
+     * @param index A page index from a Region.
+     * @return The atlas page.
+     */
+    public static synchronized BufferedImage page(int index) {
+        return pages.get(index);
+    }
+
+    private static synchronized Image load(String path) {
+        if (!atlasBuilt) {
+            buildAtlas();
+            atlasBuilt = true;
+        }
+        if (path == null) {
+            return null;
+        }
+        Image image = images.get(path);
+        if (image == null) {
+            // GIFs are decoded once into all their frames; see AnimatedSprite
+            image = path.endsWith(".gif") ? loadAnimated(path) : loadCompatible(path);
+            images.put(path, image);
+        }
+        return image;
+    }
+
+    /**
+     * Reads an image file into an image compatible with the screen.
+     */
+    private static Image loadCompatible(String path) {
+        try {
+            BufferedImage decoded = ImageIO.read(new File(path));
+            if (decoded != null) {
+                return toCompatible(decoded);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot read " + path);
+        }
+        return (new ImageIcon(path)).getImage();  // Same (empty) image as before for a missing file
+    }
+
+    /**
+     * Reads a GIF file into its frames.
+     */
+    private static Image loadAnimated(String path) {
+        Image image = AnimatedSprite.read(path);
+        return (image != null) ? image : (new ImageIcon(path)).getImage();
+    }
+
+    static BufferedImage toCompatible(BufferedImage source) {
+        BufferedImage image = createCompatible(source.getWidth(), source.getHeight());
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Src);  // Copy the pixels exactly instead of blending
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+
+    static BufferedImage createCompatible(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            // Loaded on request for offscreen drawing; there is no screen to match
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Packs the PNG sprites into pages, one shelf (row) at a time, tallest first.
+     */
+    private static void buildAtlas() {
+        File[] files = new File(ATLAS_DIRECTORY).listFiles((dir, name) -> name.endsWith(".png"));
+        if (files == null) {
+            return;
+        }
+        List<String> paths = new ArrayList<>();
+        List<BufferedImage> decoded = new ArrayList<>();
+        for (File file : files) {
+            try {
+                BufferedImage image = ImageIO.read(file);
+                if (image != null && image.getWidth() <= PAGE_WIDTH && image.getHeight() <= PAGE_HEIGHT) {
+                    paths.add(ATLAS_DIRECTORY + "/" + file.getName());
+                    decoded.add(image);
+                }
+            } catch (IOException e) {
+                System.err.println("Cannot read " + file);
+            }
+        }
+
+        Integer[] order = new Integer[decoded.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> -decoded.get(i).getHeight()));
+
+        // Lay out the sprites first so every page can be created at the size it needs
+        int[] pageOf = new int[order.length];
+        int[] xs = new int[order.length];
+        int[] ys = new int[order.length];
+        List<int[]> pageSizes = new ArrayList<>();
+        int page = 0;
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        pageSizes.add(new int[2]);
+        for (int i : order) {
+            BufferedImage image = decoded.get(i);
+            if (x + image.getWidth() > PAGE_WIDTH) {  // New shelf
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            if (y + image.getHeight() > PAGE_HEIGHT) {  // New page
+                page++;
+                pageSizes.add(new int[2]);
+                x = 0;
+                y = 0;
+                shelfHeight = 0;
+            }
+            pageOf[i] = page;
+            xs[i] = x;
+            ys[i] = y;
+            int[] size = pageSizes.get(page);
+            size[0] = Math.max(size[0], x + image.getWidth());
+            size[1] = Math.max(size[1], y + image.getHeight());
+            x += image.getWidth();
+            shelfHeight = Math.max(shelfHeight, image.getHeight());
+        }
+
+        int firstPage = pages.size();
+        List<Graphics2D> graphics = new ArrayList<>();
+        for (int[] size : pageSizes) {
+            BufferedImage pageImage = createCompatible(Math.max(size[0], 1), Math.max(size[1], 1));
+            pages.add(pageImage);
+            Graphics2D g = pageImage.createGraphics();
+            g.setComposite(AlphaComposite.Src);  // Copy the pixels exactly instead of blending
+            graphics.add(g);
+        }
+        for (int i = 0; i < decoded.size(); i++) {
+            BufferedImage image = decoded.get(i);
+            graphics.get(pageOf[i]).drawImage(image, xs[i], ys[i], null);
+            BufferedImage pageImage = pages.get(firstPage + pageOf[i]);
+            Image sprite = pageImage.getSubimage(xs[i], ys[i], image.getWidth(), image.getHeight());
+            images.put(paths.get(i), sprite);
+            regions.put(sprite, new Region(firstPage + pageOf[i], xs[i], ys[i], image.getWidth(), image.getHeight()));
+        }
+        for (Graphics2D g : graphics) {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package BubbleBobble.model;
+
+/**
+ * TileMap is a compact occupancy bitmap of a level's static geometry. Platforms never
+ * move, so when a level is built they are rasterized once onto the tile grid, and
+ * platform contact for moving objects becomes a few bit lookups instead of an
+ * intersection test against every platform in the level.
+ *
+ * Besides plain occupancy the map remembers which tiles are the top row, the first
+ * column and the last column of some platform. Those are the only places where
+ * Collidable.collideWithPlatform() reacts (landing, right and left collisions), so a
+ * lookup gives the same answer as testing the platforms one by one.
+ */
+public class TileMap {
+
+    public final int columns;  // Width of the map in tiles
+    public final int rows;  // Height of the map in tiles
+    public final int tileSize;  // Side of one tile in pixels
+
+    private final long[] solid;  // Tiles covered by any platform
+    private final long[] topEdges;  // Tiles in the top row of a platform
+    private final long[] leftEdges;  // Tiles in the first column of a platform
+    private final long[] rightEdges;  // Tiles in the last column of a platform
+
+    /**
+     * Creates an empty map.
+     *
+     * @param columns The number of tile columns.
+     * @param rows The number of tile rows.
+     * @param tileSize The side of one tile in pixels.
+     */
+    public TileMap(int columns, int rows, int tileSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        int words = (columns * rows + 63) >>> 6;
+        this.solid = new long[words];
+        this.topEdges = new long[words];
+        this.leftEdges = new long[words];
+        this.rightEdges = new long[words];
+    }
+
+    /**
+     * Rasterizes a platform onto the map. Tiles outside the map are ignored.
+     *
+     * @param p The platform to add.
+     */
+    public void addPlatform(Platform p) {
+        this.addPlatform(p.getX(), p.getY(), p.getWidth(), p.getHeight());
+    }
+
+    /**
+     * Rasterizes a platform that is only a record (see LevelChunks) onto the map.
+     *
+     * @param x The x-coordinate of the platform.
+     * @param y The y-coordinate of the platform.
+     * @param width The width of the platform.
+     * @param height The height of the platform.
+     */
+    public void addPlatform(int x, int y, int width, int height) {
+        int firstCol = Math.floorDiv(x, this.tileSize);
+        int lastCol = Math.floorDiv(x + width - 1, this.tileSize);
+        int firstRow = Math.floorDiv(y, this.tileSize);
+        int lastRow = Math.floorDiv(y + height - 1, this.tileSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (!this.contains(col, row)) {
+                    continue;
+                }
+                int bit = row * this.columns + col;
+                set(this.solid, bit);
+                if (row == firstRow) {
+                    set(this.topEdges, bit);
+                }
+                if (col == firstCol) {
+                    set(this.leftEdges, bit);
+                }
+                if (col == lastCol) {
+                    set(this.rightEdges, bit);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the tile is covered by a platform.
+     */
+    public boolean isSolid(int col, int row) {
+        return this.contains(col, row) && get(this.solid, row * this.columns + col);
+    }
+
+    /**
+     * @return true if the tile is in the top row of a platform (something can land on it).
+     */
+    public boolean isTopEdge(int col, int row) {
+        return this.contains(col, row) && get(this.topEdges, row * this.columns + col);
+    }
+
+    /**
+     * @return true if the tile is in the first column of a platform (blocks movement to the right).
+     */
+    public boolean isLeftEdge(int col, int row) {
+        return this.contains(col, row) && get(this.leftEdges, row * this.columns + col);
+    }
+
+    /**
+     * @return true if the tile is in the last column of a platform (blocks movement to the left).
+     */
+    public boolean isRightEdge(int col, int row) {
+        return this.contains(col, row) && get(this.rightEdges, row * this.columns + col);
+    }
+
+    /**
+     * Works out which sides of a bounding box touch a platform in the map, see
+     * Collidable.tileContacts().
+     *
+     * @param x The left edge of the box.
+     * @param y The top edge of the box.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     * @param falling Whether the box is falling; only a falling box lands on a platform.
+     * @return A combination of Collidable.TOUCH_TOP, TOUCH_RIGHT and TOUCH_LEFT.
+     */
+    public int contacts(int x, int y, int width, int height, boolean falling) {
+        int size = this.tileSize;
+        int bottomY = y + height;
+        int rightX = x + width;
+        int topRow = this.rowAt(y);
+        int contacts = 0;
+
+        //top collision: bottom edge just inside the top row of a platform
+        int row = this.rowAt(bottomY);
+        int depth = bottomY - row * size;
+        if (depth > 0 && depth < Collidable.PRECISION && falling) {
+            int lastCol = this.columnAt(rightX - 1);
+            for (int col = this.columnAt(x); col <= lastCol; col++) {
+                if (this.isTopEdge(col, row)) {
+                    contacts |= Collidable.TOUCH_TOP;
+                    break;
+                }
+            }
+        }
+
+        //right collision: right edge just inside the first column of a platform
+        int col = this.columnAt(rightX);
+        depth = rightX - col * size;
+        if (depth > 0 && depth < Collidable.PRECISION && this.isLeftEdge(col, topRow)) {
+            contacts |= Collidable.TOUCH_RIGHT;
+        }
+
+        //left collision: left edge just inside the last column of a platform
+        col = this.columnAt(x);
+        depth = x - col * size;
+        if (depth > size - Collidable.PRECISION && this.isRightEdge(col, topRow)) {
+            contacts |= Collidable.TOUCH_LEFT;
+        }
+        return contacts;
+    }
+
+    /**
+     * @return the column of the tile containing pixel x.
+     */
+    public int columnAt(int x) {
+        return Math.floorDiv(x, this.tileSize);
+    }
+
+    /**
+     * @return the row of the tile containing pixel y.
+     */
+    public int rowAt(int y) {
+        return Math.floorDiv(y, this.tileSize);
+    }
+
+    private boolean contains(int col, int row) {
+        return col >= 0 && col < this.columns && row >= 0 && row < this.rows;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean get(long[] bits, int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
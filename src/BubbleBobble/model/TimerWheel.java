@@ -0,0 +1,289 @@
+package BubbleBobble.model;
+
+import java.util.Arrays;
+
+/**
+ * TimerWheel schedules delayed game events (grace periods, respawns, bubbles popping...)
+ * in simulation ticks instead of on java.util.Timer threads. Each Level owns one wheel
+ * and advances it once per tick, so callbacks run on the simulation thread, between
+ * ticks, and never after the level has been torn down.
+ *
+ * The wheel is hierarchical: LEVELS rings of SLOTS slots each. The first ring holds
+ * timeouts due within SLOTS ticks, one slot per tick; each further ring covers SLOTS
+ * times the span of the previous one, and its slots are cascaded down into the finer
+ * rings as time reaches them. Scheduling and cancelling are O(1). Timeouts that fall due
+ * on the same tick run in the order they were scheduled.
+ *
+ * The wheel is not thread safe; it is meant to be used from the simulation thread.
+ */
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;  // Slots per ring
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;  // Covers 2^24 ticks, more than 18 hours at 4 ms
+
+    // Timeout.slot values that are not slot indexes
+    private static final int IDLE = -1;  // Not scheduled
+    private static final int DUE = -2;  // Taken out of the wheel, about to run in advance()
+
+    /**
+     * A scheduled callback. Keep it to cancel the callback before it runs. A timeout made
+     * with newTimeout() can be armed again with schedule(Timeout, long) once it has run or
+     * been cancelled, so objects that fire the same event over and over need not allocate.
+     */
+    public static class Timeout {
+        private final Runnable task;
+        private long deadline;
+        private long sequence;
+        private Timeout next;
+        private Timeout previous;
+        private int slot = IDLE;  // Index into slots, or IDLE / DUE
+        private boolean cancelled = false;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * @return The tick on which the callback runs.
+         */
+        public long getDeadline() {
+            return this.deadline;
+        }
+
+        /**
+         * @return true if the timeout was cancelled before it ran.
+         */
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        /**
+         * @return true if the timeout is waiting to run.
+         */
+        public boolean isPending() {
+            return this.slot != IDLE;
+        }
+    }
+
+    // LEVELS * SLOTS doubly linked lists, ring r slot s at index r * SLOTS + s
+    private final Timeout[] slots = new Timeout[LEVELS * SLOTS];
+    private long currentTick = 0;
+    private long nextSequence = 0;
+    private int pending = 0;
+    private Timeout[] due = new Timeout[16];
+    private int dueCount = 0;
+
+    /**
+     * Converts a delay in milliseconds into ticks, rounding up.
+     *
+     * @param millis The delay in milliseconds.
+     * @return The delay in ticks, at least 1.
+     */
+    public static long ticksFor(long millis) {
+        return Math.max(1, (millis + Level.TICK_MILLIS - 1) / Level.TICK_MILLIS);
+    }
+
+    /**
+     * @return The number of ticks the wheel has been advanced.
+     */
+    public long now() {
+        return this.currentTick;
+    }
+
+    /**
+     * @return The number of timeouts waiting to run.
+     */
+    public int size() {
+        return this.pending;
+    }
+
+    /**
+     * Schedules a callback to run after the given number of ticks.
+     *
+     * @param task The callback.
+     * @param delayTicks The delay in ticks; values below 1 mean the next tick.
+     * @return The timeout, which can be cancelled.
+     */
+    public Timeout schedule(Runnable task, long delayTicks) {
+        Timeout t = new Timeout(task);
+        this.schedule(t, delayTicks);
+        return t;
+    }
+
+    /**
+     * Creates a timeout that is not scheduled yet; arm it with schedule(Timeout, long).
+     *
+     * @param task The callback.
+     * @return The unscheduled timeout.
+     */
+    public Timeout newTimeout(Runnable task) {
+        return new Timeout(task);
+    }
+
+    /**
+     * Schedules an existing timeout to run after the given number of ticks. If it is
+     * still pending it is moved to the new deadline.
+     *
+     * @param t A timeout created by this wheel.
+     * @param delayTicks The delay in ticks; values below 1 mean the next tick.
+     */
+    public void schedule(Timeout t, long delayTicks) {
+        this.cancel(t);
+        t.cancelled = false;
+        t.deadline = this.currentTick + Math.max(1, delayTicks);
+        t.sequence = this.nextSequence++;
+        this.insert(t);
+        this.pending++;
+    }
+
+    /**
+     * Cancels a timeout. Nothing happens if it has already run or been cancelled.
+     *
+     * @param t The timeout to cancel, may be null.
+     */
+    public void cancel(Timeout t) {
+        if (t == null || t.slot == IDLE) {
+            return;
+        }
+        if (t.slot == DUE) {
+            // Due on this tick but not run yet; advance() skips it
+            t.slot = IDLE;
+        } else {
+            this.unlink(t);
+        }
+        t.cancelled = true;
+        this.pending--;
+    }
+
+    /**
+     * Cancels every pending timeout. Called when the level is torn down.
+     */
+    public void cancelAll() {
+        for (int i = 0; i < this.slots.length; i++) {
+            Timeout t = this.slots[i];
+            while (t != null) {
+                Timeout next = t.next;
+                t.next = null;
+                t.previous = null;
+                t.slot = IDLE;
+                t.cancelled = true;
+                t = next;
+            }
+            this.slots[i] = null;
+        }
+        for (int i = 0; i < this.dueCount; i++) {
+            if (this.due[i].slot == DUE) {
+                this.due[i].slot = IDLE;
+                this.due[i].cancelled = true;
+            }
+        }
+        this.pending = 0;
+    }
+
+    /**
+     * Moves the wheel forward by one tick and runs every callback that is now due, in the
+     * order they were scheduled. Callbacks may schedule or cancel other timeouts.
+     */
+    public void advance() {
+        this.currentTick++;
+
+        // When a ring wraps around, spread the next slot of the ring above over the finer rings
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                this.cascade(level, (int) ((this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+        }
+
+        int slot = (int) (this.currentTick & SLOT_MASK);
+        int count = 0;
+        Timeout t = this.slots[slot];
+        while (t != null) {
+            Timeout next = t.next;
+            if (t.deadline <= this.currentTick) {
+                this.unlink(t);
+                t.slot = DUE;
+                if (count == this.due.length) {
+                    this.due = Arrays.copyOf(this.due, count * 2);
+                }
+                this.due[count++] = t;
+            }
+            t = next;
+        }
+
+        // Insertion sort by scheduling order; the list is usually tiny
+        for (int i = 1; i < count; i++) {
+            Timeout x = this.due[i];
+            int j = i - 1;
+            while (j >= 0 && this.due[j].sequence > x.sequence) {
+                this.due[j + 1] = this.due[j];
+                j--;
+            }
+            this.due[j + 1] = x;
+        }
+
+        this.dueCount = count;
+        for (int i = 0; i < count; i++) {
+            Timeout x = this.due[i];
+            // An earlier callback in this tick may have cancelled or rescheduled it
+            if (x.slot == DUE) {
+                x.slot = IDLE;
+                this.pending--;
+                x.task.run();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            this.due[i] = null;
+        }
+        this.dueCount = 0;
+    }
+
+    private void insert(Timeout t) {
+        long delta = t.deadline - this.currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        long deadline = t.deadline;
+        if (level == LEVELS - 1 && delta >= (1L << (SLOT_BITS * LEVELS))) {
+            // Too far ahead: park it in the last slot it can reach and cascade it from there
+            deadline = this.currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int slot = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        t.slot = slot;
+        t.previous = null;
+        t.next = this.slots[slot];
+        if (t.next != null) {
+            t.next.previous = t;
+        }
+        this.slots[slot] = t;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.previous != null) {
+            t.previous.next = t.next;
+        } else {
+            this.slots[t.slot] = t.next;
+        }
+        if (t.next != null) {
+            t.next.previous = t.previous;
+        }
+        t.next = null;
+        t.previous = null;
+        t.slot = IDLE;
+    }
+
+    private void cascade(int level, int index) {
+        int slot = level * SLOTS + index;
+        Timeout t = this.slots[slot];
+        this.slots[slot] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.next = null;
+            t.previous = null;
+            this.insert(t);
+            t = next;
+        }
+    }
+}
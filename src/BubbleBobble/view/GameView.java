@@ -1,6 +1,7 @@
 package BubbleBobble.view;
 
 import BubbleBobble.LevelComponent;
+import BubbleBobble.Viewport;
 import BubbleBobble.designPattern.GameObserver;
 
 import javax.swing.*;
@@ -35,10 +36,16 @@ public class GameView implements GameObserver {
     public static final int TITLE_HEIGHT = 50;
 
     /**
-     * The size of the game panel.
+     * The size of the game panel at scale 1.
      */
     public static final int PANEL_SIZE = 700;
 
+    /**
+     * The size the game panel opens at: PANEL_SIZE times the largest whole scale that fits
+     * the screen, so big monitors get a big window (see Viewport).
+     */
+    public static final int INITIAL_PANEL_SIZE = Viewport.initialSize(PANEL_SIZE, SCREEN_HEIGHT, 2 * TITLE_HEIGHT + 50);
+
     /**
      * The X-coordinate of the top-left corner of the game panel, positioned in the center of the screen.
      */
@@ -74,14 +81,15 @@ public class GameView implements GameObserver {
         mainFrame = new JFrame("BubbleBobble");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         mainFrame.setLocation(PANEL_X, PANEL_Y);
-        mainFrame.setSize(715, 800);
         mainFrame.setLayout(new BorderLayout());
         mainFrame.setFocusable(true);
 
         titlePanel = new JPanel();
         buttonPanel = new JPanel();
 
-        mainFrame.add(this.levelComponent, BorderLayout.CENTER);
+        // The window can be resized; the game is scaled to whatever size it gets
+        this.levelComponent.getView().setPreferredSize(new Dimension(INITIAL_PANEL_SIZE, INITIAL_PANEL_SIZE));
+        mainFrame.add(this.levelComponent.getView(), BorderLayout.CENTER);
         mainFrame.add(titlePanel, BorderLayout.NORTH);
         mainFrame.add(buttonPanel, BorderLayout.SOUTH);
     }
@@ -102,6 +110,9 @@ public class GameView implements GameObserver {
     public void show() {
         this.levelComponent.loadLevel();
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Size the window around the game panel now that the title and buttons are in
+        mainFrame.pack();
+        mainFrame.setLocationRelativeTo(null);
         mainFrame.setVisible(true);
     }
 
@@ -127,12 +138,14 @@ public class GameView implements GameObserver {
     }
 
     /**
-     * Updates the game state. This method reloads the level when the game state changes.
+     * Updates the game state. Called after the level component has changed levels, which it
+     * has already loaded, so there is nothing to reload here; the view just shows the next
+     * frame.
      */
     @Override
     public void updateGameState() {
         // Update the view, e.g., redraw or refresh the game level
-        this.levelComponent.loadLevel();
+        this.levelComponent.getView().repaint();
     }
 
     /**
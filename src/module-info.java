@@ -6,4 +6,6 @@
  */
 module JBubbleBobble2 {
 	requires java.desktop;
+	requires java.management;
+	requires jdk.management;
 }
\ No newline at end of file